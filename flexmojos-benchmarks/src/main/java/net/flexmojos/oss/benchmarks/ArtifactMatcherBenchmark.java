@@ -0,0 +1,140 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.benchmarks;
+
+import static ch.lambdaj.Lambda.filter;
+import static ch.lambdaj.Lambda.selectFirst;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.flexmojos.oss.matcher.artifact.ArtifactIndex;
+import net.flexmojos.oss.matcher.artifact.ArtifactMatcher;
+import net.flexmojos.oss.matcher.artifact.DependencyMatcher;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The dependency queries the compiler mojos run while building a configuration (library path, externals, RSLs,
+ * framework lookups), over a dependency set with hundreds of entries.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class ArtifactMatcherBenchmark
+{
+
+    private List<Artifact> artifacts;
+
+    private List<Dependency> dependencies;
+
+    private ArtifactIndex index;
+
+    private Matcher<? extends Artifact>[] libraries;
+
+    private Matcher<? extends Artifact>[] framework;
+
+    private Matcher<? extends Dependency> compilerDependency;
+
+    @Setup
+    @SuppressWarnings( "unchecked" )
+    public void setup()
+    {
+        artifacts = Fixtures.artifacts( 500 );
+        dependencies = Fixtures.dependencies( 500 );
+
+        index = new ArtifactIndex( artifacts );
+
+        libraries =
+            new Matcher[] { ArtifactMatcher.type( "swc" ),
+                anyOf( ArtifactMatcher.scope( "compile" ), ArtifactMatcher.scope( "merged" ) ),
+                not( ArtifactMatcher.groupId( "com.adobe.flash.framework" ) ) };
+        framework =
+            new Matcher[] { ArtifactMatcher.groupId( "org.apache.flex.framework" ),
+                ArtifactMatcher.artifactId( "library-480" ), ArtifactMatcher.type( "swc" ) };
+        compilerDependency =
+            allOf( DependencyMatcher.groupId( "com.example.flex.module7" ), DependencyMatcher.type( "swc" ) );
+    }
+
+    @Benchmark
+    @SuppressWarnings( "unchecked" )
+    public Collection<Artifact> filterLibraries()
+    {
+        return filter( allOf( libraries ), artifacts );
+    }
+
+    @Benchmark
+    public Collection<Artifact> indexLibraries()
+    {
+        return index.filter( libraries );
+    }
+
+    /**
+     * Includes building the index, which is done once per mojo execution.
+     */
+    @Benchmark
+    public Collection<Artifact> newIndexLibraries()
+    {
+        return new ArtifactIndex( artifacts ).filter( libraries );
+    }
+
+    @Benchmark
+    @SuppressWarnings( "unchecked" )
+    public Object selectFramework()
+    {
+        return selectFirst( artifacts, allOf( framework ) );
+    }
+
+    @Benchmark
+    public Artifact indexFramework()
+    {
+        return index.selectFirst( framework );
+    }
+
+    @Benchmark
+    public Artifact indexSearchFor()
+    {
+        return index.searchFor( "org.apache.flex.framework", "library-480", null, "swc", null );
+    }
+
+    @Benchmark
+    public Object selectDependency()
+    {
+        return selectFirst( dependencies, compilerDependency );
+    }
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.flexmojos.oss.util.CollectionUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merges library paths the way the compiler mojos do: a few large, heavily overlapping lists.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class CollectionUtilsBenchmark
+{
+
+    private List<File> libraries;
+
+    private List<File> externals;
+
+    private List<File> merged;
+
+    private File[] librariesArray;
+
+    private File[] externalsArray;
+
+    @Setup
+    public void setup()
+    {
+        libraries = new ArrayList<File>();
+        externals = new ArrayList<File>();
+        merged = new ArrayList<File>();
+        for ( int i = 0; i < 500; i++ )
+        {
+            File file = new File( "/repository/com/example/library-" + i + ".swc" );
+            libraries.add( file );
+            if ( i % 2 == 0 )
+            {
+                externals.add( file );
+            }
+            if ( i % 3 == 0 )
+            {
+                merged.add( new File( "/repository/com/example/merged-" + i + ".swc" ) );
+            }
+        }
+        librariesArray = libraries.toArray( new File[libraries.size()] );
+        externalsArray = externals.toArray( new File[externals.size()] );
+    }
+
+    @Benchmark
+    @SuppressWarnings( "unchecked" )
+    public List<File> mergeCollections()
+    {
+        return CollectionUtils.merge( (Collection<File>) libraries, externals, merged );
+    }
+
+    @Benchmark
+    public File[] mergeArrays()
+    {
+        return CollectionUtils.merge( librariesArray, externalsArray );
+    }
+
+}
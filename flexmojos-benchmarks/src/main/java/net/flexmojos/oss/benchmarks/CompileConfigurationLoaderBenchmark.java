@@ -0,0 +1,190 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.flexmojos.oss.plugin.utilities.CompileConfigurationLoader;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.PluginManagement;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The settings copy-flex-resources reads from every SWF and SWC dependency of a war with hundreds of flex
+ * dependencies, each one inheriting a large flexmojos configuration with a few executions.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class CompileConfigurationLoaderBenchmark
+{
+
+    private static final String[] OPTIONS = { "rslUrls", "localesRuntime", "runtimeLocaleOutputPath" };
+
+    private List<MavenProject> dependencies;
+
+    @Setup
+    public void setup()
+    {
+        dependencies = new ArrayList<MavenProject>();
+        for ( int i = 0; i < 400; i++ )
+        {
+            dependencies.add( project( i ) );
+        }
+    }
+
+    @Benchmark
+    public void indexedLookup( Blackhole bh )
+    {
+        for ( MavenProject project : dependencies )
+        {
+            bh.consume( CompileConfigurationLoader.getCompilerPluginSettings( project, "rslUrls" ) );
+            bh.consume( CompileConfigurationLoader.getCompilerPluginSettings( project, "localesRuntime" ) );
+            bh.consume( CompileConfigurationLoader.getCompilerPluginSetting( project, "runtimeLocaleOutputPath" ) );
+        }
+    }
+
+    /**
+     * The lookup before the index: every option walks the plugins, the plugin management and all executions.
+     */
+    @Benchmark
+    public void scanEveryLookup( Blackhole bh )
+    {
+        for ( MavenProject project : dependencies )
+        {
+            for ( String option : OPTIONS )
+            {
+                Xpp3Dom value = scan( project.getModel().getBuild().getPlugins(), option );
+                if ( value == null )
+                {
+                    value = scan( project.getModel().getBuild().getPluginManagement().getPlugins(), option );
+                }
+                bh.consume( value );
+            }
+        }
+    }
+
+    private static Xpp3Dom scan( List<Plugin> plugins, String optionName )
+    {
+        for ( Plugin plugin : plugins )
+        {
+            if ( plugin.getArtifactId().equals( "flexmojos-maven-plugin" ) )
+            {
+                Xpp3Dom o = (Xpp3Dom) plugin.getConfiguration();
+                Xpp3Dom value = null;
+                if ( o != null && o.getChild( optionName ) != null )
+                {
+                    value = o.getChild( optionName );
+                }
+                for ( PluginExecution execution : plugin.getExecutions() )
+                {
+                    o = (Xpp3Dom) execution.getConfiguration();
+                    if ( o != null && o.getChild( optionName ) != null )
+                    {
+                        value = o.getChild( optionName );
+                    }
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static MavenProject project( int i )
+    {
+        Model model = new Model();
+        model.setGroupId( Fixtures.groupId( i ) );
+        model.setArtifactId( "library-" + i );
+        model.setVersion( Fixtures.version( i ) );
+        model.setBuild( new Build() );
+
+        String[] others = { "maven-resources-plugin", "maven-compiler-plugin", "maven-surefire-plugin" };
+        for ( String artifactId : others )
+        {
+            model.getBuild().addPlugin( plugin( artifactId, configuration( 10, i ) ) );
+        }
+
+        Plugin flexmojos = plugin( "flexmojos-maven-plugin", configuration( 60, i ) );
+        for ( int e = 0; e < 4; e++ )
+        {
+            PluginExecution execution = new PluginExecution();
+            execution.setId( "execution-" + e );
+            execution.setConfiguration( configuration( 8, e ) );
+            flexmojos.addExecution( execution );
+        }
+        model.getBuild().addPlugin( flexmojos );
+
+        model.getBuild().setPluginManagement( new PluginManagement() );
+        model.getBuild().getPluginManagement().addPlugin( plugin( "flexmojos-maven-plugin", configuration( 20, i ) ) );
+
+        return new MavenProject( model );
+    }
+
+    private static Plugin plugin( String artifactId, Xpp3Dom configuration )
+    {
+        Plugin plugin = new Plugin();
+        plugin.setArtifactId( artifactId );
+        plugin.setConfiguration( configuration );
+        return plugin;
+    }
+
+    private static Xpp3Dom configuration( int options, int seed )
+    {
+        Xpp3Dom configuration = new Xpp3Dom( "configuration" );
+        for ( int o = 0; o < options; o++ )
+        {
+            Xpp3Dom option = new Xpp3Dom( "option" + o );
+            option.setValue( "value-" + seed );
+            configuration.addChild( option );
+        }
+        if ( seed % 3 == 0 )
+        {
+            Xpp3Dom locales = new Xpp3Dom( "localesRuntime" );
+            for ( String locale : new String[] { "en_US", "pt_BR", "de_DE" } )
+            {
+                Xpp3Dom child = new Xpp3Dom( "locale" );
+                child.setValue( locale );
+                locales.addChild( child );
+            }
+            configuration.addChild( locales );
+        }
+        return configuration;
+    }
+
+}
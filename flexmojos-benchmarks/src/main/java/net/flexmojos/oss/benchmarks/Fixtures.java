@@ -0,0 +1,229 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.flexmojos.oss.compiler.IFlexArgument;
+import net.flexmojos.oss.compiler.IFlexConfiguration;
+import net.flexmojos.oss.compiler.IRuntimeSharedLibraryPath;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Dependency;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Builds the data the benchmarks work on. Everything is generated, so the benchmarks run without any repository or
+ * Flex SDK around.
+ */
+public final class Fixtures
+{
+
+    public static final String[] SCOPES = { "compile", "external", "internal", "merged", "rsl", "caching", "test" };
+
+    public static final String[] TYPES = { "swc", "swc", "swc", "rb.swc", "swf", "pom" };
+
+    private Fixtures()
+    {
+    }
+
+    /**
+     * A flex project alike dependency set: the framework libraries, their resource bundles and a long tail of third
+     * party libraries.
+     */
+    public static List<Artifact> artifacts( int count )
+    {
+        List<Artifact> artifacts = new ArrayList<Artifact>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            String type = TYPES[i % TYPES.length];
+            String classifier = "rb.swc".equals( type ) ? "en_US" : ( i % 17 == 0 ? "configs" : null );
+            Artifact artifact =
+                new DefaultArtifact( groupId( i ), "library-" + i, version( i ), SCOPES[i % SCOPES.length], type,
+                                     classifier, new DefaultArtifactHandler( type ) );
+            artifact.setFile( new File( "/repository/library-" + i + "." + type ) );
+            artifacts.add( artifact );
+        }
+        return artifacts;
+    }
+
+    public static List<Dependency> dependencies( int count )
+    {
+        List<Dependency> dependencies = new ArrayList<Dependency>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId( groupId( i ) );
+            dependency.setArtifactId( "library-" + i );
+            dependency.setVersion( version( i ) );
+            dependency.setType( TYPES[i % TYPES.length] );
+            dependency.setScope( SCOPES[i % SCOPES.length] );
+            dependencies.add( dependency );
+        }
+        return dependencies;
+    }
+
+    public static String groupId( int i )
+    {
+        switch ( i % 4 )
+        {
+            case 0:
+                return "org.apache.flex.framework";
+            case 1:
+                return "com.adobe.flash.framework";
+            default:
+                return "com.example.flex.module" + ( i % 23 );
+        }
+    }
+
+    public static String version( int i )
+    {
+        return "4." + ( i % 17 ) + "." + ( i % 3 ) + ( i % 5 == 0 ? "-SNAPSHOT" : "" );
+    }
+
+    /**
+     * A compiler configuration answering every option of <code>configClass</code>, nested configurations included.
+     * On the mxmlc/compc interfaces this adds up to a few hundred options.
+     */
+    public static <E> E configuration( Class<E> configClass )
+    {
+        return configClass.cast( proxy( configClass, 0 ) );
+    }
+
+    private static Object proxy( final Class<?> type, final int depth )
+    {
+        return Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler()
+        {
+            private final Map<Method, Object> values = new LinkedHashMap<Method, Object>();
+
+            public synchronized Object invoke( Object proxy, Method method, Object[] args )
+            {
+                if ( method.getDeclaringClass() == Object.class )
+                {
+                    if ( "equals".equals( method.getName() ) )
+                    {
+                        return proxy == args[0];
+                    }
+                    if ( "hashCode".equals( method.getName() ) )
+                    {
+                        return System.identityHashCode( proxy );
+                    }
+                    return type.getSimpleName();
+                }
+
+                if ( !values.containsKey( method ) )
+                {
+                    values.put( method, value( method.getName(), method.getReturnType(), depth ) );
+                }
+                return values.get( method );
+            }
+        } );
+    }
+
+    private static Object value( String name, Class<?> type, int depth )
+    {
+        if ( type == Boolean.class || type == boolean.class )
+        {
+            return Boolean.TRUE;
+        }
+        if ( type == Integer.class || type == int.class )
+        {
+            return 42;
+        }
+        if ( type == Long.class || type == long.class )
+        {
+            return 42L;
+        }
+        if ( type == Double.class || type == double.class )
+        {
+            return 4.2;
+        }
+        if ( type == Float.class || type == float.class )
+        {
+            return 4.2f;
+        }
+        if ( type == String.class )
+        {
+            return name + "-value";
+        }
+        if ( type == String[].class )
+        {
+            return new String[] { name + "-1", name + "-2", name + "-3" };
+        }
+        if ( List.class.isAssignableFrom( type ) )
+        {
+            return Arrays.asList( name + "-1", name + "-2", name + "-3" );
+        }
+        if ( Map.class.isAssignableFrom( type ) )
+        {
+            Map<String, String> map = new LinkedHashMap<String, String>();
+            map.put( "http://rsl.example.com/" + name + ".swf", "http://rsl.example.com/crossdomain.xml" );
+            map.put( name + ".swf", null );
+            return map;
+        }
+        if ( type.isArray() && type.getComponentType().isInterface() && depth < 4 )
+        {
+            Object array = Array.newInstance( type.getComponentType(), 3 );
+            for ( int i = 0; i < 3; i++ )
+            {
+                Array.set( array, i, proxy( type.getComponentType(), depth + 1 ) );
+            }
+            return array;
+        }
+        if ( ( IFlexConfiguration.class.isAssignableFrom( type ) || IFlexArgument.class.isAssignableFrom( type )
+            || IRuntimeSharedLibraryPath.class.isAssignableFrom( type ) ) && depth < 4 )
+        {
+            return proxy( type, depth + 1 );
+        }
+        return null;
+    }
+
+    public static File createTempDirectory( String prefix )
+        throws IOException
+    {
+        File dir = File.createTempFile( prefix, "" );
+        dir.delete();
+        dir.mkdirs();
+        return dir;
+    }
+
+    public static void deleteQuietly( File dir )
+    {
+        try
+        {
+            FileUtils.deleteDirectory( dir );
+        }
+        catch ( IOException e )
+        {
+            // benchmark scratch data only
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.flexmojos.oss.compiler.ICommandLineConfiguration;
+import net.flexmojos.oss.compiler.ICompcConfiguration;
+import net.flexmojos.oss.compiler.util.DefaultFlexCompilerArgumentParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Turns fully populated mxmlc and compc configurations (every option set) into command line arguments.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class FlexCompilerArgumentParserBenchmark
+{
+
+    private DefaultFlexCompilerArgumentParser parser;
+
+    private ICommandLineConfiguration mxmlcConfiguration;
+
+    private ICompcConfiguration compcConfiguration;
+
+    private ClassLoader classLoader;
+
+    @Setup
+    public void setup()
+    {
+        parser = new DefaultFlexCompilerArgumentParser();
+        mxmlcConfiguration = Fixtures.configuration( ICommandLineConfiguration.class );
+        compcConfiguration = Fixtures.configuration( ICompcConfiguration.class );
+        classLoader = getClass().getClassLoader();
+
+        List<String> args = mxmlc();
+        if ( args.size() < 200 )
+        {
+            throw new IllegalStateException( "Expected hundreds of mxmlc arguments, got " + args.size() );
+        }
+    }
+
+    @Benchmark
+    public List<String> mxmlc()
+    {
+        return parser.getArgumentsList( mxmlcConfiguration, ICommandLineConfiguration.class, classLoader );
+    }
+
+    @Benchmark
+    public List<String> compc()
+    {
+        return parser.getArgumentsList( compcConfiguration, ICompcConfiguration.class, classLoader );
+    }
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.flexmojos.oss.util.PathUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Canonical paths and relative paths of a source tree alike the ones compile setup handles: a few hundred source
+ * files, library path entries and resources spread over a multi module layout.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class PathUtilBenchmark
+{
+
+    private File root;
+
+    private File home;
+
+    private List<File> files;
+
+    @Setup
+    public void setup()
+        throws IOException
+    {
+        root = Fixtures.createTempDirectory( "path-util" );
+        home = new File( root, "modules/application/target/classes" );
+        home.mkdirs();
+
+        files = new ArrayList<File>();
+        for ( int i = 0; i < 300; i++ )
+        {
+            File file =
+                new File( root, "modules/module" + ( i % 12 ) + "/src/main/flex/com/example/package" + ( i % 7 )
+                    + "/Component" + i + ".mxml" );
+            file.getParentFile().mkdirs();
+            file.createNewFile();
+            files.add( file );
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Fixtures.deleteQuietly( root );
+    }
+
+    @Benchmark
+    public void path( Blackhole bh )
+    {
+        for ( File file : files )
+        {
+            bh.consume( PathUtil.path( file ) );
+        }
+    }
+
+    @Benchmark
+    public void file( Blackhole bh )
+    {
+        for ( File file : files )
+        {
+            bh.consume( PathUtil.file( file ) );
+        }
+    }
+
+    @Benchmark
+    public void relativePath( Blackhole bh )
+    {
+        for ( File file : files )
+        {
+            bh.consume( PathUtil.relativePath( home, file ) );
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.flexmojos.oss.plugin.utilities.MavenUtils;
+import net.flexmojos.oss.plugin.utilities.RslUrlTemplate;
+
+import org.apache.maven.artifact.Artifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Interpolates the default RSL url templates for every RSL of a large application.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class RslUrlBenchmark
+{
+
+    private static final String[] TEMPLATES =
+        { "/{contextRoot}/rsls/{artifactId}-{version}.{extension}",
+            "{groupId}/{artifactId}/{version}/{artifactId}-{version}-{classifier}.{extension}",
+            "http://cdn.example.com/{contextRoot}/{groupId}/{artifactId}.{extension}" };
+
+    private List<Artifact> artifacts;
+
+    private RslUrlTemplate[] compiled;
+
+    @Setup
+    public void setup()
+    {
+        artifacts = Fixtures.artifacts( 200 );
+        compiled = new RslUrlTemplate[TEMPLATES.length];
+        for ( int i = 0; i < TEMPLATES.length; i++ )
+        {
+            compiled[i] = RslUrlTemplate.compile( TEMPLATES[i] );
+        }
+    }
+
+    @Benchmark
+    public void interpolateRslUrl( Blackhole bh )
+    {
+        for ( Artifact artifact : artifacts )
+        {
+            for ( String template : TEMPLATES )
+            {
+                bh.consume( MavenUtils.interpolateRslUrl( template, artifact, "swf", "application" ) );
+            }
+        }
+    }
+
+    @Benchmark
+    public void precompiledTemplate( Blackhole bh )
+    {
+        for ( Artifact artifact : artifacts )
+        {
+            for ( RslUrlTemplate template : compiled )
+            {
+                bh.consume( template.interpolate( artifact, "swf", "application" ) );
+            }
+        }
+    }
+
+    /**
+     * The interpolation before the templates were compiled: a chain of <code>String.replace</code> per url.
+     */
+    @Benchmark
+    public void chainedReplace( Blackhole bh )
+    {
+        for ( Artifact artifact : artifacts )
+        {
+            for ( String template : TEMPLATES )
+            {
+                bh.consume( legacyInterpolate( template, artifact, "swf", "application" ) );
+            }
+        }
+    }
+
+    private static String legacyInterpolate( String baseUrl, Artifact artifact, String extension, String contextRoot )
+    {
+        if ( contextRoot == null || "".equals( contextRoot ) )
+        {
+            baseUrl = baseUrl.replace( "{contextRoot}/", "" );
+        }
+        else
+        {
+            baseUrl = baseUrl.replace( "{contextRoot}", contextRoot );
+        }
+
+        baseUrl = MavenUtils.replaceArtifactCoordinatesTokens( baseUrl, artifact );
+
+        if ( extension != null )
+        {
+            baseUrl = baseUrl.replace( "{extension}", extension );
+        }
+
+        return baseUrl;
+    }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import net.flexmojos.oss.compatibilitykit.SwfVersions;
+import net.flexmojos.oss.compatibilitykit.Version;
+import net.flexmojos.oss.compatibilitykit.VersionUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Version parsing and comparison as done by the compatibility checks, once per mojo method call.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class VersionBenchmark
+{
+
+    private static final String[] VERSIONS =
+        { "3.2.0.3958", "3.5.0.12683", "4.0.0.14159", "4.1.0.16076", "4.5.1.21328", "4.6.0.23201", "4.9.1",
+            "4.10.0", "4.12.1", "4.13.0", "4.14.1", "4.15.0", "4.16.0", "4.0.0-SNAPSHOT", "11.1", "11.9", "17.0" };
+
+    private Version[] parsed;
+
+    @Setup
+    public void setup()
+    {
+        parsed = new Version[VERSIONS.length];
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            parsed[i] = Version.parse( VERSIONS[i] );
+        }
+    }
+
+    @Benchmark
+    public void splitVersion( Blackhole bh )
+    {
+        for ( String version : VERSIONS )
+        {
+            bh.consume( VersionUtils.splitVersion( version ) );
+        }
+    }
+
+    @Benchmark
+    public void compareStrings( Blackhole bh )
+    {
+        for ( String version : VERSIONS )
+        {
+            bh.consume( VersionUtils.isMinVersionOK( version, "4.0.0" ) );
+            bh.consume( VersionUtils.isMaxVersionOK( version, "4.12" ) );
+        }
+    }
+
+    @Benchmark
+    public void compareParsed( Blackhole bh )
+    {
+        Version min = Version.parse( "4.0.0" );
+        Version max = Version.parse( "4.12" );
+        for ( Version version : parsed )
+        {
+            bh.consume( version.isMinVersionOK( min ) );
+            bh.consume( version.isMaxVersionOK( max ) );
+        }
+    }
+
+    @Benchmark
+    public void swfVersion( Blackhole bh )
+    {
+        for ( String version : VERSIONS )
+        {
+            bh.consume( SwfVersions.forFlashVersion( version ) );
+        }
+    }
+
+}
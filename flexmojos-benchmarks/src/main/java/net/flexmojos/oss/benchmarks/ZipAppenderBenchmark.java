@@ -0,0 +1,200 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import net.flexmojos.oss.plugin.utilities.ZipAppender;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adding the DITA docs to a 50 MB SWC, as dita-asdoc does: raw append against re-streaming every entry through a new
+ * <code>ZipOutputStream</code>.
+ */
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class ZipAppenderBenchmark
+{
+
+    private static final int LIBRARY_SIZE = 50 * 1024 * 1024;
+
+    private File root;
+
+    private File pristine;
+
+    private File swc;
+
+    private Map<String, File> docs;
+
+    @Setup( Level.Trial )
+    public void createSwc()
+        throws IOException
+    {
+        root = Fixtures.createTempDirectory( "zip-appender" );
+        pristine = new File( root, "framework.swc" );
+        swc = new File( root, "work.swc" );
+
+        // swf bytecode compresses roughly 3:1, so does this
+        Random random = new Random( 5 );
+        byte[] chunk = new byte[1024 * 1024];
+        ZipOutputStream out = new ZipOutputStream( new BufferedOutputStream( new FileOutputStream( pristine ) ) );
+        try
+        {
+            out.putNextEntry( new ZipEntry( "catalog.xml" ) );
+            for ( int i = 0; i < 20000; i++ )
+            {
+                out.write( ( "<script name=\"mx/core/Class" + i + "\" mod=\"1\"><def id=\"mx.core:Class" + i
+                    + "\"/></script>\n" ).getBytes( "UTF-8" ) );
+            }
+            out.closeEntry();
+
+            out.putNextEntry( new ZipEntry( "library.swf" ) );
+            for ( int written = 0; written < LIBRARY_SIZE; written += chunk.length )
+            {
+                for ( int i = 0; i < chunk.length; i++ )
+                {
+                    chunk[i] = (byte) ( random.nextInt( 8 ) * random.nextInt( 8 ) );
+                }
+                out.write( chunk );
+            }
+            out.closeEntry();
+        }
+        finally
+        {
+            out.close();
+        }
+
+        File dita = new File( root, "tempdita" );
+        docs = new LinkedHashMap<String, File>();
+        for ( int i = 0; i < 300; i++ )
+        {
+            File doc = new File( dita, "mx.core/Class" + i + ".xml" );
+            doc.getParentFile().mkdirs();
+            StringBuilder sb = new StringBuilder( "<apiClassifier id=\"mx.core:Class" + i + "\">" );
+            for ( int j = 0; j < 50; j++ )
+            {
+                sb.append( "<apiOperation id=\"op" ).append( j ).append( "\"><shortdesc>Operation " ).append( j );
+                sb.append( "</shortdesc></apiOperation>" );
+            }
+            FileUtils.fileWrite( doc.getPath(), "UTF-8", sb.append( "</apiClassifier>" ).toString() );
+            docs.put( "docs/mx.core/Class" + i + ".xml", doc );
+        }
+    }
+
+    @Setup( Level.Invocation )
+    public void resetSwc()
+        throws IOException
+    {
+        FileUtils.copyFile( pristine, swc );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+    {
+        Fixtures.deleteQuietly( root );
+    }
+
+    @Benchmark
+    public void append()
+        throws IOException
+    {
+        ZipAppender.append( swc, docs );
+    }
+
+    /**
+     * What dita-asdoc used to do: copy the SWC aside and deflate every entry again.
+     */
+    @Benchmark
+    public void restream()
+        throws IOException
+    {
+        File temp = new File( root, "temp.swc" );
+        FileUtils.copyFile( swc, temp );
+        swc.delete();
+
+        ZipFile source = new ZipFile( temp );
+        ZipOutputStream out = new ZipOutputStream( new FileOutputStream( swc ) );
+        try
+        {
+            Enumeration<? extends ZipEntry> entries = source.entries();
+            while ( entries.hasMoreElements() )
+            {
+                ZipEntry entry = entries.nextElement();
+                out.putNextEntry( new ZipEntry( entry.getName() ) );
+                copy( source.getInputStream( entry ), out );
+            }
+            for ( Map.Entry<String, File> doc : docs.entrySet() )
+            {
+                out.putNextEntry( new ZipEntry( doc.getKey() ) );
+                copy( new FileInputStream( doc.getValue() ), out );
+            }
+        }
+        finally
+        {
+            IOUtil.close( out );
+            source.close();
+            temp.delete();
+        }
+    }
+
+    private static void copy( InputStream input, ZipOutputStream out )
+        throws IOException
+    {
+        try
+        {
+            IOUtil.copy( input, out );
+        }
+        finally
+        {
+            IOUtil.close( input );
+            out.closeEntry();
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.test.scanners;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.flexmojos.oss.benchmarks.Fixtures;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Classification of test candidates by content: comment stripping of a typical test case and a scan over a few
+ * hundred test files, half of them classes and half include snippets.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class AS3ContentFlexClassScannerBenchmark
+{
+
+    private static final int FILES = 500;
+
+    private File root;
+
+    private String source;
+
+    @Setup
+    public void setup()
+        throws IOException
+    {
+        root = Fixtures.createTempDirectory( "as3-content" );
+        source = testCase( "com.example", "ComponentTest" );
+        for ( int i = 0; i < FILES; i++ )
+        {
+            File file = new File( root, "com/example/package" + ( i % 20 ) + "/Component" + i + "Test.as" );
+            file.getParentFile().mkdirs();
+            String content =
+                i % 2 == 0 ? testCase( "com.example.package" + ( i % 20 ), "Component" + i + "Test" )
+                                : "// include snippet\nimport flexunit.framework.Assert;\nvar counter" + i + ":int = 0;\n";
+            FileUtils.fileWrite( file.getPath(), "UTF-8", content );
+        }
+    }
+
+    private static String testCase( String packageName, String className )
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append( "/*\n * Licensed under the Apache License, Version 2.0 (the \"License\");\n" );
+        sb.append( " * class NotThisOne {}\n */\n" );
+        sb.append( "package " ).append( packageName ).append( "\n{\n" );
+        sb.append( "    import flexunit.framework.TestCase; // the test case base\n" );
+        sb.append( "    import mx.core.UIComponent;\n\n" );
+        sb.append( "    /**\n     * Tests for the \"" ).append( className ).append( "\" component.\n     */\n" );
+        sb.append( "    public class " ).append( className ).append( " extends TestCase\n    {\n" );
+        for ( int i = 0; i < 30; i++ )
+        {
+            sb.append( "        // checks case " ).append( i ).append( ", see http://example.com/issue/" ).append( i );
+            sb.append( "\n        public function testCase" ).append( i ).append( "():void\n        {\n" );
+            sb.append( "            var label:String = \"/* not a comment */ case " ).append( i ).append( "\";\n" );
+            sb.append( "            assertEquals( label.length, " ).append( i ).append( " ); /* inline */\n" );
+            sb.append( "        }\n\n" );
+        }
+        sb.append( "    }\n}\n" );
+        return sb.toString();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Fixtures.deleteQuietly( root );
+    }
+
+    @Benchmark
+    public String stripComments()
+    {
+        return AS3ContentFlexClassScanner.stripComments( source );
+    }
+
+    @Benchmark
+    public List<String> scan()
+    {
+        AS3ContentFlexClassScanner scanner = new AS3ContentFlexClassScanner();
+        scanner.scan( new File[] { root }, new String[0], new HashMap<String, Object>() );
+        return scanner.getAs3Classes();
+    }
+
+}
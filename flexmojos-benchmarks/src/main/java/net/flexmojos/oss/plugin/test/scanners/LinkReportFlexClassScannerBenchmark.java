@@ -0,0 +1,130 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.test.scanners;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import net.flexmojos.oss.benchmarks.Fixtures;
+import net.flexmojos.oss.plugin.common.FlexClassifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Test class discovery against the link report of a large application: 50k linked scripts and a couple thousand
+ * test candidates on disk.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class LinkReportFlexClassScannerBenchmark
+{
+
+    private static final int SCRIPTS = 50000;
+
+    private static final int TESTS = 2000;
+
+    private File root;
+
+    private File sources;
+
+    private File linkReport;
+
+    @Setup
+    public void setup()
+        throws IOException
+    {
+        root = Fixtures.createTempDirectory( "link-report" );
+        sources = new File( root, "src" );
+        for ( int i = 0; i < TESTS; i++ )
+        {
+            File test = new File( sources, "com/example/package" + ( i % 40 ) + "/Component" + i + "Test.as" );
+            test.getParentFile().mkdirs();
+            test.createNewFile();
+        }
+
+        linkReport = new File( root, "link-report.xml" );
+        Writer writer = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( linkReport ), "UTF-8" ) );
+        try
+        {
+            writer.write( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<report>\n  <scripts>\n" );
+            for ( int i = 0; i < SCRIPTS; i++ )
+            {
+                // every other test is linked, the rest of the scripts come from libraries
+                String name =
+                    i < TESTS * 2 && i % 2 == 0 ? new File( sources, "com/example/package" + ( i / 2 % 40 )
+                        + "/Component" + ( i / 2 ) + "Test.as" ).getPath() : "/libraries/framework.swc(mx.core:C" + i
+                        + ")";
+                writer.write( "    <script name=\"" + name + "\" mod=\"1283957312000\" size=\"1024\">\n" );
+                writer.write( "      <def id=\"mx.core:C" + i + "\" />\n" );
+                writer.write( "      <pre id=\"Object\" />\n      <dep id=\"AS3\" />\n    </script>\n" );
+            }
+            writer.write( "  </scripts>\n</report>\n" );
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Fixtures.deleteQuietly( root );
+    }
+
+    @Benchmark
+    public Set<String> readLinkedFiles()
+    {
+        return new LinkReportFlexClassScanner().readLinkedFiles( linkReport );
+    }
+
+    @Benchmark
+    public List<String> scan()
+    {
+        Map<String, Object> context = new HashMap<String, Object>();
+        context.put( FlexClassifier.LINK_REPORT, linkReport );
+
+        LinkReportFlexClassScanner scanner = new LinkReportFlexClassScanner();
+        scanner.scan( new File[] { sources }, new String[0], context );
+        return scanner.getAs3Classes();
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compatibilitykit;
+
+/**
+ * SWF version produced for each Flash Player and AIR runtime version. Entries are sorted from the newest runtime to
+ * the oldest, the first one the runtime version satisfies as min version wins.
+ */
+public final class SwfVersions
+{
+
+    private static final Version[] FLASH_VERSIONS = versions( "17.0", "16.0", "15.0", "14.0", "13.0", "12.0", "11.9",
+                                                              "11.8", "11.7", "11.6", "11.5", "11.4", "11.3", "11.2",
+                                                              "11.1", "11", "10.3", "10.2", "10.1", "9" );
+
+    private static final int[] FLASH_SWF_VERSIONS = { 28, 27, 26, 25, 24, 23, 22, 21, 20, 19, 18, 17, 16, 15, 14, 13,
+        12, 11, 10, 9 };
+
+    private static final Version[] AIR_VERSIONS = versions( "17.0", "16.0", "15.0", "14.0", "13.0", "4.0", "3.9",
+                                                            "3.8", "3.7", "3.6", "3.5", "3.4", "3.3", "3.2", "3.0" );
+
+    private static final int[] AIR_SWF_VERSIONS = { 28, 27, 26, 25, 24, 23, 22, 21, 20, 19, 18, 17, 16, 15, 13 };
+
+    private SwfVersions()
+    {
+    }
+
+    /**
+     * @return SWF version for the given Flash Player version, null when it is older than any known version
+     */
+    public static Integer forFlashVersion( String flashVersion )
+    {
+        return lookup( Version.parse( flashVersion ), FLASH_VERSIONS, FLASH_SWF_VERSIONS );
+    }
+
+    /**
+     * @return SWF version for the given AIR version, null when it is older than any known version
+     */
+    public static Integer forAirVersion( String airVersion )
+    {
+        return lookup( Version.parse( airVersion ), AIR_VERSIONS, AIR_SWF_VERSIONS );
+    }
+
+    private static Integer lookup( Version version, Version[] versions, int[] swfVersions )
+    {
+        for ( int i = 0; i < versions.length; i++ )
+        {
+            if ( version.isMinVersionOK( versions[i] ) )
+            {
+                return swfVersions[i];
+            }
+        }
+        return null;
+    }
+
+    private static Version[] versions( String... versions )
+    {
+        Version[] parsed = new Version[versions.length];
+        for ( int i = 0; i < versions.length; i++ )
+        {
+            parsed[i] = Version.parse( versions[i] );
+        }
+        return parsed;
+    }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compatibilitykit;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A version string split into its numeric parts, see {@link VersionUtils#splitVersion(String)}. Instances are
+ * immutable and cached by version string, so a version is only parsed once per build.
+ */
+public final class Version
+{
+
+    private static final int MAX_CACHED = 1024;
+
+    private static final ConcurrentMap<String, Version> CACHE = new ConcurrentHashMap<String, Version>();
+
+    public static final Version EMPTY = new Version( new int[0] );
+
+    private final int[] parts;
+
+    private Version( int[] parts )
+    {
+        this.parts = parts;
+    }
+
+    /**
+     * @return the parsed version, {@link #EMPTY} for a null or blank string
+     */
+    public static Version parse( String version )
+    {
+        if ( version == null )
+        {
+            return EMPTY;
+        }
+
+        Version parsed = CACHE.get( version );
+        if ( parsed == null )
+        {
+            parsed = new Version( split( version ) );
+            if ( CACHE.size() >= MAX_CACHED )
+            {
+                CACHE.clear();
+            }
+            CACHE.put( version, parsed );
+        }
+        return parsed;
+    }
+
+    public static Version of( int... parts )
+    {
+        return new Version( parts.clone() );
+    }
+
+    private static int[] split( String version )
+    {
+        if ( version.trim().length() == 0 )
+        {
+            return new int[0];
+        }
+
+        int end = version.indexOf( '-' );
+        if ( end == -1 )
+        {
+            end = version.length();
+        }
+
+        if ( end == 0 )
+        {
+            // "".split( "\\." ) is a single empty part
+            return new int[] { 0 };
+        }
+
+        // same parts as version.substring( 0, end ).split( "\\." ): trailing empty parts are dropped
+        while ( end > 0 && version.charAt( end - 1 ) == '.' )
+        {
+            end--;
+        }
+        if ( end == 0 )
+        {
+            return new int[0];
+        }
+
+        int count = 1;
+        for ( int i = 0; i < end; i++ )
+        {
+            if ( version.charAt( i ) == '.' )
+            {
+                count++;
+            }
+        }
+
+        int[] parts = new int[count];
+        int part = 0;
+        int start = 0;
+        for ( int i = 0; i <= end; i++ )
+        {
+            if ( i == end || version.charAt( i ) == '.' )
+            {
+                parts[part++] = parsePart( version, start, i );
+                start = i + 1;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Integer value of the part, 0 when it isn't a valid integer (like <code>new Integer( String )</code> failing)
+     */
+    private static int parsePart( String version, int start, int end )
+    {
+        try
+        {
+            return Integer.parseInt( version.substring( start, end ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * @return a copy of the numeric parts
+     */
+    public int[] toArray()
+    {
+        return parts.clone();
+    }
+
+    public int size()
+    {
+        return parts.length;
+    }
+
+    /**
+     * Same as {@link VersionUtils#isMinVersionOK(int[], int[])}: only the parts both versions have are compared.
+     */
+    public boolean isMinVersionOK( Version minVersion )
+    {
+        return isVersionOK( parts, minVersion.parts );
+    }
+
+    /**
+     * Same as {@link VersionUtils#isMaxVersionOK(int[], int[])}: only the parts both versions have are compared.
+     */
+    public boolean isMaxVersionOK( Version maxVersion )
+    {
+        return isVersionOK( maxVersion.parts, parts );
+    }
+
+    static boolean isVersionOK( int[] version, int[] minVersion )
+    {
+        int length = Math.min( version.length, minVersion.length );
+        for ( int i = 0; i < length; i++ )
+        {
+            if ( version[i] != minVersion[i] )
+            {
+                return version[i] > minVersion[i];
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        return obj instanceof Version && Arrays.equals( parts, ( (Version) obj ).parts );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode( parts );
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < parts.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                sb.append( '.' );
+            }
+            sb.append( parts[i] );
+        }
+        return sb.toString();
+    }
+
+}
@@ -17,8 +17,6 @@
  */
 package net.flexmojos.oss.compatibilitykit;
 
-import static java.lang.Math.min;
-
 import java.util.Arrays;
 
 public class VersionUtils
@@ -31,7 +29,7 @@ public class VersionUtils
 
     public static boolean isMaxVersionOK( String fdkVersion, String maxVersion )
     {
-        return isMaxVersionOK( splitVersion( fdkVersion ), splitVersion( maxVersion ) );
+        return Version.parse( fdkVersion ).isMaxVersionOK( Version.parse( maxVersion ) );
     }
 
     public static boolean isMinVersionOK( int[] fdkVersion, int[] minVersion )
@@ -41,55 +39,17 @@ public class VersionUtils
 
     public static boolean isMinVersionOK( String fdkVersion, String minVersion )
     {
-        return isVersionOK( splitVersion( fdkVersion ), splitVersion( minVersion ) );
+        return Version.parse( fdkVersion ).isMinVersionOK( Version.parse( minVersion ) );
     }
 
     private static boolean isVersionOK( int[] fdkVersion, int[] minVersion )
     {
-        int lenght = min( fdkVersion.length, minVersion.length );
-
-        int result = 0;
-        for ( int i = 0; i < lenght; i++ )
-        {
-            result = fdkVersion[i] - minVersion[i];
-            if ( result != 0 )
-            {
-                return result > -1;
-            }
-        }
-
-        return result > -1;
+        return Version.isVersionOK( fdkVersion, minVersion );
     }
 
     public static int[] splitVersion( String version )
     {
-        if ( version == null || version.trim().equals( "" ) )
-        {
-            return new int[0];
-        }
-
-        int endIndex = version.indexOf( '-' );
-        if ( endIndex != -1 )
-        {
-            version = version.substring( 0, endIndex );
-        }
-
-        String[] versionsStr = version.split( "\\." );
-        int[] versions = new int[versionsStr.length];
-
-        for ( int i = 0; i < versionsStr.length; i++ )
-        {
-            try
-            {
-                versions[i] = new Integer( versionsStr[i] );
-            }
-            catch ( NumberFormatException e )
-            {
-                versions[i] = 0;
-            }
-        }
-
-        return versions;
+        return Version.parse( version ).toArray();
     }
 
     public static int[] splitVersion( String version, int size )
@@ -20,14 +20,18 @@ package net.flexmojos.oss.license;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.util.IOUtil;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
 
 @Component( role = LicenseCalculator.class )
@@ -36,6 +40,11 @@ public class DefaultLicenseCalculator
     implements LicenseCalculator
 {
 
+    /**
+     * Licenses already read, the component lives as long as the build so every module shares them
+     */
+    private final ConcurrentMap<File, LicenseFile> cache = new ConcurrentHashMap<File, LicenseFile>();
+
     public Map<String, String> getInstalledLicenses()
     {
         File licensePropertyFile = getOSLicensePropertyFile();
@@ -45,18 +54,43 @@ public class DefaultLicenseCalculator
             return Collections.emptyMap();
         }
 
-        Properties props = new Properties();
         try
         {
-            props.load( new FileInputStream( licensePropertyFile ) );
+            return getLicenses( licensePropertyFile );
         }
         catch ( IOException e )
         {
             getLogger().error( "Unable to read license file " + licensePropertyFile.getAbsolutePath(), e );
             return Collections.emptyMap();
         }
+    }
+
+    public Map<String, String> getLicenses( File licenseFile )
+        throws IOException
+    {
+        File file = licenseFile.getAbsoluteFile();
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        LicenseFile cached = cache.get( file );
+        if ( cached != null && cached.lastModified == lastModified && cached.length == length )
+        {
+            return cached.licenses;
+        }
+
+        Properties props = new Properties();
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            props.load( in );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
 
-        Map<String, String> licenses = new HashMap<String, String>();
+        // sorted, so the compiler always gets the licenses in the same order
+        Map<String, String> licenses = new TreeMap<String, String>();
 
         Enumeration<?> names = props.propertyNames();
         while ( names.hasMoreElements() )
@@ -66,6 +100,8 @@ public class DefaultLicenseCalculator
             licenses.put( name, value );
         }
 
+        licenses = Collections.unmodifiableMap( licenses );
+        cache.put( file, new LicenseFile( lastModified, length, licenses ) );
         return licenses;
     }
 
@@ -101,4 +137,21 @@ public class DefaultLicenseCalculator
 
         return null;
     }
+
+    private static class LicenseFile
+    {
+        private final long lastModified;
+
+        private final long length;
+
+        private final Map<String, String> licenses;
+
+        LicenseFile( long lastModified, long length, Map<String, String> licenses )
+        {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.licenses = licenses;
+        }
+    }
+
 }
@@ -18,11 +18,19 @@
 package net.flexmojos.oss.license;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 
 public interface LicenseCalculator
 {
     Map<String, String> getInstalledLicenses();
 
+    /**
+     * @param licenseFile properties file, product to serial number
+     * @return the licenses on the file, read again only when the file changes
+     */
+    Map<String, String> getLicenses( File licenseFile )
+        throws IOException;
+
     File getOSLicensePropertyFile();
 }
@@ -22,11 +22,13 @@ import flex2.compiler.common.SinglePathResolver;
 import flex2.tools.oem.internal.OEMLogAdapter;
 import net.flexmojos.oss.compiler.command.Result;
 import net.flexmojos.oss.compiler.util.ThreadLocalToolkitHelper;
+import net.flexmojos.oss.matcher.artifact.ArtifactIndex;
 import net.flexmojos.oss.plugin.common.flexbridge.MavenLogger;
 import net.flexmojos.oss.plugin.common.flexbridge.MavenPathResolver;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenRuntimeException;
 import net.flexmojos.oss.plugin.compiler.lazyload.Cacheable;
 import net.flexmojos.oss.plugin.compiler.lazyload.NotCacheable;
+import net.flexmojos.oss.plugin.utilities.CompilerMetrics;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
 import net.flexmojos.oss.util.PathUtil;
 import org.apache.commons.io.FilenameUtils;
@@ -61,9 +63,8 @@ import java.io.*;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static ch.lambdaj.Lambda.filter;
-import static ch.lambdaj.Lambda.selectFirst;
 import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.*;
 import static net.flexmojos.oss.plugin.common.FlexExtension.*;
 import static org.hamcrest.CoreMatchers.allOf;
@@ -99,6 +100,24 @@ public abstract class AbstractMavenMojo
 
     public static final String TARGET_DIRECTORY = "getTargetDirectory";
 
+    private static final Object[] GLOBAL_ARTIFACT_LOCKS = new Object[32];
+
+    static
+    {
+        for ( int i = 0; i < GLOBAL_ARTIFACT_LOCKS.length; i++ )
+        {
+            GLOBAL_ARTIFACT_LOCKS[i] = new Object();
+        }
+    }
+
+    private static final Set<String> STRIPPED_GLOBAL_ARTIFACTS =
+        Collections.newSetFromMap( new ConcurrentHashMap<String, Boolean>() );
+
+    /**
+     * Start time of the build the {@link PathUtil} canonical path cache belongs to.
+     */
+    private static Date pathCacheBuild;
+
     /**
      * @component
      * @readonly
@@ -114,6 +133,17 @@ public abstract class AbstractMavenMojo
 
     protected Map<String, Object> cache = new LinkedHashMap<String, Object>();
 
+    /**
+     * When true, the time spent on every flex compiler invocation (including runtime locales and modules) is written
+     * to <code>target/flexmojos/compiler-metrics.json</code> and <code>.csv</code>, and aggregated for the whole
+     * reactor on the top level project <code>target/flexmojos/reactor-compiler-metrics.json</code> and
+     * <code>.csv</code>. The reactor report is written when the session ends, which needs maven 3.2.1 or newer and
+     * flexmojos loaded with <code>&lt;extensions&gt;true&lt;/extensions&gt;</code>.
+     * 
+     * @parameter expression="${flex.compilerMetrics}" default-value="false"
+     */
+    protected boolean compilerMetrics;
+
     /**
      * The maven configuration directory
      * 
@@ -298,12 +328,54 @@ public abstract class AbstractMavenMojo
         {
             throw new MojoExecutionException( e.getMessage(), e );
         }
+        recordCompilerMetrics( result, exitCode );
         if ( exitCode != 0 )
         {
             throw new MojoFailureException( "Got " + exitCode + " errors building project, check logs" );
         }
     }
 
+    /**
+     * Adds a finished compiler invocation to the compiler metrics reports, when enabled
+     */
+    protected void recordCompilerMetrics( Result result, int exitCode )
+    {
+        if ( !compilerMetrics || result.getTool() == null )
+        {
+            return;
+        }
+
+        CompilerMetrics.get( session ).record( project, getClassifier(), result, exitCode );
+    }
+
+    /**
+     * Writes the compiler metrics report of the project, once the goal is done compiling
+     */
+    protected void writeCompilerMetrics()
+    {
+        if ( !compilerMetrics )
+        {
+            return;
+        }
+
+        try
+        {
+            CompilerMetrics.get( session ).writeProjectReport( project );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to write compiler metrics: " + e.getMessage() );
+        }
+    }
+
+    /**
+     * @return classifier of the artifact being produced, null for the main artifact
+     */
+    public String getClassifier()
+    {
+        return null;
+    }
+
     protected File createSwfDescriptor( File swf )
     {
         Reader reader = null;
@@ -415,7 +487,7 @@ public abstract class AbstractMavenMojo
         {
             // Get the Air-Version from the air runtime artifact (airglobal.swc)
             Artifact airRuntimeArtifact = getDependency(
-                    allOf(groupId(AIR_GROUP_ID), artifactId(AIR_GLOBAL), type(SWC)));
+                    groupId(AIR_GROUP_ID), artifactId(AIR_GLOBAL), type(SWC));
             if(airRuntimeArtifact != null) {
                 return airRuntimeArtifact.getVersion();
             }
@@ -451,11 +523,11 @@ public abstract class AbstractMavenMojo
 
     protected Artifact getFrameworkArtifact()
     {
-        Artifact apacheFramework = MavenUtils.searchFor(getDependencies(), "org.apache.flex", "framework", null, "pom", null);
+        Artifact apacheFramework = getDependencyIndex().searchFor("org.apache.flex", "framework", null, "pom", null);
         if(apacheFramework != null) {
             return apacheFramework;
         }
-        Artifact flexjsFramework = MavenUtils.searchFor(getDependencies(), "org.apache.flex.flexjs", "framework", null, "pom", null);
+        Artifact flexjsFramework = getDependencyIndex().searchFor("org.apache.flex.flexjs", "framework", null, "pom", null);
         if(flexjsFramework != null) {
             return flexjsFramework;
         }
@@ -513,16 +585,22 @@ public abstract class AbstractMavenMojo
         return Collections.unmodifiableSet(project.getArtifacts());
     }
 
-    protected Set<Artifact> getDependencies( Matcher<? extends Artifact>... matchers )
+    /**
+     * Index over {@link #getDependencies()}, built once per execution (clones get their own)
+     */
+    public ArtifactIndex getDependencyIndex()
     {
-        Set<Artifact> dependencies = getDependencies();
+        return new ArtifactIndex( getDependencies() );
+    }
 
-        return new LinkedHashSet<Artifact>( filter( allOf( matchers ), dependencies ) );
+    protected Set<Artifact> getDependencies( Matcher<? extends Artifact>... matchers )
+    {
+        return getDependencyIndex().filter( matchers );
     }
 
     protected Artifact getDependency( Matcher<? extends Artifact>... matchers )
     {
-        return selectFirst(getDependencies(), allOf(matchers));
+        return getDependencyIndex().selectFirst( matchers );
     }
 
     @SuppressWarnings( "unchecked" )
@@ -584,22 +662,53 @@ public abstract class AbstractMavenMojo
 
         File source = global.getFile();
         File dest = new File( source.getParentFile(), global.getArtifactId() + "." + SWC );
+        stripGlobalArtifact( global, source, dest );
         global.setFile( dest );
+        return global;
+    }
 
-        try
+    /**
+     * Copies the global artifact to a file named after its artifactId, once per file and JVM. Only compilations of the
+     * same global artifact wait for each other, the copy goes through a temporary file so a concurrent build never
+     * sees a partial SWC.
+     */
+    private void stripGlobalArtifact( Artifact global, File source, File dest )
+    {
+        String key = dest.getAbsolutePath();
+        if ( STRIPPED_GLOBAL_ARTIFACTS.contains( key ) && dest.exists() )
         {
-            if ( !dest.exists() )
-            {
-                dest.getParentFile().mkdirs();
-                getLog().debug( "Striping global artifact, source: " + source + ", dest: " + dest );
-                FileUtils.copyFile( source, dest );
-            }
+            return;
         }
-        catch ( IOException e )
+
+        synchronized ( GLOBAL_ARTIFACT_LOCKS[( key.hashCode() & Integer.MAX_VALUE ) % GLOBAL_ARTIFACT_LOCKS.length] )
         {
-            throw new IllegalStateException( "Error renaming '" + global.getArtifactId() + "'.", e );
+            try
+            {
+                if ( !dest.exists() )
+                {
+                    dest.getParentFile().mkdirs();
+                    getLog().debug( "Striping global artifact, source: " + source + ", dest: " + dest );
+                    File temp = File.createTempFile( global.getArtifactId(), ".tmp", dest.getParentFile() );
+                    try
+                    {
+                        FileUtils.copyFile( source, temp );
+                        if ( !temp.renameTo( dest ) && !dest.exists() )
+                        {
+                            FileUtils.copyFile( temp, dest );
+                        }
+                    }
+                    finally
+                    {
+                        temp.delete();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new IllegalStateException( "Error renaming '" + global.getArtifactId() + "'.", e );
+            }
+            STRIPPED_GLOBAL_ARTIFACTS.add( key );
         }
-        return global;
     }
 
     public Artifact getAirGlobal() {
@@ -923,11 +1032,33 @@ public abstract class AbstractMavenMojo
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        resetPathCache( session );
         ThreadLocalToolkitHelper.setMavenLogger(getMavenLogger());
         ThreadLocalToolkitHelper.setMavenResolver(getMavenPathResolver() );
-        fmExecute();
+        try
+        {
+            fmExecute();
+        }
+        finally
+        {
+            writeCompilerMetrics();
+        }
     }
 
     public abstract void fmExecute() throws MojoExecutionException, MojoFailureException;
 
+    /**
+     * Keeps the canonical paths cached by {@link PathUtil} to a single build, when maven is embedded the same classes
+     * live across several builds and symbolic links may have changed in between.
+     */
+    private static synchronized void resetPathCache( MavenSession session )
+    {
+        Date start = session == null || session.getRequest() == null ? null : session.getRequest().getStartTime();
+        if ( start != null && !start.equals( pathCacheBuild ) )
+        {
+            PathUtil.clearCache();
+            pathCacheBuild = start;
+        }
+    }
+
 }
@@ -0,0 +1,62 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin;
+
+import java.util.List;
+
+import net.flexmojos.oss.plugin.utilities.AsdocFragments;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.MavenExecutionException;
+import org.apache.maven.execution.MavenSession;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.logging.Logger;
+
+/**
+ * Warns when the asdoc fragments of a reactor were never merged, see {@link AsdocFragments}.
+ */
+@Component( role = AbstractMavenLifecycleParticipant.class, hint = "AsdocFragments" )
+public class AsdocFragmentsMavenExtension
+    extends AbstractMavenLifecycleParticipant
+{
+
+    @Requirement
+    private Logger logger;
+
+    /**
+     * Only called by maven 3.2.1 and newer, hence no <code>@Override</code>
+     */
+    public void afterSessionEnd( MavenSession session )
+        throws MavenExecutionException
+    {
+        AsdocFragments fragments = AsdocFragments.find( session );
+        if ( fragments == null )
+        {
+            return;
+        }
+
+        List<String> pending = fragments.getPending();
+        if ( !pending.isEmpty() )
+        {
+            logger.warn( "Aggregated asdoc was not generated, no fragment from " + pending
+                + " (modules failed, were skipped or do not run the asdoc goal)" );
+        }
+    }
+
+}
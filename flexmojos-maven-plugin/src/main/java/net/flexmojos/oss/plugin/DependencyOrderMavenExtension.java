@@ -17,20 +17,21 @@
  */
 package net.flexmojos.oss.plugin;
 
-import static ch.lambdaj.Lambda.selectFirst;
-import static org.hamcrest.CoreMatchers.allOf;
-
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import net.flexmojos.oss.compatibilitykit.Version;
 
 import org.apache.maven.AbstractMavenLifecycleParticipant;
 import org.apache.maven.MavenExecutionException;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginManagement;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
-import net.flexmojos.oss.matcher.artifact.DependencyMatcher;
 
 @Component( role = AbstractMavenLifecycleParticipant.class, hint = "DependencyOrder" )
 public class DependencyOrderMavenExtension
@@ -50,14 +51,21 @@ public class DependencyOrderMavenExtension
 
         List<MavenProject> projects = session.getProjects();
 
+        // modules inheriting the plugin from the same parent share the order computed for the first one
+        Map<String, DependencyOrder> orders = new HashMap<String, DependencyOrder>();
         for ( MavenProject project : projects )
         {
-            fixPlugin( project.getPlugin( FLEXMOJOS ) );
-            fixPlugin( project.getPluginManagement().getPluginsAsMap().get( FLEXMOJOS ) );
+            fixPlugin( project.getPlugin( FLEXMOJOS ), orders );
+
+            PluginManagement pluginManagement = project.getPluginManagement();
+            if ( pluginManagement != null )
+            {
+                fixPlugin( pluginManagement.getPluginsAsMap().get( FLEXMOJOS ), orders );
+            }
         }
     }
 
-    private void fixPlugin( Plugin fm )
+    private void fixPlugin( Plugin fm, Map<String, DependencyOrder> orders )
     {
         if ( fm == null )
         {
@@ -65,49 +73,113 @@ public class DependencyOrderMavenExtension
         }
 
         List<Dependency> deps = fm.getDependencies();
-        fm.setDependencies( fixDependencies( deps, fm.getVersion() ) );
+
+        String key = DependencyOrder.key( deps );
+        DependencyOrder order = orders.get( key );
+        if ( order == null )
+        {
+            order = new DependencyOrder( deps );
+            orders.put( key, order );
+        }
+
+        fm.setDependencies( order.apply( deps, fm.getVersion() ) );
     }
 
-    private List<Dependency> fixDependencies( List<Dependency> deps, String fmVersion )
+    /**
+     * @return the artifactId of the compatibility layer the compiler needs, <code>null</code> when it needs none
+     */
+    static String getCompatibilityLayer( String compilerVersion )
     {
-        @SuppressWarnings( "unchecked" )
-        Dependency compiler = selectFirst( deps, allOf( DependencyMatcher.groupId( "com.adobe.flex" ),//
-                                                        DependencyMatcher.artifactId( "compiler" ),//
-                                                        DependencyMatcher.type( "pom" ) )//
-            );
+        int[] version = Version.parse( compilerVersion ).toArray();
+        if ( version.length == 0 )
+        {
+            return null;
+        }
 
-        if ( compiler == null )
+        switch ( version[0] )
         {
-            return deps;
+            case 2:
+                return "flexmojos-flex2-compatibility-layer";
+            case 3:
+                return "flexmojos-flex3-compatibility-layer";
+            default:
+                return null;
         }
+    }
+
+    /**
+     * Where the compiler pom is on a plugin dependency list and which compatibility layer it needs. Depends only on
+     * the coordinates of the dependencies, see {@link #key(List)}, the dependencies themselves are never shared
+     * between projects.
+     */
+    static class DependencyOrder
+    {
 
-        List<Dependency> ad = new ArrayList<Dependency>();
+        private final int compiler;
 
-        if ( compiler.getVersion().startsWith( "2" ) )
+        private final String compatibilityLayer;
+
+        DependencyOrder( List<Dependency> deps )
         {
-            Dependency compatibility = new Dependency();
-            compatibility.setGroupId( "net.flexmojos.oss" );
-            compatibility.setArtifactId( "flexmojos-flex2-compatibility-layer" );
-            compatibility.setVersion( fmVersion );
-            ad.add( compatibility );
+            int index = -1;
+            for ( int i = 0; i < deps.size(); i++ )
+            {
+                Dependency dep = deps.get( i );
+                if ( "com.adobe.flex".equals( dep.getGroupId() ) && "compiler".equals( dep.getArtifactId() )
+                    && "pom".equals( dep.getType() ) )
+                {
+                    index = i;
+                    break;
+                }
+            }
+
+            this.compiler = index;
+            this.compatibilityLayer = index == -1 ? null : getCompatibilityLayer( deps.get( index ).getVersion() );
         }
 
-        if ( compiler.getVersion().startsWith( "3" ) )
+        static String key( List<Dependency> deps )
         {
-            Dependency compatibility = new Dependency();
-            compatibility.setGroupId( "net.flexmojos.oss" );
-            compatibility.setArtifactId( "flexmojos-flex3-compatibility-layer" );
-            compatibility.setVersion( fmVersion );
-            ad.add( compatibility );
+            StringBuilder key = new StringBuilder();
+            for ( Dependency dep : deps )
+            {
+                key.append( dep.getGroupId() ).append( ':' ).append( dep.getArtifactId() ).append( ':' );
+                key.append( dep.getType() ).append( ':' ).append( dep.getVersion() ).append( '|' );
+            }
+            return key.toString();
         }
 
-        ad.addAll( deps );
-        
-        //make sure compiler is the last one
-        ad.remove( compiler );
-        ad.add( compiler );
+        List<Dependency> apply( List<Dependency> deps, String fmVersion )
+        {
+            if ( compiler == -1 )
+            {
+                return deps;
+            }
+
+            List<Dependency> ad = new ArrayList<Dependency>( deps.size() + 1 );
+
+            if ( compatibilityLayer != null )
+            {
+                Dependency compatibility = new Dependency();
+                compatibility.setGroupId( "net.flexmojos.oss" );
+                compatibility.setArtifactId( compatibilityLayer );
+                compatibility.setVersion( fmVersion );
+                ad.add( compatibility );
+            }
+
+            for ( int i = 0; i < deps.size(); i++ )
+            {
+                if ( i != compiler )
+                {
+                    ad.add( deps.get( i ) );
+                }
+            }
+
+            // make sure compiler is the last one
+            ad.add( deps.get( compiler ) );
+
+            return ad;
+        }
 
-        return ad;
     }
 
 }
@@ -53,6 +53,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.filefilter.AgeFileFilter;
 import org.apache.commons.io.filefilter.TrueFileFilter;
@@ -68,7 +69,7 @@ import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 import org.hamcrest.Matcher;
 import net.flexmojos.oss.compatibilitykit.FlexMojo;
-import net.flexmojos.oss.compatibilitykit.VersionUtils;
+import net.flexmojos.oss.compatibilitykit.SwfVersions;
 import net.flexmojos.oss.compiler.IApplicationDomain;
 import net.flexmojos.oss.compiler.ICompcConfiguration;
 import net.flexmojos.oss.compiler.ICompilerConfiguration;
@@ -116,7 +117,11 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
     IRuntimeSharedLibrarySettingsConfiguration
 {
 
-    private static final Object lock = new Object();
+    /**
+     * Runtime shared library paths already computed, shared by this mojo and its clones (modules and runtime locales)
+     */
+    private Map<String, IRuntimeSharedLibraryPath> runtimeSharedLibraryPaths =
+        new ConcurrentHashMap<String, IRuntimeSharedLibraryPath>();
 
     public static final String PROJECT_TYPE = "getProjectType";
 
@@ -840,6 +845,18 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
      */
     private boolean licenseLocalLookup;
 
+    /**
+     * Properties file with the licenses of the project, product name to serial number, same format as the installed
+     * license.properties. Together with <code>licenseLocalLookup</code> set to false, the build no longer depends on
+     * the licenses installed on the machine.
+     * <p>
+     * Installed licenses are overridden by this file, which is overridden by <code>licenses</code>
+     * </p>
+     * 
+     * @parameter expression="${flex.licenseFile}"
+     */
+    private File licenseFile;
+
     /**
      * Specifies a product and a serial number
      * <p>
@@ -2193,14 +2210,11 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
 
     public Collection<Artifact> getGlobalArtifactCollection()
     {
-        synchronized ( lock )
-        {
-            Artifact globalArtifact = getGlobalArtifact();
-            if(globalArtifact != null) {
-                return Collections.singletonList( globalArtifact );
-            }
-            return Collections.emptySet();
+        Artifact globalArtifact = getGlobalArtifact();
+        if(globalArtifact != null) {
+            return Collections.singletonList( globalArtifact );
         }
+        return Collections.emptySet();
     }
 
     public Boolean getHeadlessServer()
@@ -2321,7 +2335,49 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
 
     public ILicense[] getLicense()
     {
-        return null;
+        Map<String, String> licenses = new TreeMap<String, String>();
+        if ( licenseLocalLookup )
+        {
+            licenses.putAll( licenseCalculator.getInstalledLicenses() );
+        }
+        if ( licenseFile != null )
+        {
+            try
+            {
+                licenses.putAll( licenseCalculator.getLicenses( licenseFile ) );
+            }
+            catch ( IOException e )
+            {
+                throw new MavenRuntimeException( "Unable to read license file " + licenseFile, e );
+            }
+        }
+        if ( this.licenses != null )
+        {
+            licenses.putAll( this.licenses );
+        }
+
+        if ( licenses.isEmpty() )
+        {
+            return null;
+        }
+
+        List<ILicense> result = new ArrayList<ILicense>();
+        for ( final Entry<String, String> license : licenses.entrySet() )
+        {
+            result.add( new ILicense()
+            {
+                public String product()
+                {
+                    return license.getKey();
+                }
+
+                public String serialNumber()
+                {
+                    return license.getValue();
+                }
+            } );
+        }
+        return result.toArray( new ILicense[result.size()] );
     }
 
     public ILicensesConfiguration getLicensesConfiguration()
@@ -2731,25 +2787,43 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
                                                     + rslUrls.length + "/" + rslUrls.length );
         }
 
+        String urlsKey = Arrays.toString( rslUrls ) + Arrays.toString( policyFileUrls ) + contextRoot;
+
         List<IRuntimeSharedLibraryPath> rsls = new ArrayList<IRuntimeSharedLibraryPath>();
         for ( final Artifact artifact : dependencies )
         {
+            rsls.add( memoizeRuntimeSharedLibraryPath( artifact, rslUrls, policyFileUrls, urlsKey ) );
+        }
+
+        return rsls.toArray( new IRuntimeSharedLibraryPath[rsls.size()] );
+    }
 
-            rsls.add( new IRuntimeSharedLibraryPath()
+    private IRuntimeSharedLibraryPath memoizeRuntimeSharedLibraryPath( Artifact artifact, String[] rslUrls,
+                                                                       String[] policyFileUrls, String urlsKey )
+    {
+        // the scope decides between swf and swz urls, the same artifact may come with another scope in a clone
+        String key = artifact.getId() + "|" + artifact.getScope() + "|" + urlsKey;
+        IRuntimeSharedLibraryPath path = runtimeSharedLibraryPaths.get( key );
+        if ( path == null )
+        {
+            final String pathElement = artifact.getFile().getAbsolutePath();
+            final Map<String, String> rslUrl =
+                Collections.unmodifiableMap( calculateRuntimeLibraryPath( artifact, rslUrls, policyFileUrls ) );
+            path = new IRuntimeSharedLibraryPath()
             {
                 public String pathElement()
                 {
-                    return artifact.getFile().getAbsolutePath();
+                    return pathElement;
                 }
 
                 public Map<String, String> rslUrl()
                 {
-                    return calculateRuntimeLibraryPath( artifact, rslUrls, policyFileUrls );
+                    return rslUrl;
                 }
-            } );
+            };
+            runtimeSharedLibraryPaths.put( key, path );
         }
-
-        return rsls.toArray( new IRuntimeSharedLibraryPath[rsls.size()] );
+        return path;
     }
 
     public IRuntimeSharedLibrarySettingsConfiguration getRuntimeSharedLibrarySettingsConfiguration()
@@ -2894,46 +2968,9 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         }
         // Get the swfVersion based upon the used flashVersion.
         if (flashVersion != null) {
-            if (VersionUtils.isMinVersionOK(flashVersion, "17.0"))
-                return 28;
-            if (VersionUtils.isMinVersionOK(flashVersion, "16.0"))
-                return 27;
-            if (VersionUtils.isMinVersionOK(flashVersion, "15.0"))
-                return 26;
-            if (VersionUtils.isMinVersionOK(flashVersion, "14.0"))
-                return 25;
-            if (VersionUtils.isMinVersionOK(flashVersion, "13.0"))
-                return 24;
-            if (VersionUtils.isMinVersionOK(flashVersion, "12.0"))
-                return 23;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.9"))
-                return 22;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.8"))
-                return 21;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.7"))
-                return 20;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.6"))
-                return 19;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.5"))
-                return 18;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.4"))
-                return 17;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.3"))
-                return 16;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.2"))
-                return 15;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11.1"))
-                return 14;
-            if (VersionUtils.isMinVersionOK(flashVersion, "11"))
-                return 13;
-            if (VersionUtils.isMinVersionOK(flashVersion, "10.3"))
-                return 12;
-            if (VersionUtils.isMinVersionOK(flashVersion, "10.2"))
-                return 11;
-            if (VersionUtils.isMinVersionOK(flashVersion, "10.1"))
-                return 10;
-            if (VersionUtils.isMinVersionOK(flashVersion, "9"))
-                return 9;
+            Integer flashSwfVersion = SwfVersions.forFlashVersion(flashVersion);
+            if (flashSwfVersion != null)
+                return flashSwfVersion;
 
             getLog().warn("Unable to determine 'swfVersion' for flashVersion " + flashVersion);
         }
@@ -2947,36 +2984,9 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         }
         // Get the swfVersion based upon the used airVersion.
         if (airVersion != null) {
-            if (VersionUtils.isMinVersionOK(airVersion, "17.0"))
-                return 28;
-            if (VersionUtils.isMinVersionOK(airVersion, "16.0"))
-                return 27;
-            if (VersionUtils.isMinVersionOK(airVersion, "15.0"))
-                return 26;
-            if (VersionUtils.isMinVersionOK(airVersion, "14.0"))
-                return 25;
-            if (VersionUtils.isMinVersionOK(airVersion, "13.0"))
-                return 24;
-            if (VersionUtils.isMinVersionOK(airVersion, "4.0"))
-                return 23;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.9"))
-                return 22;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.8"))
-                return 21;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.7"))
-                return 20;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.6"))
-                return 19;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.5"))
-                return 18;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.4"))
-                return 17;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.3"))
-                return 16;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.2"))
-                return 15;
-            if (VersionUtils.isMinVersionOK(airVersion, "3.0"))
-                return 13;
+            Integer airSwfVersion = SwfVersions.forAirVersion(airVersion);
+            if (airSwfVersion != null)
+                return airSwfVersion;
 
             getLog().warn("Unable to determine 'swfVersion' for airVersion " + airVersion);
         }
@@ -28,14 +28,15 @@ import static net.flexmojos.oss.plugin.common.FlexExtension.SWF;
 import static net.flexmojos.oss.plugin.common.FlexScopes.TEST;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.Mojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
@@ -45,14 +46,20 @@ import org.apache.maven.project.ProjectBuildingException;
 import org.apache.maven.project.ProjectBuildingRequest;
 import org.codehaus.plexus.archiver.Archiver;
 import org.codehaus.plexus.archiver.UnArchiver;
+import org.codehaus.plexus.util.FileUtils;
 import org.hamcrest.Matcher;
 import net.flexmojos.oss.compatibilitykit.FlexCompatibility;
 import net.flexmojos.oss.compiler.IASDocConfiguration;
+import net.flexmojos.oss.compiler.INamespace;
 import net.flexmojos.oss.compiler.IPackagesConfiguration;
 import net.flexmojos.oss.compiler.IRuntimeSharedLibraryPath;
 import net.flexmojos.oss.compiler.command.Result;
+import net.flexmojos.oss.compiler.util.FlexCompilerArgumentParser;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenRuntimeException;
 import net.flexmojos.oss.plugin.compiler.attributes.SimplifiablePattern;
+import net.flexmojos.oss.plugin.utilities.AsdocFragments;
+import net.flexmojos.oss.plugin.utilities.DitaFragmentMerger;
+import net.flexmojos.oss.plugin.utilities.InputFingerprint;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
 import net.flexmojos.oss.util.OSUtils;
 import net.flexmojos.oss.util.PathUtil;
@@ -81,6 +88,32 @@ public class AsdocMojo
      */
     private boolean aggregate;
 
+    /**
+     * If true together with <code>aggregate</code>, every flex module documents only its own sources into the
+     * intermediate asdoc XML during its own build, so modules are documented in parallel on a multi-threaded build.
+     * The module that finishes last merges all fragments into <code>asdoc/tempdita</code> on the execution root build
+     * directory, instead of the execution root parsing the sources of the whole reactor at once, and attaches the
+     * bundle to itself. The result is the merged DITA XML, the same asdoc leaves with <code>keepXml</code> and
+     * <code>skipXsl</code>: no HTML is rendered, that is asdoc's own XSL stage. Every flex module of the reactor must
+     * run the asdoc goal, with the flexmojos extension enabled a build that never merged is warned about.
+     * 
+     * @parameter default-value="false" expression="${flex.asdoc.aggregateFragments}"
+     */
+    private boolean aggregateFragments;
+
+    /**
+     * @component
+     * @readonly
+     */
+    private FlexCompilerArgumentParser argumentParser;
+
+    /**
+     * @parameter expression="${project.build.directory}/asdoc-fragment"
+     * @readonly
+     * @required
+     */
+    private File asdocFragmentDirectory;
+
     /**
      * @parameter expression="${project.build.directory}/asdoc"
      * @readonly
@@ -219,6 +252,14 @@ public class AsdocMojo
      */
     private Boolean includeLookupOnly;
 
+    /**
+     * If true, asdoc generation (and bundling) is skipped when the documented sources, source path, libraries, template
+     * and configuration did not change since the last successful run
+     * 
+     * @parameter default-value="true" expression="${flex.asdoc.incremental}"
+     */
+    private boolean incremental;
+
     /**
      * DOCME undocumented by adobe
      * <p>
@@ -259,6 +300,12 @@ public class AsdocMojo
      */
     private String mainTitle;
 
+    /**
+     * @parameter expression="${mojoExecution}"
+     * @readonly
+     */
+    private MojoExecution mojoExecution;
+
     /**
      * The filename of bundled asdoc
      * 
@@ -316,15 +363,13 @@ public class AsdocMojo
      */
     private String windowTitle;
 
-    private void attachAsdoc()
+    private void createAsdocBundle( File docs, File bundle )
         throws Exception
     {
-        Archiver archiver = archiverManager.getArchiver( output );
-        archiver.addDirectory( new File( getOutput() ) );
-        archiver.setDestFile( output );
+        Archiver archiver = archiverManager.getArchiver( bundle );
+        archiver.addDirectory( docs );
+        archiver.setDestFile( bundle );
         archiver.createArchive();
-
-        projectHelper.attachArtifact( project, PathUtil.fileExtention( output ), "asdoc", output );
     }
 
     @Override
@@ -337,6 +382,29 @@ public class AsdocMojo
     public void fmExecute()
         throws MojoExecutionException, MojoFailureException
     {
+        if ( isFragmentAggregate() )
+        {
+            if ( !isFlexProject( project ) )
+            {
+                getLog().info( "Skipping asdoc execution, fragments are merged once every flex module is documented." );
+                return;
+            }
+
+            File fragment = null;
+            if ( PathUtil.existAny( getSourcePath() ) )
+            {
+                generate();
+                fragment = new File( getOutput(), "tempdita" );
+            }
+            else
+            {
+                getLog().warn( "Skipping asdoc, source path doesn't exist." );
+            }
+
+            mergeFragments( fragment );
+            return;
+        }
+
         if ( aggregate && !project.isExecutionRoot() )
         {
             getLog().info( "Skipping asdoc execution, aggregate mode active." );
@@ -349,20 +417,196 @@ public class AsdocMojo
             return;
         }
 
+        generate();
+    }
+
+    private void generate()
+        throws MojoExecutionException, MojoFailureException
+    {
+        boolean attachBundle = attach && !isFragmentAggregate();
+
+        File fingerprintFile = new File( getFlexmojosDirectory(), "asdoc.fingerprint" );
+        String fingerprint = null;
+        if ( incremental )
+        {
+            fingerprint = getInputFingerprint();
+            if ( fingerprint.equals( InputFingerprint.read( fingerprintFile ) ) && isAsdocGenerated() )
+            {
+                getLog().info( "Asdoc is up to date, skipping generation." );
+                if ( attachBundle )
+                {
+                    attach( !output.isFile() );
+                }
+                return;
+            }
+        }
+
+        // a failed run must never be taken for an up to date one
+        fingerprintFile.delete();
+
+        if ( isFragmentAggregate() )
+        {
+            // classes removed since the last run must not survive on the fragment
+            try
+            {
+                FileUtils.deleteDirectory( new File( getOutput(), "tempdita" ) );
+            }
+            catch ( IOException e )
+            {
+                throw new MojoExecutionException( "Failed to clean asdoc fragment", e );
+            }
+        }
+
         wait( executeCompiler( this, true ) );
+        if ( attachBundle )
+        {
+            attach( true );
+        }
+
+        if ( fingerprint != null )
+        {
+            try
+            {
+                InputFingerprint.write( fingerprintFile, fingerprint );
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Unable to store asdoc fingerprint: " + e.getMessage() );
+            }
+        }
+    }
+
+    private void attach( boolean createBundle )
+        throws MojoExecutionException
+    {
+        try
+        {
+            if ( createBundle )
+            {
+                createAsdocBundle( new File( getOutput() ), output );
+            }
+            projectHelper.attachArtifact( project, PathUtil.fileExtention( output ), "asdoc", output );
+        }
+        catch ( Exception e )
+        {
+            throw new MojoExecutionException( "Failed to create asdoc bundle", e );
+        }
+    }
+
+    /**
+     * Records the fragment of this module and, if it was the last one the reactor was waiting for, merges all of them
+     * on the execution root.
+     */
+    private void mergeFragments( File fragment )
+        throws MojoExecutionException
+    {
+        List<MavenProject> flexProjects = new ArrayList<MavenProject>();
+        for ( MavenProject p : reactorProjects )
+        {
+            if ( isFlexProject( p ) )
+            {
+                flexProjects.add( p );
+            }
+        }
+
+        AsdocFragments fragments = AsdocFragments.get( session, flexProjects );
+        if ( !fragments.done( project, fragment ) )
+        {
+            getLog().info( "Asdoc fragment ready, waiting for " + fragments.getPending() );
+            return;
+        }
+
+        MavenProject root = session.getTopLevelProject();
+        File docs = new File( root.getBuild().getDirectory(), "asdoc" );
+        File tempdita = new File( docs, "tempdita" );
+        List<File> merged = fragments.getFragments();
+        try
+        {
+            FileUtils.deleteDirectory( tempdita );
+            int files = DitaFragmentMerger.merge( merged, tempdita );
+            getLog().info( "Merged " + merged.size() + " asdoc fragments (" + files + " files) into " + tempdita );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to merge asdoc fragments", e );
+        }
+
         if ( attach )
         {
+            // the execution root may be built already, the bundle belongs to the module that merged the fragments
             try
             {
-                attachAsdoc();
+                createAsdocBundle( docs, output );
             }
             catch ( Exception e )
             {
                 throw new MojoExecutionException( "Failed to create asdoc bundle", e );
             }
+            projectHelper.attachArtifact( project, PathUtil.fileExtention( output ), "asdoc", output );
+            getLog().info( "Aggregated asdoc bundle attached to " + project.getId() );
         }
     }
 
+    private boolean isFragmentAggregate()
+    {
+        return aggregate && aggregateFragments;
+    }
+
+    private static boolean isFlexProject( MavenProject p )
+    {
+        return SWC.equals( p.getPackaging() ) || SWF.equals( p.getPackaging() ) || AIR.equals( p.getPackaging() );
+    }
+
+    private File getFlexmojosDirectory()
+    {
+        return new File( project.getBuild().getDirectory(), "flexmojos" );
+    }
+
+    private boolean isAsdocGenerated()
+    {
+        String[] generated = new File( getOutput() ).list();
+        return generated != null && generated.length != 0;
+    }
+
+    /**
+     * Everything that changes the generated documentation: the documented and referenced sources, the libraries, the
+     * template, the configuration files and every option of the asdoc execution.
+     */
+    protected String getInputFingerprint()
+    {
+        InputFingerprint fingerprint = new InputFingerprint();
+        fingerprint.add( "compiler", getCompilerVersion() + "|" + compilerName );
+        fingerprint.add( "aggregate", aggregate + "|" + aggregateFragments + "|" + docAllNamespaces );
+        // options that only exist on the mojo side, as configured on the pom
+        fingerprint.add( "configuration", mojoExecution == null ? null : mojoExecution.getConfiguration() );
+        // every option handed to the compiler, inherited ones included (defines, namespaces, theme, metadata...)
+        fingerprint.add( "arguments", argumentParser.getArgumentsList( this, IASDocConfiguration.class ) );
+        fingerprint.addFiles( "docSources", getDocSources() );
+        fingerprint.addFiles( "sourcePath", getSourcePath() );
+        fingerprint.addFiles( "libraryPath", getLibraryPath() );
+        fingerprint.addFiles( "externalLibraryPath", getExternalLibraryPath() );
+        fingerprint.addFiles( "manifests", getManifests() );
+        fingerprint.addFiles( "theme", PathUtil.files( getTheme() ) );
+        fingerprint.addFiles( "defaultsCss", PathUtil.files( getDefaultsCssFiles() ) );
+        fingerprint.addFiles( "loadConfig", PathUtil.files( getLoadConfig() ) );
+        fingerprint.addFiles( "templates", new File( getTemplatesPath() ) );
+        fingerprint.addFiles( "examplesPath", examplesPath );
+        fingerprint.add( "output", getOutput() );
+        fingerprint.add( "bundle", PathUtil.path( output ) );
+        return fingerprint.get();
+    }
+
+    private File[] getManifests()
+    {
+        INamespace[] namespaces = getNamespace();
+        File[] manifests = new File[namespaces.length];
+        for ( int i = 0; i < namespaces.length; i++ )
+        {
+            manifests[i] = PathUtil.file( namespaces[i].manifest() );
+        }
+        return manifests;
+    }
+
     public Boolean getDateInFooter()
     {
         return dateInFooter;
@@ -466,6 +710,10 @@ public class AsdocMojo
 
     public Boolean getKeepXml()
     {
+        if ( isFragmentAggregate() )
+        {
+            return true;
+        }
         return keepXml;
     }
 
@@ -485,13 +733,13 @@ public class AsdocMojo
     {
         Matcher<? extends Artifact>[] filter =
             new Matcher[] { type( SWC ), not( scope( TEST ) ), not( GLOBAL_MATCHER ) };
-        if ( aggregate )
+        if ( aggregate && !aggregateFragments )
         {
             Set<File> deps = new LinkedHashSet<File>();
 
             for ( MavenProject p : reactorProjects )
             {
-                if ( !( SWC.equals( p.getPackaging() ) || SWF.equals( p.getPackaging() ) || AIR.equals( p.getPackaging() ) ) )
+                if ( !isFlexProject( p ) )
                 {
                     continue;
                 }
@@ -536,8 +784,9 @@ public class AsdocMojo
 
     public String getOutput()
     {
-        asdocOutputDirectory.mkdirs();
-        return PathUtil.path( asdocOutputDirectory );
+        File outputDirectory = isFragmentAggregate() ? asdocFragmentDirectory : asdocOutputDirectory;
+        outputDirectory.mkdirs();
+        return PathUtil.path( outputDirectory );
     }
 
     public String[] getPackage()
@@ -576,13 +825,17 @@ public class AsdocMojo
 
     public Boolean getSkipXsl()
     {
+        if ( isFragmentAggregate() )
+        {
+            return true;
+        }
         return skipXsl;
     }
 
     @Override
     public File[] getSourcePath()
     {
-        if ( aggregate )
+        if ( aggregate && !aggregateFragments )
         {
             List<File> files = new ArrayList<File>();
 
@@ -607,15 +860,27 @@ public class AsdocMojo
         }
 
         File templateOutput = new File( project.getBuild().getDirectory(), "templates" );
-        templateOutput.mkdirs();
 
         Artifact template = resolve( "org.apache.flex.compiler", "asdoc", getCompilerVersion(), "template", "zip" );
+
+        // kept outside of the templates directory, asdoc copies everything in there to the output
+        File marker = new File( getFlexmojosDirectory(), "asdoc-template.marker" );
+        String templateFingerprint = new InputFingerprint().addFiles( "template", template.getFile() ).get();
+        if ( templateOutput.isDirectory() && templateFingerprint.equals( InputFingerprint.read( marker ) ) )
+        {
+            return PathUtil.path( templateOutput );
+        }
+
+        marker.delete();
+        templateOutput.mkdirs();
         try
         {
             UnArchiver unarchiver = archiverManager.getUnArchiver( "zip" );
             unarchiver.setDestDirectory( templateOutput );
             unarchiver.setSourceFile( template.getFile() );
             unarchiver.extract();
+
+            InputFingerprint.write( marker, templateFingerprint );
         }
         catch ( Exception e )
         {
@@ -0,0 +1,206 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Runs compilations as a dependency graph: a compilation starts as soon as every compilation it depends on is done,
+ * using at most a fixed number of threads. Compilations must be independent of scheduling order (each one writes its
+ * own output), so the produced files are the same as a sequential run.
+ */
+public class CompilationScheduler
+{
+
+    public interface Compilation
+    {
+        void compile()
+            throws MojoExecutionException, MojoFailureException;
+    }
+
+    private static class Node
+    {
+        private final String id;
+
+        private final Compilation compilation;
+
+        private final List<String> dependencies;
+
+        private final List<Node> dependents = new ArrayList<Node>();
+
+        private int pending;
+
+        Node( String id, Compilation compilation, List<String> dependencies )
+        {
+            this.id = id;
+            this.compilation = compilation;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private final Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+
+    /**
+     * @param id unique id of this compilation
+     * @param dependencies ids of compilations that must be done before this one starts
+     */
+    public void add( String id, Compilation compilation, String... dependencies )
+        throws MojoExecutionException
+    {
+        if ( nodes.containsKey( id ) )
+        {
+            throw new MojoExecutionException( "Duplicated compilation: " + id );
+        }
+        nodes.put( id, new Node( id, compilation, Arrays.asList( dependencies ) ) );
+    }
+
+    public boolean isEmpty()
+    {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Runs every compilation, waiting for them to finish. On the first failure no other compilation is started, the
+     * running ones are waited and the failure is rethrown.
+     */
+    public void execute( int threads )
+        throws MojoExecutionException, MojoFailureException
+    {
+        List<Node> ready = new ArrayList<Node>();
+        for ( Node node : nodes.values() )
+        {
+            for ( String dependency : node.dependencies )
+            {
+                Node required = nodes.get( dependency );
+                if ( required == null )
+                {
+                    throw new MojoExecutionException( "Compilation " + node.id + " depends on unknown " + dependency );
+                }
+                required.dependents.add( node );
+                node.pending++;
+            }
+        }
+        for ( Node node : nodes.values() )
+        {
+            if ( node.pending == 0 )
+            {
+                ready.add( node );
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, threads ) );
+        CompletionService<Node> completion = new ExecutorCompletionService<Node>( executor );
+        try
+        {
+            int running = 0;
+            int done = 0;
+            Throwable failure = null;
+            while ( true )
+            {
+                if ( failure == null )
+                {
+                    for ( final Node node : ready )
+                    {
+                        completion.submit( new Callable<Node>()
+                        {
+                            public Node call()
+                                throws Exception
+                            {
+                                node.compilation.compile();
+                                return node;
+                            }
+                        } );
+                        running++;
+                    }
+                }
+                ready.clear();
+
+                if ( running == 0 )
+                {
+                    break;
+                }
+
+                Node finished;
+                try
+                {
+                    finished = completion.take().get();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new MojoExecutionException( "Interrupted while waiting for compilation", e );
+                }
+                catch ( ExecutionException e )
+                {
+                    running--;
+                    if ( failure == null )
+                    {
+                        failure = e.getCause();
+                    }
+                    continue;
+                }
+                running--;
+                done++;
+
+                for ( Node dependent : finished.dependents )
+                {
+                    if ( --dependent.pending == 0 )
+                    {
+                        ready.add( dependent );
+                    }
+                }
+            }
+
+            if ( failure instanceof MojoFailureException )
+            {
+                throw (MojoFailureException) failure;
+            }
+            if ( failure instanceof MojoExecutionException )
+            {
+                throw (MojoExecutionException) failure;
+            }
+            if ( failure != null )
+            {
+                throw new MojoExecutionException( failure.getMessage(), failure );
+            }
+            if ( done != nodes.size() )
+            {
+                throw new MojoExecutionException( "Circular dependency between compilations, " + ( nodes.size() - done )
+                    + " of them never started" );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+}
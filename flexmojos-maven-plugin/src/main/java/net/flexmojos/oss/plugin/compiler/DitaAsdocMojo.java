@@ -20,20 +20,14 @@ package net.flexmojos.oss.plugin.compiler;
 import static net.flexmojos.oss.plugin.common.FlexExtension.SWC;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Enumeration;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
-import java.util.zip.ZipOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.util.DirectoryScanner;
-import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
+import net.flexmojos.oss.plugin.utilities.ZipAppender;
 import net.flexmojos.oss.util.PathUtil;
 
 /**
@@ -102,71 +96,28 @@ public class DitaAsdocMojo
 
         wait( executeCompiler( this, true ) );
 
-        ZipOutputStream out = null;
+        File ditaSource = new File( ditaOutputDirectory, "tempdita" );
+
+        DirectoryScanner scan = new DirectoryScanner();
+        scan.setBasedir( ditaSource );
+        scan.setIncludes( new String[] { "**/*" } );
+        scan.addDefaultExcludes();
+        scan.scan();
+
+        Map<String, File> ditaDocs = new LinkedHashMap<String, File>();
+        for ( String doc : scan.getIncludedFiles() )
+        {
+            ditaDocs.put( "docs/" + doc.replace( '\\', '/' ), new File( ditaSource, doc ) );
+        }
+
         try
         {
-            File tmp = new File( getTargetDirectory(), "temp" );
-            tmp.mkdirs();
-
-            File temp = File.createTempFile( getFinalName(), SWC, tmp );
-
-            FileUtils.copyFile( output, temp );
-            output.delete();
-
-            ZipFile source = new ZipFile( temp );
-            out = new ZipOutputStream( new FileOutputStream( output ) );
-
-            Enumeration<? extends ZipEntry> entries = source.entries();
-            while ( entries.hasMoreElements() )
-            {
-                ZipEntry entry = (ZipEntry) entries.nextElement();
-                out.putNextEntry( entry );
-
-                InputStream input = source.getInputStream( entry );
-                try
-                {
-                    IOUtil.copy( input, out );
-                }
-                finally
-                {
-                    IOUtil.close( input );
-                    out.closeEntry();
-                }
-            }
-
-            File ditaSource = new File( ditaOutputDirectory, "tempdita" );
-
-            DirectoryScanner scan = new DirectoryScanner();
-            scan.setBasedir( ditaSource );
-            scan.setIncludes( new String[] { "**/*" } );
-            scan.addDefaultExcludes();
-            scan.scan();
-
-            String[] ditaDocs = scan.getIncludedFiles();
-            for ( String doc : ditaDocs )
-            {
-                out.putNextEntry( new ZipEntry( "docs/" + doc.replace( '\\', '/' ) ) );
-
-                InputStream input = new FileInputStream( new File( ditaSource, doc ) );
-                try
-                {
-                    IOUtil.copy( input, out );
-                }
-                finally
-                {
-                    IOUtil.close( input );
-                    out.closeEntry();
-                }
-            }
+            ZipAppender.append( output, ditaDocs );
         }
         catch ( IOException e )
         {
             throw new MojoExecutionException( e.getMessage(), e );
         }
-        finally
-        {
-            IOUtil.close( out );
-        }
     }
 
     @Override
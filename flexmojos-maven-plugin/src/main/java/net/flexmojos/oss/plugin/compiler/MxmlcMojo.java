@@ -36,7 +36,11 @@ import org.apache.maven.project.MavenProjectHelper;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.scope;
 import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.type;
@@ -98,13 +102,34 @@ public class MxmlcMojo
      *     &lt;finalName&gt;MyModule&lt;/finalName&gt;
      *     &lt;destinationPath&gt;dir1/dir2&lt;/destinationPath&gt;
      *   &lt;/module&gt;
+     *   &lt;module&gt;
+     *     &lt;sourceFile&gt;Module4.mxml&lt;/sourceFile&gt;
+     *     &lt;dependsOn&gt;
+     *       &lt;dependsOn&gt;module3&lt;/dependsOn&gt;
+     *     &lt;/dependsOn&gt;
+     *   &lt;/module&gt;
      * &lt;/modules&gt;
      * </pre>
      * 
+     * <p>
+     * Modules are compiled concurrently once the main application is done. <code>dependsOn</code> lists the
+     * classifiers (lower case source file name, without extension) of modules that must be compiled first, when the
+     * module is optimized their link reports are also used as load externs.
+     * </p>
+     * 
      * @parameter
      */
     private Module[] modules;
 
+    /**
+     * Maximum number of runtime locales and modules compiled at the same time. When zero the number of available
+     * processors is used. Ignored when <code>fullSynchronization</code> is true, then everything is compiled one at a
+     * time.
+     * 
+     * @parameter expression="${flex.compilerThreads}" default-value="0"
+     */
+    private int compilerThreads;
+
     /**
      * When true, tells flexmojos to optimized modules using link reports/load externs
      * 
@@ -171,22 +196,23 @@ public class MxmlcMojo
             throw new IllegalStateException( "Output file doesn't exist and no error was thrown by the compiler!" );
         }
 
+        CompilationScheduler scheduler = new CompilationScheduler();
+
         if ( getLocalesRuntime() != null )
         {
-            List<Result> results = new ArrayList<Result>();
             for ( String locale : getLocalesRuntime() )
             {
                 MxmlcMojo cfg = this.clone();
                 configureResourceBundle( locale, cfg );
-                results.add( executeCompiler( new MxmlcConfigurationHolder( cfg, null ), fullSynchronization ) );
+                scheduler.add( "locale:" + locale, compilation( new MxmlcConfigurationHolder( cfg, null ) ) );
             }
-
-            wait( results );
         }
 
         if ( getModules() != null )
         {
-            List<Result> results = new ArrayList<Result>();
+            Map<String, MxmlcMojo> moduleConfigs = new LinkedHashMap<String, MxmlcMojo>();
+            Map<String, Module> modulesByClassifier = new HashMap<String, Module>();
+            Map<String, File> moduleSources = new HashMap<String, File>();
 
             for ( Module module : getModules() )
             {
@@ -220,31 +246,72 @@ public class MxmlcMojo
                     moduleOutputDir = new File( project.getBuild().getDirectory() );
                 }
 
-                List<String> loadExterns = new ArrayList<String>();
-                loadExterns.add( getLinkReport() );
-                if ( getLoadExterns() != null )
-                {
-                    loadExterns.addAll( Arrays.asList( getLoadExterns() ) );
-                }
-
                 MxmlcMojo cfg = this.clone();
                 cfg.classifier = classifier;
                 cfg.targetDirectory = moduleOutputDir;
                 cfg.finalName = moduleFinalName;
+                cfg.getCache().put( RUNTIME_SHARED_LIBRARY_PATH, null );
+                cfg.getCache().put( INCLUDE_LIBRARIES, null );
+                cfg.getCache().put( EXTERNAL_LIBRARY_PATH, getModulesExternalLibraryPath() );
+
+                moduleConfigs.put( classifier, cfg );
+                modulesByClassifier.put( classifier, module );
+                moduleSources.put( classifier, moduleSource );
+            }
+
+            for ( Entry<String, MxmlcMojo> entry : moduleConfigs.entrySet() )
+            {
+                String classifier = entry.getKey();
+                MxmlcMojo cfg = entry.getValue();
+                Module module = modulesByClassifier.get( classifier );
+                String[] dependsOn = module.getDependsOn() == null ? new String[0] : module.getDependsOn();
+
                 if ( module.isOptimize() )
                 {
+                    List<String> loadExterns = new ArrayList<String>();
+                    loadExterns.add( getLinkReport() );
+                    for ( String dependency : dependsOn )
+                    {
+                        MxmlcMojo dependencyCfg = moduleConfigs.get( dependency );
+                        if ( dependencyCfg == null )
+                        {
+                            throw new MojoExecutionException( "Module " + classifier + " depends on unknown module "
+                                + dependency );
+                        }
+                        loadExterns.add( dependencyCfg.getLinkReport() );
+                    }
+                    if ( getLoadExterns() != null )
+                    {
+                        loadExterns.addAll( Arrays.asList( getLoadExterns() ) );
+                    }
                     cfg.getCache().put( LOAD_EXTERNS, loadExterns.toArray( new String[1] ) );
                 }
-                cfg.getCache().put( RUNTIME_SHARED_LIBRARY_PATH, null );
-                cfg.getCache().put( INCLUDE_LIBRARIES, null );
-                cfg.getCache().put( EXTERNAL_LIBRARY_PATH, getModulesExternalLibraryPath() );
-                results.add( executeCompiler( new MxmlcConfigurationHolder( cfg, moduleSource ), fullSynchronization ) );
+
+                scheduler.add( classifier,
+                               compilation( new MxmlcConfigurationHolder( cfg, moduleSources.get( classifier ) ) ),
+                               dependsOn );
             }
+        }
 
-            wait( results );
+        if ( !scheduler.isEmpty() )
+        {
+            int threads = compilerThreads > 0 ? compilerThreads : Runtime.getRuntime().availableProcessors();
+            scheduler.execute( fullSynchronization ? 1 : threads );
         }
     }
 
+    private CompilationScheduler.Compilation compilation( final MxmlcConfigurationHolder cfg )
+    {
+        return new CompilationScheduler.Compilation()
+        {
+            public void compile()
+                throws MojoExecutionException, MojoFailureException
+            {
+                executeCompiler( cfg, true );
+            }
+        };
+    }
+
     public List<String> getFileSpecs()
     {
         return fileSpecs;
@@ -20,6 +20,8 @@ package net.flexmojos.oss.plugin.compiler.attributes;
 public class Module
 {
 
+    private String[] dependsOn;
+
     private String destinationPath;
 
     private String finalName;
@@ -28,6 +30,11 @@ public class Module
 
     private String sourceFile;
 
+    public String[] getDependsOn()
+    {
+        return dependsOn;
+    }
+
     public String getDestinationPath()
     {
         return destinationPath;
@@ -53,6 +60,11 @@ public class Module
         this.sourceFile = sourceFile;
     }
 
+    public void setDependsOn( String[] dependsOn )
+    {
+        this.dependsOn = dependsOn;
+    }
+
     public void setDestinationPath( String destinationPath )
     {
         this.destinationPath = destinationPath;
@@ -17,20 +17,17 @@
  */
 package net.flexmojos.oss.plugin.font;
 
-import com.adobe.fonts.transcoder.*;
-import flash.fonts.FontDescription;
+import com.adobe.fonts.transcoder.Font2SWF;
 import net.flexmojos.oss.plugin.AbstractMavenMojo;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
-import org.codehaus.plexus.util.IOUtil;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.OutputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static net.flexmojos.oss.util.PathUtil.path;
 
@@ -99,10 +96,45 @@ public class Font2SwfMojo
      * Font file to be compiled
      * 
      * @parameter expression="${flex.font}"
-     * @required
      */
     private File font;
 
+    /**
+     * Font faces to be compiled on the same execution, each one into its own swf. Settings not set on a face are taken
+     * from this goal configuration (bold, italic, transcoder, unicodeRanges, advancedAntiAliasing and
+     * compactFontFormat), the alias defaults to the font file name and the swf name to finalName-alias, followed by
+     * -bold, -italic or -bold-italic for those styles so the faces of a family do not overwrite each other.
+     * <p>
+     * Usage:
+     * </p>
+     * 
+     * <pre>
+     * &lt;fonts&gt;
+     *   &lt;font&gt;
+     *     &lt;file&gt;src/main/fonts/OpenSans-Regular.ttf&lt;/file&gt;
+     *     &lt;alias&gt;OpenSans&lt;/alias&gt;
+     *   &lt;/font&gt;
+     *   &lt;font&gt;
+     *     &lt;file&gt;src/main/fonts/OpenSans-Bold.ttf&lt;/file&gt;
+     *     &lt;alias&gt;OpenSans&lt;/alias&gt;
+     *     &lt;bold&gt;true&lt;/bold&gt;
+     *     &lt;unicodeRanges&gt;U+0020-U+007E&lt;/unicodeRanges&gt;
+     *     &lt;transcoder&gt;DEFINEFONT3&lt;/transcoder&gt;
+     *   &lt;/font&gt;
+     * &lt;/fonts&gt;
+     * </pre>
+     * 
+     * @parameter
+     */
+    private List<FontFace> fonts;
+
+    /**
+     * Number of fonts transcoded at the same time
+     * 
+     * @parameter default-value="4" expression="${flex.font.threads}"
+     */
+    private int fontThreads;
+
     /**
      * The name of the compiled file
      * 
@@ -120,75 +152,86 @@ public class Font2SwfMojo
     public void fmExecute()
         throws MojoExecutionException, MojoFailureException
     {
-        if ( !font.exists() )
+        List<FontFace> faces = new ArrayList<FontFace>();
+        if ( font != null )
         {
-            throw new MojoFailureException( "Font source doesn't exists at " + path( font ) );
+            FontFace face = new FontFace();
+            face.setFile( font );
+            face.setAlias( alias );
+            // a single font keeps the name it always had, whatever its style
+            String fontAlias = alias != null ? alias : FilenameUtils.getBaseName( font.getName() );
+            face.setFinalName( fontSwfFinalName != null ? fontSwfFinalName : finalName + "-" + fontAlias );
+            faces.add( face );
         }
-
-        if ( alias == null )
+        if ( fonts != null )
         {
-            alias = FilenameUtils.getBaseName( font.getName() );
+            faces.addAll( fonts );
         }
 
-        FontDescription description = new FontDescription();
-        if ( advancedAntiAliasing != null )
-        {
-            description.advancedAntiAliasing = advancedAntiAliasing;
-        }
-        if ( compactFontFormat != null )
-        {
-            description.compactFontFormat = compactFontFormat;
-        }
-        description.alias = alias;
-        description.style = ( bold ? 1 : 0 ) + ( italic ? 2 : 0 );
-        description.unicodeRanges = unicodeRanges;
-        try
-        {
-            description.source = new URL( "file:///" + path( font ) );
-        }
-        catch ( MalformedURLException e )
+        if ( faces.isEmpty() )
         {
-            throw new MojoExecutionException( e.getMessage(), e );
+            throw new MojoFailureException( "No font to transcode, set font or fonts" );
         }
 
-        FontTranscoder fontTranscoder;
-        if ( transcoder == Font2SWF.DefineFontKind.DEFINEFONT3 )
+        Map<File, FontFace> swfs = new LinkedHashMap<File, FontFace>();
+        for ( FontFace face : faces )
         {
-            fontTranscoder = new DefineFont3Transcoder();
-        }
-        else if ( transcoder == Font2SWF.DefineFontKind.DEFINEFONT4 )
-        {
-            fontTranscoder = new DefineFont4Transcoder();
-        }
-        else
-        {
-            throw new IllegalStateException( "Unexpected font transcoder: " + transcoder );
+            FontFace resolved = resolve( face );
+            File output = new File( getTargetDirectory(), resolved.getFinalName() + ".swf" );
+            if ( swfs.containsKey( output ) )
+            {
+                throw new MojoFailureException( "Fonts " + swfs.get( output ) + " and " + resolved
+                    + " would both be written to " + path( output ) + ", set a distinct finalName" );
+            }
+            swfs.put( output, resolved );
         }
 
-        if ( fontSwfFinalName == null )
-        {
-            fontSwfFinalName = finalName + "-" + alias;
-        }
+        File fingerprints = new File( new File( project.getBuild().getDirectory(), "flexmojos" ), "font2swf" );
+        List<File> written = new FontBatchTranscoder( fingerprints, fontThreads ).transcode( swfs );
+        getLog().info( "Transcoded " + written.size() + " font(s), " + ( swfs.size() - written.size() )
+            + " up to date" );
+    }
 
-        OutputStream output = null;
-        try
-        {
-            File outputFile = new File( getTargetDirectory(), fontSwfFinalName + ".swf" );
-            output = new FileOutputStream( outputFile );
-            fontTranscoder.transcode( description, output );
-        }
-        catch ( FontTranscoderException e )
+    /**
+     * @return a copy of the face with every unset setting taken from this goal configuration
+     */
+    private FontFace resolve( FontFace face )
+        throws MojoFailureException
+    {
+        if ( face.getFile() == null || !face.getFile().exists() )
         {
-            throw new MojoExecutionException( "Failed to create the font swf", e );
+            throw new MojoFailureException( "Font source doesn't exists at " + path( face.getFile() ) );
         }
-        catch ( FileNotFoundException e )
+
+        FontFace resolved = new FontFace();
+        resolved.setFile( face.getFile() );
+        resolved.setAlias( face.getAlias() != null ? face.getAlias()
+                        : FilenameUtils.getBaseName( face.getFile().getName() ) );
+        resolved.setBold( face.getBold() != null ? face.getBold() : bold );
+        resolved.setItalic( face.getItalic() != null ? face.getItalic() : italic );
+        resolved.setTranscoder( face.getTranscoder() != null ? face.getTranscoder() : transcoder );
+        resolved.setUnicodeRanges( face.getUnicodeRanges() != null ? face.getUnicodeRanges() : unicodeRanges );
+        resolved.setAdvancedAntiAliasing( face.getAdvancedAntiAliasing() != null ? face.getAdvancedAntiAliasing()
+                        : advancedAntiAliasing );
+        resolved.setCompactFontFormat( face.getCompactFontFormat() != null ? face.getCompactFontFormat()
+                        : compactFontFormat );
+        resolved.setFinalName( face.getFinalName() != null ? face.getFinalName()
+                        : finalName + "-" + resolved.getAlias() + getStyleSuffix( resolved ) );
+        return resolved;
+    }
+
+    private static String getStyleSuffix( FontFace face )
+    {
+        String suffix = "";
+        if ( Boolean.TRUE.equals( face.getBold() ) )
         {
-            throw new MojoExecutionException( "Failed to create the font swf", e );
+            suffix += "-bold";
         }
-        finally
+        if ( Boolean.TRUE.equals( face.getItalic() ) )
         {
-            IOUtil.close( output );
+            suffix += "-italic";
         }
+        return suffix;
     }
 
 }
@@ -0,0 +1,223 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.font;
+
+import static net.flexmojos.oss.util.PathUtil.path;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.flexmojos.oss.plugin.utilities.InputFingerprint;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.IOUtil;
+
+import com.adobe.fonts.transcoder.DefineFont3Transcoder;
+import com.adobe.fonts.transcoder.DefineFont4Transcoder;
+import com.adobe.fonts.transcoder.Font2SWF;
+import com.adobe.fonts.transcoder.FontTranscoder;
+import com.adobe.fonts.transcoder.FontTranscoderException;
+
+import flash.fonts.FontDescription;
+
+/**
+ * Transcodes several font faces into SWFs at once, each one on its own thread with its own transcoder. A SWF is only
+ * written again when the font file or any of its settings changed since it was last written; the fingerprint of each
+ * SWF is kept on a separate directory.
+ */
+public class FontBatchTranscoder
+{
+
+    private final File fingerprintDirectory;
+
+    private final int threads;
+
+    public FontBatchTranscoder( File fingerprintDirectory, int threads )
+    {
+        this.fingerprintDirectory = fingerprintDirectory;
+        this.threads = Math.max( 1, threads );
+    }
+
+    /**
+     * @param fonts SWF to write for each font face, every setting of the faces must be set
+     * @return the SWFs written, the ones that were up to date are not included
+     */
+    public List<File> transcode( Map<File, FontFace> fonts )
+        throws MojoExecutionException
+    {
+        Map<File, Future<Boolean>> jobs = new LinkedHashMap<File, Future<Boolean>>();
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, Math.max( 1, fonts.size() ) ) );
+        try
+        {
+            for ( final Map.Entry<File, FontFace> font : fonts.entrySet() )
+            {
+                jobs.put( font.getKey(), executor.submit( new Callable<Boolean>()
+                {
+                    public Boolean call()
+                        throws Exception
+                    {
+                        return transcode( font.getValue(), font.getKey() );
+                    }
+                } ) );
+            }
+
+            List<File> written = new ArrayList<File>();
+            for ( Map.Entry<File, Future<Boolean>> job : jobs.entrySet() )
+            {
+                if ( job.getValue().get() )
+                {
+                    written.add( job.getKey() );
+                }
+            }
+            return written;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while transcoding fonts", e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof MojoExecutionException )
+            {
+                throw (MojoExecutionException) cause;
+            }
+            throw new MojoExecutionException( "Failed to create the font swf", cause );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean transcode( FontFace font, File output )
+        throws MojoExecutionException
+    {
+        File fingerprintFile = new File( fingerprintDirectory, output.getName() + ".fingerprint" );
+        String fingerprint = getFingerprint( font, output );
+        if ( output.isFile() && fingerprint.equals( InputFingerprint.read( fingerprintFile ) ) )
+        {
+            return false;
+        }
+        fingerprintFile.delete();
+
+        FontTranscoder fontTranscoder;
+        if ( font.getTranscoder() == Font2SWF.DefineFontKind.DEFINEFONT3 )
+        {
+            fontTranscoder = new DefineFont3Transcoder();
+        }
+        else if ( font.getTranscoder() == Font2SWF.DefineFontKind.DEFINEFONT4 )
+        {
+            fontTranscoder = new DefineFont4Transcoder();
+        }
+        else
+        {
+            throw new IllegalStateException( "Unexpected font transcoder: " + font.getTranscoder() );
+        }
+
+        // written aside first, a failed transcoding must not leave a SWF that looks up to date
+        output.getParentFile().mkdirs();
+        File tmp = new File( output.getParentFile(), output.getName() + ".tmp" );
+        OutputStream out = null;
+        try
+        {
+            out = new FileOutputStream( tmp );
+            fontTranscoder.transcode( toDescription( font ), out );
+            out.close();
+            out = null;
+
+            output.delete();
+            if ( !tmp.renameTo( output ) )
+            {
+                throw new IOException( "Unable to rename " + tmp + " to " + output );
+            }
+
+            InputFingerprint.write( fingerprintFile, fingerprint );
+        }
+        catch ( FontTranscoderException e )
+        {
+            throw new MojoExecutionException( "Failed to create the font swf for " + font, e );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to create the font swf for " + font, e );
+        }
+        finally
+        {
+            IOUtil.close( out );
+            tmp.delete();
+        }
+        return true;
+    }
+
+    static String getFingerprint( FontFace font, File output )
+    {
+        InputFingerprint fingerprint = new InputFingerprint();
+        fingerprint.addFiles( "file", font.getFile() );
+        fingerprint.add( "output", path( output ) );
+        fingerprint.add( "alias", font.getAlias() );
+        fingerprint.add( "style", font.getBold() + "|" + font.getItalic() );
+        fingerprint.add( "unicodeRanges", font.getUnicodeRanges() );
+        fingerprint.add( "transcoder", font.getTranscoder() );
+        fingerprint.add( "advancedAntiAliasing", font.getAdvancedAntiAliasing() );
+        fingerprint.add( "compactFontFormat", font.getCompactFontFormat() );
+        return fingerprint.get();
+    }
+
+    static FontDescription toDescription( FontFace font )
+        throws MojoExecutionException
+    {
+        FontDescription description = new FontDescription();
+        if ( font.getAdvancedAntiAliasing() != null )
+        {
+            description.advancedAntiAliasing = font.getAdvancedAntiAliasing();
+        }
+        if ( font.getCompactFontFormat() != null )
+        {
+            description.compactFontFormat = font.getCompactFontFormat();
+        }
+        description.alias = font.getAlias();
+        description.style = ( Boolean.TRUE.equals( font.getBold() ) ? 1 : 0 )
+            + ( Boolean.TRUE.equals( font.getItalic() ) ? 2 : 0 );
+        description.unicodeRanges = font.getUnicodeRanges();
+        try
+        {
+            description.source = new URL( "file:///" + path( font.getFile() ) );
+        }
+        catch ( MalformedURLException e )
+        {
+            throw new MojoExecutionException( e.getMessage(), e );
+        }
+        return description;
+    }
+
+}
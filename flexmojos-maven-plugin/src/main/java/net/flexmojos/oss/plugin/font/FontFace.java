@@ -0,0 +1,144 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.font;
+
+import java.io.File;
+
+import com.adobe.fonts.transcoder.Font2SWF;
+
+/**
+ * A font face transcoded by the font2swf goal. Settings left unset are taken from the goal configuration.
+ */
+public class FontFace
+{
+
+    private Boolean advancedAntiAliasing;
+
+    private String alias;
+
+    private Boolean bold;
+
+    private Boolean compactFontFormat;
+
+    private File file;
+
+    private String finalName;
+
+    private Boolean italic;
+
+    private Font2SWF.DefineFontKind transcoder;
+
+    private String unicodeRanges;
+
+    public Boolean getAdvancedAntiAliasing()
+    {
+        return advancedAntiAliasing;
+    }
+
+    public String getAlias()
+    {
+        return alias;
+    }
+
+    public Boolean getBold()
+    {
+        return bold;
+    }
+
+    public Boolean getCompactFontFormat()
+    {
+        return compactFontFormat;
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    public String getFinalName()
+    {
+        return finalName;
+    }
+
+    public Boolean getItalic()
+    {
+        return italic;
+    }
+
+    public Font2SWF.DefineFontKind getTranscoder()
+    {
+        return transcoder;
+    }
+
+    public String getUnicodeRanges()
+    {
+        return unicodeRanges;
+    }
+
+    public void setAdvancedAntiAliasing( Boolean advancedAntiAliasing )
+    {
+        this.advancedAntiAliasing = advancedAntiAliasing;
+    }
+
+    public void setAlias( String alias )
+    {
+        this.alias = alias;
+    }
+
+    public void setBold( Boolean bold )
+    {
+        this.bold = bold;
+    }
+
+    public void setCompactFontFormat( Boolean compactFontFormat )
+    {
+        this.compactFontFormat = compactFontFormat;
+    }
+
+    public void setFile( File file )
+    {
+        this.file = file;
+    }
+
+    public void setFinalName( String finalName )
+    {
+        this.finalName = finalName;
+    }
+
+    public void setItalic( Boolean italic )
+    {
+        this.italic = italic;
+    }
+
+    public void setTranscoder( Font2SWF.DefineFontKind transcoder )
+    {
+        this.transcoder = transcoder;
+    }
+
+    public void setUnicodeRanges( String unicodeRanges )
+    {
+        this.unicodeRanges = unicodeRanges;
+    }
+
+    @Override
+    public String toString()
+    {
+        return alias + " (" + file + ")";
+    }
+
+}
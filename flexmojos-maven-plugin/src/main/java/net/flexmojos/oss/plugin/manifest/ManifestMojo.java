@@ -18,12 +18,14 @@
 package net.flexmojos.oss.plugin.manifest;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.maven.plugin.AbstractMojo;
@@ -31,8 +33,6 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
-import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.Xpp3DomWriter;
 import net.flexmojos.oss.util.PathUtil;
@@ -46,6 +46,8 @@ public class ManifestMojo
     extends AbstractMojo
 {
 
+    private static final String ENCODING = "UTF-8";
+
     /**
      * @parameter default-value="${project.basedir}"
      * @readonly
@@ -104,42 +106,84 @@ public class ManifestMojo
             classes.addAll( Arrays.asList( scanner.getIncludedFiles() ) );
         }
 
-        Xpp3Dom dom = new Xpp3Dom( "componentPackage" );
-        for ( String fileName : classes )
-        {
-            fileName = fileName.replace( ".as", "" ).replace( ".mxml", "" );
-
-            String classname = fileName.replace( '/', '.' ).replace( '\\', '.' );
-            String name = FilenameUtils.getExtension( classname );
-            if ( StringUtils.isEmpty( name ) )
-            {
-                name = classname;
-            }
-
-            Xpp3Dom component = new Xpp3Dom( "component" );
-            component.setAttribute( "id", name );
-            component.setAttribute( "class", classname );
-            dom.addChild( component );
-        }
+        Xpp3Dom dom = createManifest( classes );
 
         String outputPath = PathUtil.relativePath( basedir, outputFile );
-        getLog().info( "Writting " + classes.size() + " entry(ies) to manifest at: " + outputPath );
-        Writer output = null;
         try
         {
-            FileUtils.forceMkdir( outputFile.getParentFile() );
-            output = new FileWriter( outputFile );
-            IOUtil.copy( "<?xml version=\"1.0\"?>", output );
-            Xpp3DomWriter.write( output, dom );
+            if ( write( dom, outputFile ) )
+            {
+                getLog().info( "Writting " + dom.getChildCount() + " entry(ies) to manifest at: " + outputPath );
+            }
+            else
+            {
+                getLog().info( "Manifest at " + outputPath + " is up to date." );
+            }
         }
         catch ( IOException e )
         {
             throw new MojoExecutionException( "Failed to create outputFile at: " + outputFile, e );
         }
-        finally
+    }
+
+    /**
+     * Creates the manifest for the given source files (relative to their source root), sorted by class name, so the
+     * output only depends on the set of classes and not on the order the file system lists them.
+     * 
+     * @throws MojoFailureException if two different classes would get the same component id
+     */
+    static Xpp3Dom createManifest( Collection<String> files )
+        throws MojoFailureException
+    {
+        Map<String, String> classes = new TreeMap<String, String>();
+        Map<String, String> ids = new TreeMap<String, String>();
+        for ( String fileName : files )
         {
-            IOUtil.close( output );
+            String classname = FilenameUtils.removeExtension( fileName ).replace( '/', '.' ).replace( '\\', '.' );
+            String name = classname.substring( classname.lastIndexOf( '.' ) + 1 );
+
+            String other = ids.get( name );
+            if ( other != null && !other.equals( classname ) )
+            {
+                throw new MojoFailureException( "Duplicated manifest id '" + name + "' for classes " + other
+                    + " and " + classname + ", exclude one of them with manifestExcludes" );
+            }
+            ids.put( name, classname );
+            classes.put( classname, name );
+        }
+
+        Xpp3Dom dom = new Xpp3Dom( "componentPackage" );
+        for ( Map.Entry<String, String> entry : classes.entrySet() )
+        {
+            Xpp3Dom component = new Xpp3Dom( "component" );
+            component.setAttribute( "id", entry.getValue() );
+            component.setAttribute( "class", entry.getKey() );
+            dom.addChild( component );
         }
+        return dom;
+    }
+
+    /**
+     * Writes the manifest as UTF-8, leaving the file untouched when its content would not change, so compc does not see
+     * a modified manifest on every build.
+     * 
+     * @return true if the file was written
+     */
+    static boolean write( Xpp3Dom dom, File outputFile )
+        throws IOException
+    {
+        StringWriter content = new StringWriter();
+        content.write( "<?xml version=\"1.0\" encoding=\"" + ENCODING + "\"?>" );
+        Xpp3DomWriter.write( content, dom );
+
+        if ( outputFile.isFile() && content.toString().equals( FileUtils.fileRead( outputFile, ENCODING ) ) )
+        {
+            return false;
+        }
+
+        FileUtils.forceMkdir( outputFile.getParentFile() );
+        FileUtils.fileWrite( outputFile.getAbsolutePath(), ENCODING, content.toString() );
+        return true;
     }
 
 }
@@ -21,37 +21,26 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
-import java.io.IOException;
-import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.maven.model.Build;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectHelper;
-import org.codehaus.plexus.util.FileUtils;
 import net.flexmojos.oss.compiler.FlexCompiler;
 import net.flexmojos.oss.compiler.ICompilerConfiguration;
 import net.flexmojos.oss.compiler.IOptimizerConfiguration;
+import net.flexmojos.oss.compiler.command.Result;
 import net.flexmojos.oss.plugin.AbstractMavenMojo;
 import net.flexmojos.oss.plugin.utilities.ConfigurationResolver;
 import net.flexmojos.oss.util.PathUtil;
 
-import scala.None$;
-import scala.Option;
-import scala.Some;
-import apparat.tools.reducer.MatryoshkaType;
-import apparat.tools.reducer.Reducer.ReducerTool;
-import apparat.tools.reducer.ReducerConfiguration;
-import apparat.tools.stripper.Stripper.StripperTool;
-import apparat.tools.stripper.StripperConfiguration;
-
 public abstract class AbstractOptimizerMojo
     extends AbstractMavenMojo
 {
 
-    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat( "#.##" );
-
     /**
      * @parameter expression="${project.build}"
      * @required
@@ -237,6 +226,8 @@ public abstract class AbstractOptimizerMojo
      */
     protected String compilerName;
 
+    private SwfOptimizationPipeline pipeline;
+
     public abstract String getInput();
 
     public String[] getKeepAs3Metadata()
@@ -250,15 +241,21 @@ public abstract class AbstractOptimizerMojo
     }
 
     public IOptimizerConfiguration getOptimizerConfiguration( File input, File output )
+    {
+        return getOptimizerConfiguration( input, output, getLoadConfig(), getKeepAs3Metadata() );
+    }
+
+    protected IOptimizerConfiguration getOptimizerConfiguration( File input, File output, String[] loadConfig,
+                                                                 String[] keepAs3Metadata )
     {
         // mocking real code doesn't seem to be a good idea, but produces a much cleaner code
         IOptimizerConfiguration cfg = mock( IOptimizerConfiguration.class, RETURNS_NULL );
         ICompilerConfiguration compilerCfg = mock( ICompilerConfiguration.class, RETURNS_NULL );
-        when( cfg.getLoadConfig() ).thenReturn( getLoadConfig() );
+        when( cfg.getLoadConfig() ).thenReturn( loadConfig );
         when( cfg.getInput() ).thenReturn( PathUtil.path( input ) );
         when( cfg.getOutput() ).thenReturn( PathUtil.path( output ) );
         when( cfg.getCompilerConfiguration() ).thenReturn( compilerCfg );
-        when( compilerCfg.getKeepAs3Metadata() ).thenReturn( getKeepAs3Metadata() );
+        when( compilerCfg.getKeepAs3Metadata() ).thenReturn( keepAs3Metadata );
         return cfg;
     }
 
@@ -271,175 +268,88 @@ public abstract class AbstractOptimizerMojo
         throws MojoFailureException, MojoExecutionException
     {
         File input = PathUtil.file( getInput() );
-        double originalSize = input.length();
-        {
-            getLog().debug( "Backuping original file " + input );
-            final File output = new File( project.getBuild().getOutputDirectory(), "original.swf" );
-            try
-            {
-                FileUtils.copyFile( input, output );
-            }
-            catch ( IOException e )
-            {
-                throw new MojoExecutionException( e.getMessage(), e );
-            }
-            input = output;
-        }
+        File output = PathUtil.file( getOutput() );
 
-        input = optimize( input );
+        getLog().debug( "Optimizing " + input + " to " + output );
+        SwfOptimizationPipeline.Result result =
+            getPipeline().execute( input, output, new File( project.getBuild().getOutputDirectory() ) );
 
-        if ( reduce )
-        {
-            getLog().debug( "Reducing" );
-            final File output = new File( project.getBuild().getOutputDirectory(), "reduced.swf" );
-            reduce( input, output );
-            input = output;
-        }
+        getLog().info( "Optimization result: " + result );
 
-        if ( strip )
-        {
-            getLog().debug( "Stripping" );
-            final File output = new File( project.getBuild().getOutputDirectory(), "stripped.swf" );
-            reduce( input, output );
-            input = output;
-        }
+        return output;
+    }
 
+    /**
+     * The pipeline is built once per execution and is shared by every SWF this mojo optimizes. The settings its stages
+     * need are resolved while building it, stages may run on several threads and the memoized getters may not.
+     */
+    protected synchronized SwfOptimizationPipeline getPipeline()
+    {
+        if ( pipeline == null )
         {
-            getLog().debug( "Placing optimized file on target folder" );
-            final File output = PathUtil.file( getOutput() );
-            try
+            List<SwfOptimizationStage> stages = new ArrayList<SwfOptimizationStage>();
+            if ( isOptimizerEnabled() )
             {
-                FileUtils.copyFile( input, output );
+                final String[] loadConfig = getLoadConfig();
+                final String[] keepAs3Metadata = getKeepAs3Metadata();
+                stages.add( new SwfOptimizationStage()
+                {
+                    public String getName()
+                    {
+                        return "optimizer";
+                    }
+
+                    @Override
+                    public String toString()
+                    {
+                        return getName();
+                    }
+
+                    public void process( File input, File output )
+                        throws MojoExecutionException, MojoFailureException
+                    {
+                        optimize( input, output, loadConfig, keepAs3Metadata );
+                    }
+                } );
             }
-            catch ( IOException e )
+            if ( reduce )
             {
-                throw new MojoExecutionException( e.getMessage(), e );
+                stages.add( new ReducerStage( reduceDeblock, reduceLzma, reduceMatryoshkaType, reduceMatryoshka,
+                                              reduceMergeABC, reduceQuality, reduceSortCPool, reduceMergeCF ) );
             }
-
-            double finalSize = output.length();
-            double rate = ( finalSize / originalSize ) * 100;
-
-            getLog().info( "Optimization result: " + DECIMAL_FORMAT.format( rate ) + "%" );
-
-            return output;
+            if ( strip )
+            {
+                stages.add( new StripperStage() );
+            }
+            pipeline = new SwfOptimizationPipeline( stages );
         }
+        return pipeline;
     }
 
-    protected abstract File optimize( File input )
-        throws MojoFailureException, MojoExecutionException;
+    /**
+     * Whether the flex optimizer should run before apparat reducer and stripper.
+     */
+    protected boolean isOptimizerEnabled()
+    {
+        return true;
+    }
 
-    protected void optimize( File input, File output )
+    protected void optimize( File input, File output, String[] loadConfig, String[] keepAs3Metadata )
         throws MojoFailureException, MojoExecutionException
     {
-        int result;
+        Result result;
         try
         {
-            result = compiler.optimize( getOptimizerConfiguration( input, output ), true, compilerName ).getExitCode();
+            result =
+                compiler.optimize( getOptimizerConfiguration( input, output, loadConfig, keepAs3Metadata ), true,
+                                   compilerName );
         }
         catch ( Exception e )
         {
             throw new MojoExecutionException( e.getMessage(), e );
         }
 
-        if ( result != 0 )
-        {
-            throw new MojoFailureException( "Got " + result + " errors building project, check logs" );
-        }
-    }
-
-    protected void reduce( final File input, final File output )
-    {
-        ReducerTool s = new ReducerTool();
-        ReducerConfiguration cfg = new ReducerConfiguration()
-        {
-
-            public float deblock()
-            {
-                return reduceDeblock;
-            }
-
-            public File input()
-            {
-                return input;
-            }
-
-            public boolean lzma()
-            {
-                return reduceLzma;
-            }
-
-            public int matryoshkaType()
-            {
-                if ( reduceMatryoshkaType.equalsIgnoreCase( "quiet" ) )
-                {
-                    return MatryoshkaType.QUIET();
-                }
-                else if ( reduceMatryoshkaType.equalsIgnoreCase( "preloader" ) )
-                {
-                    return MatryoshkaType.PRELOADER();
-                }
-                else if ( reduceMatryoshkaType.equalsIgnoreCase( "custom" ) )
-                {
-                    return MatryoshkaType.CUSTOM();
-                }
-                else
-                {
-                    return MatryoshkaType.NONE();
-                }
-            }
-
-            @SuppressWarnings( "unchecked" )
-            public Option<File> matryoshka()
-            {
-                return ( null == reduceMatryoshka ) ? None$.MODULE$ : new Some( reduceMatryoshka );
-            }
-
-            public boolean mergeABC()
-            {
-                return reduceMergeABC;
-            }
-
-            public File output()
-            {
-                return output;
-            }
-
-            public float quality()
-            {
-                return reduceQuality;
-            }
-
-            public boolean sortCPool()
-            {
-                return reduceSortCPool;
-            }
-
-            public boolean mergeCF()
-            {
-                return reduceMergeCF;
-            }
-        };
-        s.configure( cfg );
-        s.run();
-    }
-
-    protected void strip( final File input, final File output )
-    {
-        StripperTool s = new StripperTool();
-        StripperConfiguration cfg = new StripperConfiguration()
-        {
-            public File input()
-            {
-                return input;
-            }
-
-            public File output()
-            {
-                return output;
-            }
-        };
-        s.configure( cfg );
-        s.run();
+        checkResult( result );
     }
 
-}
\ No newline at end of file
+}
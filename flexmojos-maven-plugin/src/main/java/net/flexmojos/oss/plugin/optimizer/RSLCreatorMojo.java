@@ -21,16 +21,24 @@ import static net.flexmojos.oss.plugin.common.FlexExtension.SWC;
 import static net.flexmojos.oss.plugin.common.FlexExtension.SWF;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
+import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
 import net.flexmojos.oss.compiler.IDigestConfiguration;
+import net.flexmojos.oss.compiler.command.Result;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenRuntimeException;
 import net.flexmojos.oss.util.PathUtil;
 
@@ -88,6 +96,15 @@ public class RSLCreatorMojo
      */
     protected String compilerName;
 
+    /**
+     * Directory holding previously created RSLs, keyed by SWC content and optimizer settings. When a SWC didn't change
+     * since the last build its RSL and digested SWC are copied from here instead of being optimized again. Point it
+     * outside <code>target</code> to keep the cache across clean builds.
+     * 
+     * @parameter expression="${flex.rslCacheDirectory}" default-value="${project.build.directory}/rsl-cache"
+     */
+    protected File rslCacheDirectory;
+
     public void fmExecute()
         throws MojoExecutionException, MojoFailureException
     {
@@ -111,52 +128,230 @@ public class RSLCreatorMojo
             return;
         }
 
-        File input = optimize();
+        File rsl = createRsl( project, prepareRslCreation() );
+
+        getLog().debug( "attaching Artifact " );
+        projectHelper.attachArtifact( project, SWF, rsl );
+
+    }
+
+    /**
+     * Resolves, on the calling thread, everything {@link #createRsl(MavenProject, String)} reads through the memoized
+     * getters. Those are backed by an unsynchronized map, RSLs may only be created concurrently once this returned.
+     * 
+     * @return the settings part of the RSL cache key
+     */
+    protected String prepareRslCreation()
+    {
+        getPipeline();
+        // read by checkResult when recording compiler metrics
+        getClassifier();
+
+        StringBuilder settings = new StringBuilder();
+        settings.append( getCompilerVersion() ).append( '|' ).append( compilerName ).append( '|' );
+        settings.append( updateSwcDigest ).append( '|' );
+        for ( SwfOptimizationStage stage : getPipeline().getStages() )
+        {
+            settings.append( stage ).append( '|' );
+        }
+        settings.append( Arrays.toString( getKeepAs3Metadata() ) ).append( '|' );
+        settings.append( Arrays.toString( getLoadConfig() ) );
+        return settings.toString();
+    }
+
+    /**
+     * Extracts, optimizes and digests the RSL of the given SWC project. When <code>rslCacheDirectory</code> holds an
+     * RSL produced from the very same SWC with the very same settings it is reused instead.
+     * 
+     * @param cacheSettings as returned by {@link #prepareRslCreation()}
+     * @return the RSL file, not attached to the project yet
+     */
+    protected File createRsl( MavenProject swcProject, String cacheSettings )
+        throws MojoExecutionException, MojoFailureException
+    {
+        File swc = swcProject.getArtifact().getFile();
+        File rsl = new File( swcProject.getBuild().getDirectory(), swcProject.getBuild().getFinalName() + "." + SWF );
+
+        File cachedRsl = null;
+        File cachedSwc = null;
+        if ( rslCacheDirectory != null )
+        {
+            String key = getCacheKey( swc, cacheSettings );
+            cachedRsl = new File( rslCacheDirectory, key + "." + SWF );
+            cachedSwc = new File( rslCacheDirectory, key + "." + SWC );
+            if ( cachedRsl.isFile() && ( !updateSwcDigest || cachedSwc.isFile() ) )
+            {
+                getLog().info( "Reusing cached RSL for " + swcProject.getArtifact() );
+                copy( cachedRsl, rsl );
+                if ( updateSwcDigest )
+                {
+                    copy( cachedSwc, swc );
+                }
+                return rsl;
+            }
+        }
+
+        extractLibrary( swc, rsl );
+
+        SwfOptimizationPipeline.Result optimization =
+            getPipeline().execute( rsl, rsl, new File( swcProject.getBuild().getOutputDirectory() ) );
+        getLog().info( "Optimization result for " + swcProject.getArtifactId() + ": " + optimization );
 
         if ( updateSwcDigest )
         {
-            int result;
+            Result result;
             try
             {
-                result = compiler.digest( getDigestConfiguration( input ), true, compilerName ).getExitCode();
+                result = compiler.digest( getDigestConfiguration( swc, rsl ), true, compilerName );
             }
             catch ( Exception e )
             {
                 throw new MojoExecutionException( e.getMessage(), e );
             }
 
-            if ( result != 0 )
+            checkResult( result );
+        }
+
+        if ( cachedRsl != null )
+        {
+            store( rsl, cachedRsl );
+            if ( updateSwcDigest )
             {
-                throw new MojoFailureException( "Got " + result + " errors building project, check logs" );
+                store( swc, cachedSwc );
             }
         }
 
-        getLog().debug( "attaching Artifact " );
-        projectHelper.attachArtifact( project, SWF, new File( getOutput() ) );
+        return rsl;
+    }
 
+    /**
+     * The key covers the SWC content (before digest) and every setting that changes the produced RSL.
+     */
+    protected String getCacheKey( File swc, String cacheSettings )
+        throws MojoExecutionException
+    {
+        String swcHash;
+        InputStream in = null;
+        try
+        {
+            in = new FileInputStream( swc );
+            swcHash = DigestUtils.md5Hex( in );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to hash " + swc, e );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+
+        return swcHash + "-" + DigestUtils.md5Hex( cacheSettings );
     }
 
-    protected File optimize( File input )
-        throws MojoFailureException, MojoExecutionException
+    private void store( File file, File cached )
+        throws MojoExecutionException
     {
-        if ( optimizeRsl )
+        // copy to a unique temp file first, so concurrent builds, even from other JVMs, never see a partial entry
+        File tmp;
+        try
         {
-            getLog().debug( "Optimizing" );
-            final File output = new File( project.getBuild().getOutputDirectory(), "optimized.swf" );
-            optimize( input, output );
-            input = output;
+            cached.getParentFile().mkdirs();
+            tmp = File.createTempFile( cached.getName(), ".tmp", cached.getParentFile() );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to create RSL cache entry on " + cached.getParentFile(), e );
+        }
+
+        try
+        {
+            copy( file, tmp );
+            cached.delete();
+            tmp.renameTo( cached );
+        }
+        finally
+        {
+            tmp.delete();
+        }
+    }
+
+    private void copy( File from, File to )
+        throws MojoExecutionException
+    {
+        try
+        {
+            FileUtils.copyFile( from, to );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( e.getMessage(), e );
         }
-        return input;
     }
 
-    public IDigestConfiguration getDigestConfiguration( final File input )
+    protected void extractLibrary( File swc, File rsl )
+    {
+        ZipFile zipFile = null;
+        InputStream inputSWF = null;
+        OutputStream outputSWF = null;
+        try
+        {
+            zipFile = new ZipFile( swc );
+            ZipEntry entry = zipFile.getEntry( "library.swf" );
+            if ( entry == null )
+            {
+                throw new MavenRuntimeException( "Invalid SWC file. Library.swf not found. " + swc );
+            }
+            rsl.getParentFile().mkdirs();
+            inputSWF = zipFile.getInputStream( entry );
+            outputSWF = new FileOutputStream( rsl );
+            IOUtil.copy( inputSWF, outputSWF );
+        }
+        catch ( MavenRuntimeException e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            throw new MavenRuntimeException( e.getMessage() + ": " + PathUtil.path( swc ), e );
+        }
+        finally
+        {
+            IOUtil.close( inputSWF );
+            IOUtil.close( outputSWF );
+            if ( zipFile != null )
+            {
+                try
+                {
+                    zipFile.close();
+                }
+                catch ( IOException e )
+                {
+                    // nothing to do
+                }
+            }
+        }
+    }
+
+    protected boolean isSkipRSLCreation()
+    {
+        return skipRSLCreation;
+    }
+
+    @Override
+    protected boolean isOptimizerEnabled()
+    {
+        return optimizeRsl;
+    }
+
+    public IDigestConfiguration getDigestConfiguration( final File swc, final File input )
     {
         return new IDigestConfiguration()
         {
 
             public File getSwcPath()
             {
-                return project.getArtifact().getFile();
+                return swc;
             }
 
             public Boolean getSigned()
@@ -179,21 +374,7 @@ public class RSLCreatorMojo
         getLog().debug( "attempting to optimize: " + originalFile.getName() );
 
         File bkpOriginalFile = new File( build.getDirectory(), build.getFinalName() + ".swf" );
-        try
-        {
-            ZipFile zipFile = new ZipFile( originalFile );
-            ZipEntry entry = zipFile.getEntry( "library.swf" );
-            if ( entry == null )
-            {
-                throw new MavenRuntimeException( "Invalid SWC file. Library.swf not found. " + originalFile );
-            }
-            InputStream inputSWF = zipFile.getInputStream( entry );
-            IOUtil.copy( inputSWF, new FileOutputStream( bkpOriginalFile ) );
-        }
-        catch ( Exception e )
-        {
-            throw new MavenRuntimeException( e.getMessage() + ": " + PathUtil.path( originalFile ), e );
-        }
+        extractLibrary( originalFile, bkpOriginalFile );
 
         return PathUtil.path( bkpOriginalFile );
     }
@@ -0,0 +1,171 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.optimizer;
+
+import static net.flexmojos.oss.plugin.common.FlexExtension.SWC;
+import static net.flexmojos.oss.plugin.common.FlexExtension.SWF;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.flexmojos.oss.plugin.utilities.CompileConfigurationLoader;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Goal which creates the RSLs of every SWC module of the reactor at once, using several threads. Meant to be invoked
+ * once the modules are packaged, e.g. <code>mvn package flexmojos:create-reactor-rsl</code>.
+ * <p>
+ * Being an aggregator, the goal only sees the configuration of the project it runs on: its optimizer, digest and
+ * compiler settings apply to the RSLs of all modules. A module is left out when its own flexmojos configuration sets
+ * <code>skipRSLCreation</code>.
+ * </p>
+ * 
+ * @since 7.2
+ * @goal create-reactor-rsl
+ * @aggregator
+ */
+public class ReactorRSLCreatorMojo
+    extends RSLCreatorMojo
+{
+
+    /**
+     * @parameter expression="${reactorProjects}"
+     * @required
+     * @readonly
+     */
+    private List<MavenProject> reactorProjects;
+
+    /**
+     * Number of RSLs created at the same time. When zero or negative, one per available processor.
+     * 
+     * @parameter expression="${flex.rslThreads}" default-value="0"
+     */
+    private int rslThreads;
+
+    @Override
+    public void fmExecute()
+        throws MojoExecutionException, MojoFailureException
+    {
+        if ( isSkipRSLCreation() )
+        {
+            getLog().info( "Skipping RSL creation" );
+            return;
+        }
+
+        List<MavenProject> swcProjects = new ArrayList<MavenProject>();
+        for ( MavenProject p : reactorProjects )
+        {
+            if ( !SWC.equals( p.getPackaging() ) )
+            {
+                continue;
+            }
+            if ( Boolean.parseBoolean( CompileConfigurationLoader.getCompilerPluginSetting( p, "skipRSLCreation" ) ) )
+            {
+                getLog().info( "Skipping RSL creation for " + p.getId() );
+                continue;
+            }
+            if ( p.getArtifact().getFile() == null )
+            {
+                getLog().warn( "Skipping RSL creator for " + p.getId() + ", no SWC attached to this project." );
+                continue;
+            }
+            swcProjects.add( p );
+        }
+
+        if ( swcProjects.isEmpty() )
+        {
+            getLog().info( "No SWC project found on reactor" );
+            return;
+        }
+
+        int threads = rslThreads > 0 ? rslThreads : Runtime.getRuntime().availableProcessors();
+        threads = Math.min( threads, swcProjects.size() );
+        getLog().info( "Creating " + swcProjects.size() + " RSLs using " + threads + " threads" );
+
+        // resolved before going parallel, the workers share this mojo and its memoized getters are not thread safe
+        final String cacheSettings = prepareRslCreation();
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        Map<MavenProject, Future<File>> rsls = new LinkedHashMap<MavenProject, Future<File>>();
+        try
+        {
+            for ( final MavenProject p : swcProjects )
+            {
+                rsls.put( p, executor.submit( new Callable<File>()
+                {
+                    public File call()
+                        throws Exception
+                    {
+                        return createRsl( p, cacheSettings );
+                    }
+                } ) );
+            }
+
+            for ( Map.Entry<MavenProject, Future<File>> rsl : rsls.entrySet() )
+            {
+                File file = get( rsl.getKey(), rsl.getValue() );
+                getLog().debug( "attaching Artifact " + file );
+                projectHelper.attachArtifact( rsl.getKey(), SWF, file );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private File get( MavenProject p, Future<File> rsl )
+        throws MojoExecutionException, MojoFailureException
+    {
+        try
+        {
+            return rsl.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while creating RSL for " + p.getId(), e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof MojoFailureException )
+            {
+                throw (MojoFailureException) cause;
+            }
+            if ( cause instanceof MojoExecutionException )
+            {
+                throw (MojoExecutionException) cause;
+            }
+            throw new MojoExecutionException( "Failed to create RSL for " + p.getId() + ": " + cause.getMessage(),
+                                              cause );
+        }
+    }
+
+}
@@ -0,0 +1,160 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.optimizer;
+
+import java.io.File;
+
+import scala.None$;
+import scala.Option;
+import scala.Some;
+import apparat.tools.reducer.MatryoshkaType;
+import apparat.tools.reducer.Reducer.ReducerTool;
+import apparat.tools.reducer.ReducerConfiguration;
+
+/**
+ * Runs apparat reducer. A fresh {@link ReducerTool} is created per SWF, so a single stage can be shared among every
+ * SWF a module produces.
+ */
+public class ReducerStage
+    implements SwfOptimizationStage
+{
+
+    private final float deblock;
+
+    private final boolean lzma;
+
+    private final int matryoshkaType;
+
+    private final File matryoshka;
+
+    private final boolean mergeABC;
+
+    private final float quality;
+
+    private final boolean sortCPool;
+
+    private final boolean mergeCF;
+
+    public ReducerStage( float deblock, boolean lzma, String matryoshkaType, File matryoshka, boolean mergeABC,
+                         float quality, boolean sortCPool, boolean mergeCF )
+    {
+        this.deblock = deblock;
+        this.lzma = lzma;
+        this.matryoshkaType = toMatryoshkaType( matryoshkaType );
+        this.matryoshka = matryoshka;
+        this.mergeABC = mergeABC;
+        this.quality = quality;
+        this.sortCPool = sortCPool;
+        this.mergeCF = mergeCF;
+    }
+
+    private static int toMatryoshkaType( String matryoshkaType )
+    {
+        if ( "quiet".equalsIgnoreCase( matryoshkaType ) )
+        {
+            return MatryoshkaType.QUIET();
+        }
+        else if ( "preloader".equalsIgnoreCase( matryoshkaType ) )
+        {
+            return MatryoshkaType.PRELOADER();
+        }
+        else if ( "custom".equalsIgnoreCase( matryoshkaType ) )
+        {
+            return MatryoshkaType.CUSTOM();
+        }
+        else
+        {
+            return MatryoshkaType.NONE();
+        }
+    }
+
+    public String getName()
+    {
+        return "reducer";
+    }
+
+    @Override
+    public String toString()
+    {
+        return "reducer[deblock=" + deblock + ", lzma=" + lzma + ", matryoshkaType=" + matryoshkaType
+            + ", matryoshka=" + matryoshka + ", mergeABC=" + mergeABC + ", quality=" + quality + ", sortCPool="
+            + sortCPool + ", mergeCF=" + mergeCF + "]";
+    }
+
+    public void process( final File input, final File output )
+    {
+        ReducerTool s = new ReducerTool();
+        ReducerConfiguration cfg = new ReducerConfiguration()
+        {
+
+            public float deblock()
+            {
+                return deblock;
+            }
+
+            public File input()
+            {
+                return input;
+            }
+
+            public boolean lzma()
+            {
+                return lzma;
+            }
+
+            public int matryoshkaType()
+            {
+                return matryoshkaType;
+            }
+
+            @SuppressWarnings( "unchecked" )
+            public Option<File> matryoshka()
+            {
+                return ( null == matryoshka ) ? None$.MODULE$ : new Some( matryoshka );
+            }
+
+            public boolean mergeABC()
+            {
+                return mergeABC;
+            }
+
+            public File output()
+            {
+                return output;
+            }
+
+            public float quality()
+            {
+                return quality;
+            }
+
+            public boolean sortCPool()
+            {
+                return sortCPool;
+            }
+
+            public boolean mergeCF()
+            {
+                return mergeCF;
+            }
+        };
+        s.configure( cfg );
+        s.run();
+    }
+
+}
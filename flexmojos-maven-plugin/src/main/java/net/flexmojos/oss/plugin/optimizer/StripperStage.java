@@ -0,0 +1,63 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.optimizer;
+
+import java.io.File;
+
+import apparat.tools.stripper.Stripper.StripperTool;
+import apparat.tools.stripper.StripperConfiguration;
+
+/**
+ * Runs apparat stripper. A fresh {@link StripperTool} is created per SWF, so a single stage can be shared among every
+ * SWF a module produces.
+ */
+public class StripperStage
+    implements SwfOptimizationStage
+{
+
+    public String getName()
+    {
+        return "stripper";
+    }
+
+    @Override
+    public String toString()
+    {
+        return getName();
+    }
+
+    public void process( final File input, final File output )
+    {
+        StripperTool s = new StripperTool();
+        StripperConfiguration cfg = new StripperConfiguration()
+        {
+            public File input()
+            {
+                return input;
+            }
+
+            public File output()
+            {
+                return output;
+            }
+        };
+        s.configure( cfg );
+        s.run();
+    }
+
+}
@@ -0,0 +1,266 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.optimizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Chains {@link SwfOptimizationStage}s so a SWF is only written once per stage. The first stage reads the source SWF
+ * directly, intermediate results alternate between two scratch files and the last stage writes straight to the
+ * target, so no backup or final copy is needed.
+ * <p>
+ * A pipeline is immutable once built and holds no per SWF state, it can be shared by every SWF of a module and
+ * executed concurrently.
+ * </p>
+ */
+public class SwfOptimizationPipeline
+{
+
+    private final List<SwfOptimizationStage> stages;
+
+    public SwfOptimizationPipeline( List<SwfOptimizationStage> stages )
+    {
+        this.stages = Collections.unmodifiableList( new ArrayList<SwfOptimizationStage>( stages ) );
+    }
+
+    public List<SwfOptimizationStage> getStages()
+    {
+        return stages;
+    }
+
+    /**
+     * @param source SWF to optimize, never modified unless it is the same file as <code>target</code>
+     * @param target where the optimized SWF is placed
+     * @param workDirectory where the scratch files are created
+     */
+    public Result execute( File source, File target, File workDirectory )
+        throws MojoExecutionException, MojoFailureException
+    {
+        Result result = new Result( source.length() );
+
+        boolean inPlace = source.getAbsoluteFile().equals( target.getAbsoluteFile() );
+        if ( stages.isEmpty() )
+        {
+            if ( !inPlace )
+            {
+                copy( source, target );
+            }
+            result.finalSize = target.length();
+            return result;
+        }
+
+        File[] scratch = new File[2];
+        try
+        {
+            File input = source;
+            for ( int i = 0; i < stages.size(); i++ )
+            {
+                SwfOptimizationStage stage = stages.get( i );
+                boolean last = i == stages.size() - 1;
+
+                File output;
+                if ( last && !inPlace )
+                {
+                    output = target;
+                }
+                else
+                {
+                    int slot = i % 2;
+                    if ( scratch[slot] == null )
+                    {
+                        scratch[slot] = createScratchFile( workDirectory );
+                    }
+                    output = scratch[slot];
+                }
+
+                long start = System.currentTimeMillis();
+                stage.process( input, output );
+                result.stages.add( new StageMetric( stage.getName(), System.currentTimeMillis() - start,
+                                                    input.length(), output.length() ) );
+
+                input = output;
+            }
+
+            if ( !input.equals( target ) )
+            {
+                move( input, target );
+            }
+        }
+        finally
+        {
+            for ( File file : scratch )
+            {
+                if ( file != null )
+                {
+                    file.delete();
+                }
+            }
+        }
+
+        result.finalSize = target.length();
+        return result;
+    }
+
+    private static File createScratchFile( File workDirectory )
+        throws MojoExecutionException
+    {
+        try
+        {
+            workDirectory.mkdirs();
+            return File.createTempFile( "optimizer", ".swf", workDirectory );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to create optimizer scratch file on " + workDirectory, e );
+        }
+    }
+
+    private static void move( File from, File to )
+        throws MojoExecutionException
+    {
+        to.delete();
+        if ( !from.renameTo( to ) )
+        {
+            copy( from, to );
+        }
+    }
+
+    private static void copy( File from, File to )
+        throws MojoExecutionException
+    {
+        try
+        {
+            FileUtils.copyFile( from, to );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( e.getMessage(), e );
+        }
+    }
+
+    public static class Result
+    {
+        private final long originalSize;
+
+        private long finalSize;
+
+        private final List<StageMetric> stages = new ArrayList<StageMetric>();
+
+        Result( long originalSize )
+        {
+            this.originalSize = originalSize;
+        }
+
+        public long getOriginalSize()
+        {
+            return originalSize;
+        }
+
+        public long getFinalSize()
+        {
+            return finalSize;
+        }
+
+        public List<StageMetric> getStages()
+        {
+            return stages;
+        }
+
+        public double getRate()
+        {
+            return originalSize == 0 ? 100 : ( (double) finalSize / originalSize ) * 100;
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder();
+            // DecimalFormat is not thread-safe and results are printed from the workers
+            sb.append( new DecimalFormat( "#.##" ).format( getRate() ) ).append( '%' );
+            if ( !stages.isEmpty() )
+            {
+                sb.append( " (" );
+                for ( int i = 0; i < stages.size(); i++ )
+                {
+                    if ( i > 0 )
+                    {
+                        sb.append( ", " );
+                    }
+                    sb.append( stages.get( i ) );
+                }
+                sb.append( ')' );
+            }
+            return sb.toString();
+        }
+    }
+
+    public static class StageMetric
+    {
+        private final String name;
+
+        private final long time;
+
+        private final long inputSize;
+
+        private final long outputSize;
+
+        StageMetric( String name, long time, long inputSize, long outputSize )
+        {
+            this.name = name;
+            this.time = time;
+            this.inputSize = inputSize;
+            this.outputSize = outputSize;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public long getTime()
+        {
+            return time;
+        }
+
+        public long getInputSize()
+        {
+            return inputSize;
+        }
+
+        public long getOutputSize()
+        {
+            return outputSize;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + ": " + time + "ms " + inputSize + " -> " + outputSize + " bytes";
+        }
+    }
+
+}
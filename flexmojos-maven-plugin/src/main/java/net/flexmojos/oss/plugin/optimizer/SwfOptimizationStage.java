@@ -0,0 +1,40 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.optimizer;
+
+import java.io.File;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * A single step of the {@link SwfOptimizationPipeline}. Implementations must not keep any per SWF state, so the same
+ * instance can be reused for every SWF a module produces, even from several threads at once.
+ */
+public interface SwfOptimizationStage
+{
+
+    String getName();
+
+    /**
+     * Reads <code>input</code> and writes the processed SWF to <code>output</code>. Both files are always distinct.
+     */
+    void process( File input, File output )
+        throws MojoExecutionException, MojoFailureException;
+
+}
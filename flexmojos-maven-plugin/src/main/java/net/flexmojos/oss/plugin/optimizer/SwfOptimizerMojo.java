@@ -78,13 +78,19 @@ public class SwfOptimizerMojo
 
         File bkpOriginalFile = getOriginalSwfFile();
 
-        try
+        // when the optimized swf replaces the artifact file, moving is enough to keep the original one
+        boolean replaced = PathUtil.file( originalFile ).equals( PathUtil.file( getOutput() ) );
+        bkpOriginalFile.delete();
+        if ( !replaced || !originalFile.renameTo( bkpOriginalFile ) )
         {
-            FileUtils.copyFile( originalFile, bkpOriginalFile );
-        }
-        catch ( IOException e )
-        {
-            throw new MavenRuntimeException( "Unable to backup SWF file.", e );
+            try
+            {
+                FileUtils.copyFile( originalFile, bkpOriginalFile );
+            }
+            catch ( IOException e )
+            {
+                throw new MavenRuntimeException( "Unable to backup SWF file.", e );
+            }
         }
 
         getLog().debug( "attaching original swf" );
@@ -102,15 +108,4 @@ public class SwfOptimizerMojo
             new File( build.getDirectory(), build.getFinalName() + "-" + originalClassifierName + ".swf" );
         return bkpOriginalFile;
     }
-
-    @Override
-    protected File optimize( File input )
-        throws MojoFailureException, MojoExecutionException
-    {
-        getLog().debug( "Optimizing" );
-        final File output = new File( project.getBuild().getOutputDirectory(), "optimized.swf" );
-        optimize( input, output );
-
-        return output;
-    }
 }
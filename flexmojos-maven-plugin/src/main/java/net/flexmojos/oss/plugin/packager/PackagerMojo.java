@@ -9,13 +9,10 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 
+import net.flexmojos.oss.plugin.utilities.ReproducibleZip;
+
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.jar.JarOutputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 /**
  * This goal packages swf and swc artifacts. Usually this is not needed, but
@@ -55,6 +52,13 @@ public class PackagerMojo extends AbstractMojo
      */
     private Boolean debug;
 
+    /**
+     * Number of files compressed at the same time when zipping the FlexJS output.
+     *
+     * @parameter default-value="4" expression="${flex.packager.threads}"
+     */
+    private int packagerThreads;
+
     /**
      * @component
      * @readonly
@@ -76,9 +80,9 @@ public class PackagerMojo extends AbstractMojo
             try {
                 File sourceDir = new File(flexjsOutputDirectory,
                         debug ? "bin/js-debug" : "bin/js-release");
-                JarOutputStream jar = new JarOutputStream(new FileOutputStream(targetFile));
-                addFileToZip(jar, sourceDir, sourceDir);
-                jar.close();
+                // sorted entries with a fixed timestamp, so the same output always gives the same zip
+                int entries = ReproducibleZip.create(sourceDir, targetFile, packagerThreads);
+                getLog().debug("Zipped " + entries + " files from " + sourceDir + " into " + targetFile);
 
                 ArtifactHandler handler = handlerManager.getArtifactHandler("zip");
                 artifact = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(),
@@ -91,38 +95,4 @@ public class PackagerMojo extends AbstractMojo
         }
     }
 
-    private void addFileToZip(ZipOutputStream zipOutputStream, File inputFile, File rootDirectory) {
-        if (inputFile == null) {
-            return;
-        }
-
-        // If this is a directory, add all it's children.
-        if (inputFile.isDirectory()) {
-            final File directoryContent[] = inputFile.listFiles();
-            if (directoryContent != null) {
-                for (final File file : directoryContent) {
-                    addFileToZip(zipOutputStream, file, rootDirectory);
-                }
-            }
-        }
-        // If this is a file, add it to the zips output.
-        else {
-            byte[] buf = new byte[1024];
-            try {
-                final FileInputStream in = new FileInputStream(inputFile);
-                final String zipPath = inputFile.getAbsolutePath().substring(
-                        rootDirectory.getAbsolutePath().length() + 1).replace("\\", "/");
-                zipOutputStream.putNextEntry(new ZipEntry(zipPath));
-                int len;
-                while ((len = in.read(buf)) > 0) {
-                    zipOutputStream.write(buf, 0, len);
-                }
-                zipOutputStream.closeEntry();
-                in.close();
-            } catch(IOException e) {
-                throw new RuntimeException("Error adding files to zip.", e);
-            }
-        }
-    }
-
 }
@@ -20,9 +20,16 @@ package net.flexmojos.oss.plugin.test.scanners;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FilenameUtils;
@@ -33,7 +40,7 @@ import org.codehaus.plexus.util.FileUtils;
 public class AS3ContentFlexClassScanner
     extends AbstractFlexClassScanner
 {
-    private static final String COMMENTS_REGEX = "//.*|(\"(?:\\\\[^\"]|\\\\\"|.)*?\")|(?s)/\\*.*?\\*/";
+    private static final Map<String, Pattern> CLASS_PATTERNS = new ConcurrentHashMap<String, Pattern>();
 
     private ArrayList<String> sniplets;
 
@@ -42,20 +49,58 @@ public class AS3ContentFlexClassScanner
         classes = new ArrayList<String>();
         sniplets = new ArrayList<String>();
 
-        for ( File dir : directories )
+        ExecutorService executor = Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors() );
+        try
         {
-            List<String> found = scan( dir, exclusions, context );
-            destinateAs3Files( dir, found );
+            for ( File dir : directories )
+            {
+                List<String> found = scan( dir, exclusions, context );
+                destinateAs3Files( dir, found, executor );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
         }
     }
 
     protected void destinateAs3Files( File basedir, List<String> found )
     {
-        for ( String includedFile : found )
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            destinateAs3Files( basedir, found, executor );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the files concurrently but keeps them on the order they were found.
+     */
+    protected void destinateAs3Files( final File basedir, List<String> found, ExecutorService executor )
+    {
+        List<Future<Boolean>> results = new ArrayList<Future<Boolean>>( found.size() );
+        for ( final String includedFile : found )
         {
+            results.add( executor.submit( new Callable<Boolean>()
+            {
+                public Boolean call()
+                    throws IOException
+                {
+                    return isClassFile( includedFile, basedir );
+                }
+            } ) );
+        }
+
+        for ( int i = 0; i < found.size(); i++ )
+        {
+            String includedFile = found.get( i );
             try
             {
-                if ( isClassFile( includedFile, basedir ) )
+                if ( getResult( results.get( i ) ) )
                 {
                     classes.add( includedFile );
                 }
@@ -78,6 +123,32 @@ public class AS3ContentFlexClassScanner
         }
     }
 
+    private static boolean getResult( Future<Boolean> result )
+        throws IOException
+    {
+        try
+        {
+            return result.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException( e.getCause() );
+        }
+    }
+
     private boolean isClassFile( String pathname, File basedir )
         throws IOException
     {
@@ -85,16 +156,149 @@ public class AS3ContentFlexClassScanner
             return true;
 
         File file = new File( basedir, pathname );
-        String contents = FileUtils.fileRead( file );
-        contents = contents.replaceAll( COMMENTS_REGEX, "$1 " );
+        String contents = stripComments( FileUtils.fileRead( file ) );
 
         String className = FilenameUtils.getBaseName( file.getName() );
-        String matchRegex = "[\\s]*(class|interface)[\\s]+" + className + "[\\s]*";
+        Pattern pattern = CLASS_PATTERNS.get( className );
+        if ( pattern == null )
+        {
+            pattern = Pattern.compile( "[\\s]*(class|interface)[\\s]+" + className + "[\\s]*" );
+            CLASS_PATTERNS.put( className, pattern );
+        }
 
-        Pattern pattern = Pattern.compile( matchRegex );
-        Matcher matcher = pattern.matcher( contents );
+        return pattern.matcher( contents ).find();
+    }
+
+    /**
+     * Replaces every line comment and block comment by a single space, string literals are kept untouched (so
+     * comment markers inside them are ignored). Single pass equivalent of
+     * <code>contents.replaceAll( "//.*|(\"(?:\\\\[^\"]|\\\\\"|.)*?\")|(?s)/\\*.*?\\*&#47;", "$1 " )</code>.
+     */
+    static String stripComments( String contents )
+    {
+        int length = contents.length();
+        StringBuilder sb = new StringBuilder( length );
+        BitSet failedStrings = null;
+
+        int i = 0;
+        while ( i < length )
+        {
+            char c = contents.charAt( i );
+            if ( c == '/' && i + 1 < length && contents.charAt( i + 1 ) == '/' )
+            {
+                i += 2;
+                while ( i < length && !isLineTerminator( contents.charAt( i ) ) )
+                {
+                    i++;
+                }
+                sb.append( ' ' );
+                continue;
+            }
 
-        return matcher.find();
+            if ( c == '"' )
+            {
+                if ( failedStrings == null )
+                {
+                    failedStrings = new BitSet( length );
+                }
+                int end = stringEnd( contents, i + 1, failedStrings );
+                if ( end >= 0 )
+                {
+                    sb.append( contents, i, end ).append( ' ' );
+                    i = end;
+                    continue;
+                }
+            }
+
+            if ( c == '/' && i + 1 < length && contents.charAt( i + 1 ) == '*' )
+            {
+                int end = contents.indexOf( "*/", i + 2 );
+                if ( end >= 0 )
+                {
+                    sb.append( ' ' );
+                    i = end + 2;
+                    continue;
+                }
+            }
+
+            sb.append( c );
+            i++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * End (exclusive) of the string literal whose content starts at <code>start</code>, or -1 when the literal isn't
+     * closed. Follows the backtracking order of <code>(?:\\[^"]|\\"|.)*?"</code>: close on a quote, else
+     * consume an escape pair, else a single char other than a line terminator. Positions from where no closing quote
+     * can be reached are remembered on <code>failed</code>, so each one is explored once.
+     */
+    private static int stringEnd( String contents, int start, BitSet failed )
+    {
+        int length = contents.length();
+        // each frame is a position and the next alternative to try from it
+        int[] positions = new int[16];
+        int[] alternatives = new int[16];
+        int depth = 0;
+        positions[0] = start;
+        alternatives[0] = 0;
+
+        while ( depth >= 0 )
+        {
+            int pos = positions[depth];
+            int alternative = alternatives[depth]++;
+
+            int next = -1;
+            if ( alternative == 0 )
+            {
+                if ( pos < length && contents.charAt( pos ) == '"' )
+                {
+                    return pos + 1;
+                }
+                continue;
+            }
+            else if ( alternative == 1 )
+            {
+                // \\[^"] or \\" - both consume the backslash and the following char
+                if ( pos + 1 < length && contents.charAt( pos ) == '\\' )
+                {
+                    next = pos + 2;
+                }
+            }
+            else if ( alternative == 2 )
+            {
+                if ( pos < length && !isLineTerminator( contents.charAt( pos ) ) )
+                {
+                    next = pos + 1;
+                }
+            }
+            else
+            {
+                failed.set( pos );
+                depth--;
+                continue;
+            }
+
+            if ( next < 0 || failed.get( next ) )
+            {
+                continue;
+            }
+
+            depth++;
+            if ( depth == positions.length )
+            {
+                positions = Arrays.copyOf( positions, depth * 2 );
+                alternatives = Arrays.copyOf( alternatives, depth * 2 );
+            }
+            positions[depth] = next;
+            alternatives[depth] = 0;
+        }
+        return -1;
+    }
+
+    private static boolean isLineTerminator( char c )
+    {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 
     public List<String> getAs3Snippets()
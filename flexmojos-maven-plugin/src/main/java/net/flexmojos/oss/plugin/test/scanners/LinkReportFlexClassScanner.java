@@ -17,18 +17,26 @@
  */
 package net.flexmojos.oss.plugin.test.scanners;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.codehaus.plexus.component.annotations.Component;
-import org.dom4j.Attribute;
-import org.dom4j.Document;
-import org.dom4j.DocumentException;
-import org.dom4j.io.SAXReader;
+import org.codehaus.plexus.util.IOUtil;
 import net.flexmojos.oss.plugin.common.FlexClassifier;
 
 @Component( role = FlexClassScanner.class, hint = "link-report" )
@@ -36,49 +44,100 @@ public class LinkReportFlexClassScanner
     extends AbstractFlexClassScanner
 {
 
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
     public void scan( File[] directories, String[] exclusions, Map<String, Object> context )
     {
         classes = new ArrayList<String>();
 
+        Set<String> linkedFiles = null;
         for ( File dir : directories )
         {
             List<String> found = scan( dir, exclusions, context );
-            removeUnlinkedIncludedFiles( found, dir, (File) context.get( FlexClassifier.LINK_REPORT ) );
+            if ( linkedFiles == null )
+            {
+                linkedFiles = readLinkedFiles( (File) context.get( FlexClassifier.LINK_REPORT ) );
+            }
+            removeUnlinkedIncludedFiles( found, dir, linkedFiles );
             classes.addAll( found );
         }
     }
 
-    @SuppressWarnings( "unchecked" )
     protected void removeUnlinkedIncludedFiles( List<String> found, File basedir, File linkReport )
     {
-        List<String> linkedFiles = new ArrayList<String>();
-        SAXReader saxReader = new SAXReader();
-        Document document;
+        removeUnlinkedIncludedFiles( found, basedir, readLinkedFiles( linkReport ) );
+    }
+
+    protected void removeUnlinkedIncludedFiles( List<String> found, File basedir, Set<String> linkedFiles )
+    {
+        String baseDir = basedir.getAbsolutePath().concat( File.separator );
+        for ( Iterator<String> iterator = found.iterator(); iterator.hasNext(); )
+        {
+            String includedFile = iterator.next();
+            if ( !linkedFiles.contains( baseDir.concat( includedFile ) ) )
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Streams the link report collecting the name of every <code>script</code> element (same as the
+     * <code>//script/@name</code> xpath), without building the whole document in memory.
+     */
+    protected Set<String> readLinkedFiles( File linkReport )
+    {
+        Set<String> linkedFiles = new HashSet<String>();
+        InputStream in = null;
+        XMLStreamReader reader = null;
         try
         {
-            document = saxReader.read( linkReport );
+            in = new BufferedInputStream( new FileInputStream( linkReport ) );
+            reader = XML_INPUT_FACTORY.createXMLStreamReader( in );
+            while ( reader.hasNext() )
+            {
+                if ( reader.next() == XMLStreamConstants.START_ELEMENT && "script".equals( reader.getLocalName() )
+                    && isEmpty( reader.getNamespaceURI() ) )
+                {
+                    String name = reader.getAttributeValue( null, "name" );
+                    if ( name != null )
+                    {
+                        linkedFiles.add( name );
+                    }
+                }
+            }
         }
-        catch ( DocumentException e )
+        catch ( XMLStreamException e )
         {
             throw new IllegalStateException( "Error removing unlinked includes using link report '"
                 + linkReport.getAbsolutePath() + "'.", e );
         }
-
-        List<Attribute> list = document.selectNodes( "//script/@name" );
-        for ( Attribute attribute : list )
+        catch ( IOException e )
         {
-            linkedFiles.add( attribute.getValue() );
+            throw new IllegalStateException( "Error removing unlinked includes using link report '"
+                + linkReport.getAbsolutePath() + "'.", e );
         }
-
-        String baseDir = basedir.getAbsolutePath().concat( File.separator );
-        for ( Iterator<String> iterator = found.iterator(); iterator.hasNext(); )
+        finally
         {
-            String includedFile = iterator.next();
-            if ( !linkedFiles.contains( baseDir.concat( includedFile ) ) )
+            if ( reader != null )
             {
-                iterator.remove();
+                try
+                {
+                    reader.close();
+                }
+                catch ( XMLStreamException e )
+                {
+                    // ignore
+                }
             }
+            IOUtil.close( in );
         }
+        return linkedFiles;
+    }
+
+    private static boolean isEmpty( String namespace )
+    {
+        return namespace == null || namespace.length() == 0;
     }
 
     public List<String> getAs3Snippets()
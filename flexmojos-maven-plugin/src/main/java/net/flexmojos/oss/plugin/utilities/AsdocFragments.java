@@ -0,0 +1,131 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Keeps track of the asdoc fragments produced by the modules of a reactor, so the module that finishes last can merge
+ * them. Stored on the repository session data, shared by every (cloned) session of a parallel reactor.
+ */
+public class AsdocFragments
+{
+
+    private static final String KEY = AsdocFragments.class.getName();
+
+    /**
+     * project id to fragment, in reactor order; null until the project is documented
+     */
+    private final Map<String, File> fragments = new LinkedHashMap<String, File>();
+
+    private final Map<String, Boolean> done = new LinkedHashMap<String, Boolean>();
+
+    private AsdocFragments( List<MavenProject> projects )
+    {
+        for ( MavenProject project : projects )
+        {
+            fragments.put( project.getId(), null );
+            done.put( project.getId(), Boolean.FALSE );
+        }
+    }
+
+    /**
+     * @param projects the reactor projects expected to produce a fragment, only used by the first call of the build
+     */
+    public static AsdocFragments get( MavenSession session, List<MavenProject> projects )
+    {
+        SessionData data = session.getRepositorySession().getData();
+        while ( true )
+        {
+            AsdocFragments fragments = (AsdocFragments) data.get( KEY );
+            if ( fragments != null )
+            {
+                return fragments;
+            }
+            data.set( KEY, null, new AsdocFragments( projects ) );
+        }
+    }
+
+    /**
+     * @return the fragments of the build, null if no module documented its fragment yet
+     */
+    public static AsdocFragments find( MavenSession session )
+    {
+        return (AsdocFragments) session.getRepositorySession().getData().get( KEY );
+    }
+
+    /**
+     * Records the fragment of a project.
+     * 
+     * @param fragment the <code>tempdita</code> directory, null if the project had nothing to document
+     * @return true if that was the last project the reactor was waiting for, only once per build
+     */
+    public synchronized boolean done( MavenProject project, File fragment )
+    {
+        if ( !Boolean.FALSE.equals( done.get( project.getId() ) ) )
+        {
+            return false;
+        }
+
+        fragments.put( project.getId(), fragment );
+        done.put( project.getId(), Boolean.TRUE );
+
+        return !done.containsValue( Boolean.FALSE );
+    }
+
+    /**
+     * @return the fragments recorded so far, in reactor order
+     */
+    public synchronized List<File> getFragments()
+    {
+        List<File> files = new ArrayList<File>();
+        for ( File fragment : fragments.values() )
+        {
+            if ( fragment != null )
+            {
+                files.add( fragment );
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return ids of the projects not documented yet
+     */
+    public synchronized List<String> getPending()
+    {
+        List<String> pending = new ArrayList<String>();
+        for ( Map.Entry<String, Boolean> entry : done.entrySet() )
+        {
+            if ( !entry.getValue() )
+            {
+                pending.add( entry.getKey() );
+            }
+        }
+        return pending;
+    }
+
+}
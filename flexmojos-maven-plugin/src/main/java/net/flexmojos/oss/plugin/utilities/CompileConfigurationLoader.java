@@ -17,9 +17,17 @@
  */
 package net.flexmojos.oss.plugin.utilities;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.PluginExecution;
 import org.apache.maven.project.MavenProject;
@@ -27,12 +35,23 @@ import org.codehaus.plexus.util.xml.Xpp3Dom;
 
 /**
  * TODO delete when this issue is done http://jira.codehaus.org/browse/MECLIPSE-417
+ * <p>
+ * The flexmojos configuration of a project is indexed the first time one of its options is looked up. The index is
+ * kept for as long as the project model is alive, which is the build that loaded it, so the plugins, plugin
+ * management and executions are only walked once no matter how many options or dependencies are looked up.
+ * </p>
  * 
  * @author velo
  */
 public class CompileConfigurationLoader
 {
 
+    /**
+     * Keyed on the model identity, <code>MavenProject.equals</code> only compares coordinates
+     */
+    private static final Map<Model, Map<String, Xpp3Dom>> INDEXES =
+        Collections.synchronizedMap( new WeakHashMap<Model, Map<String, Xpp3Dom>>() );
+
     public static String getCompilerPluginSetting( MavenProject project, String optionName )
     {
         Xpp3Dom value = getCompilerPluginConfiguration( project, optionName );
@@ -43,63 +62,92 @@ public class CompileConfigurationLoader
         return value.getValue();
     }
 
-    @SuppressWarnings( "unchecked" )
     public static Xpp3Dom getCompilerPluginConfiguration( MavenProject project, String optionName )
     {
-        Xpp3Dom value = findCompilerPluginSettingInPlugins( project.getModel().getBuild().getPlugins(), optionName );
-        if ( value == null && project.getModel().getBuild().getPluginManagement() != null )
+        return getIndex( project.getModel() ).get( optionName );
+    }
+
+    private static Map<String, Xpp3Dom> getIndex( Model model )
+    {
+        Map<String, Xpp3Dom> index = INDEXES.get( model );
+        if ( index == null )
         {
-            value =
-                findCompilerPluginSettingInPlugins( project.getModel().getBuild().getPluginManagement().getPlugins(),
-                                                    optionName );
+            // two threads may index the same model, both get the same answers
+            index = createIndex( model.getBuild() );
+            INDEXES.put( model, index );
         }
-        return value;
+        return index;
     }
 
     /**
-     * Returns a compiler plugin settings from a list of plugins .
-     * 
-     * @param project maven project
-     * @return option value (may be null)
+     * Options set on the build plugins win over the ones on plugin management.
      */
-    @SuppressWarnings( "unchecked" )
-    private static Xpp3Dom findCompilerPluginSettingInPlugins( List<Plugin> plugins, String optionName )
+    private static Map<String, Xpp3Dom> createIndex( Build build )
     {
+        Map<String, Xpp3Dom> index = new HashMap<String, Xpp3Dom>();
+        if ( build == null )
+        {
+            return index;
+        }
 
-        for ( Iterator<Plugin> it = plugins.iterator(); it.hasNext(); )
+        if ( build.getPluginManagement() != null )
         {
-            Plugin plugin = (Plugin) it.next();
+            index.putAll( findCompilerPluginSettingsInPlugins( build.getPluginManagement().getPlugins() ) );
+        }
+        index.putAll( findCompilerPluginSettingsInPlugins( build.getPlugins() ) );
+        return index;
+    }
 
+    /**
+     * Returns the compiler plugin settings from a list of plugins, the first flexmojos plugin only. An option set on
+     * an execution overrides the plugin one, the last execution winning.
+     * 
+     * @return options with a value
+     */
+    private static Map<String, Xpp3Dom> findCompilerPluginSettingsInPlugins( List<Plugin> plugins )
+    {
+        for ( Plugin plugin : plugins )
+        {
             if ( plugin.getArtifactId().equals( "flexmojos-maven-plugin" ) )
             {
-                Xpp3Dom o = (Xpp3Dom) plugin.getConfiguration();
-
-                Xpp3Dom value = null;
+                List<Xpp3Dom> configurations = new ArrayList<Xpp3Dom>();
                 // this is the default setting
-                if ( o != null && o.getChild( optionName ) != null )
-                {
-                    value = o.getChild( optionName );
-                }
-
-                List<PluginExecution> executions = plugin.getExecutions();
+                configurations.add( (Xpp3Dom) plugin.getConfiguration() );
 
                 // a different source/target version can be configured for test
                 // sources compilation
-                for ( Iterator<PluginExecution> iter = executions.iterator(); iter.hasNext(); )
+                for ( PluginExecution execution : plugin.getExecutions() )
                 {
-                    PluginExecution execution = (PluginExecution) iter.next();
-                    o = (Xpp3Dom) execution.getConfiguration();
+                    configurations.add( (Xpp3Dom) execution.getConfiguration() );
+                }
 
-                    if ( o != null && o.getChild( optionName ) != null )
+                Set<String> optionNames = new LinkedHashSet<String>();
+                for ( Xpp3Dom configuration : configurations )
+                {
+                    if ( configuration != null )
                     {
-                        value = o.getChild( optionName );
+                        for ( Xpp3Dom option : configuration.getChildren() )
+                        {
+                            optionNames.add( option.getName() );
+                        }
                     }
                 }
 
-                return value;
+                Map<String, Xpp3Dom> settings = new HashMap<String, Xpp3Dom>();
+                for ( String optionName : optionNames )
+                {
+                    for ( Xpp3Dom configuration : configurations )
+                    {
+                        if ( configuration != null && configuration.getChild( optionName ) != null )
+                        {
+                            settings.put( optionName, configuration.getChild( optionName ) );
+                        }
+                    }
+                }
+                return settings;
             }
         }
-        return null;
+        return Collections.emptyMap();
     }
 
     public static String[] getCompilerPluginSettings( MavenProject project, String optionName )
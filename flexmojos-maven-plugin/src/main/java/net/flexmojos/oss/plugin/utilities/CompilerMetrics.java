@@ -0,0 +1,365 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import net.flexmojos.oss.compiler.command.Result;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.IOUtil;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Collects the timings of every flex compiler invocation of the build (main SWF/SWC, runtime locales, modules, asdoc,
+ * digest and optimizer) and writes them as JSON and CSV. Each project gets a report on its build directory, written
+ * when a goal of the project is done compiling, and the top level project gets one for the whole reactor, written
+ * when the session ends. Recording only appends to memory, files are always written outside the lock. Stored on the
+ * repository session data, shared by every (cloned) session of a parallel reactor.
+ */
+public class CompilerMetrics
+{
+
+    public static final String REPORT_NAME = "compiler-metrics";
+
+    public static final String REACTOR_REPORT_NAME = "reactor-compiler-metrics";
+
+    private static final String KEY = CompilerMetrics.class.getName();
+
+    private final List<Invocation> invocations = new ArrayList<Invocation>();
+
+    /**
+     * Build directories of the projects with invocations not on their report yet
+     */
+    private final Set<String> unreported = new HashSet<String>();
+
+    public static CompilerMetrics get( MavenSession session )
+    {
+        SessionData data = session.getRepositorySession().getData();
+        while ( true )
+        {
+            CompilerMetrics metrics = (CompilerMetrics) data.get( KEY );
+            if ( metrics != null )
+            {
+                return metrics;
+            }
+            data.set( KEY, null, new CompilerMetrics() );
+        }
+    }
+
+    /**
+     * Records a finished compiler invocation, nothing is written until {@link #writeProjectReport(MavenProject)}
+     */
+    public void record( MavenProject project, String classifier, Result result, int exitCode )
+    {
+        Invocation invocation =
+            new Invocation( project.getId(), project.getBuild().getDirectory(), result.getTool(), classifier,
+                            result.getStartTime(), result.getDuration(), exitCode, result.getPhases() );
+        synchronized ( invocations )
+        {
+            invocations.add( invocation );
+            unreported.add( invocation.buildDirectory );
+        }
+    }
+
+    public List<Invocation> getInvocations()
+    {
+        synchronized ( invocations )
+        {
+            return Collections.unmodifiableList( new ArrayList<Invocation>( invocations ) );
+        }
+    }
+
+    /**
+     * Writes the report of the project, unless none of its invocations was recorded since the last one.
+     */
+    public void writeProjectReport( MavenProject project )
+        throws IOException
+    {
+        String buildDirectory = project.getBuild().getDirectory();
+        List<Invocation> projectInvocations = new ArrayList<Invocation>();
+        synchronized ( invocations )
+        {
+            if ( !unreported.remove( buildDirectory ) )
+            {
+                return;
+            }
+            for ( Invocation i : invocations )
+            {
+                if ( i.buildDirectory.equals( buildDirectory ) )
+                {
+                    projectInvocations.add( i );
+                }
+            }
+        }
+        write( projectInvocations, new File( buildDirectory, "flexmojos" ), REPORT_NAME );
+    }
+
+    /**
+     * Writes the report of every invocation of the session on the top level project.
+     */
+    public void writeReactorReport( MavenSession session )
+        throws IOException
+    {
+        MavenProject topLevel = session.getTopLevelProject();
+        List<Invocation> all = getInvocations();
+        if ( topLevel == null || all.isEmpty() )
+        {
+            return;
+        }
+        write( all, new File( topLevel.getBuild().getDirectory(), "flexmojos" ), REACTOR_REPORT_NAME );
+    }
+
+    private static void write( List<Invocation> invocations, File dir, String name )
+        throws IOException
+    {
+        dir.mkdirs();
+        write( new File( dir, name + ".json" ), toJson( invocations ) );
+        write( new File( dir, name + ".csv" ), toCsv( invocations ) );
+    }
+
+    private static void write( File file, String content )
+        throws IOException
+    {
+        Writer writer = new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" );
+        try
+        {
+            writer.write( content );
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+    }
+
+    static String toJson( List<Invocation> invocations )
+    {
+        Map<String, long[]> totals = new LinkedHashMap<String, long[]>();
+
+        StringBuilder sb = new StringBuilder( "{\n  \"invocations\": [" );
+        for ( Iterator<Invocation> it = invocations.iterator(); it.hasNext(); )
+        {
+            Invocation i = it.next();
+            sb.append( "\n    {\"project\": " ).append( quote( i.project ) );
+            sb.append( ", \"tool\": " ).append( quote( i.tool ) );
+            sb.append( ", \"classifier\": " ).append( quote( i.classifier ) );
+            sb.append( ", \"start\": " ).append( i.start );
+            sb.append( ", \"duration\": " ).append( i.duration );
+            sb.append( ", \"exitCode\": " ).append( i.exitCode );
+            sb.append( ", \"phases\": {" );
+            for ( Iterator<Entry<String, Long>> phases = i.phases.entrySet().iterator(); phases.hasNext(); )
+            {
+                Entry<String, Long> phase = phases.next();
+                sb.append( quote( phase.getKey() ) ).append( ": " ).append( phase.getValue() );
+                if ( phases.hasNext() )
+                {
+                    sb.append( ", " );
+                }
+            }
+            sb.append( "}}" );
+            if ( it.hasNext() )
+            {
+                sb.append( ',' );
+            }
+
+            long[] total = totals.get( i.tool );
+            if ( total == null )
+            {
+                total = new long[2];
+                totals.put( i.tool, total );
+            }
+            total[0]++;
+            total[1] += i.duration;
+        }
+        sb.append( "\n  ],\n  \"totals\": {" );
+        for ( Iterator<Entry<String, long[]>> it = totals.entrySet().iterator(); it.hasNext(); )
+        {
+            Entry<String, long[]> total = it.next();
+            sb.append( "\n    " ).append( quote( total.getKey() ) );
+            sb.append( ": {\"count\": " ).append( total.getValue()[0] );
+            sb.append( ", \"duration\": " ).append( total.getValue()[1] ).append( '}' );
+            if ( it.hasNext() )
+            {
+                sb.append( ',' );
+            }
+        }
+        sb.append( "\n  }\n}\n" );
+        return sb.toString();
+    }
+
+    /**
+     * One row per phase, plus a <code>total</code> row per invocation.
+     */
+    static String toCsv( List<Invocation> invocations )
+    {
+        StringBuilder sb = new StringBuilder( "project,tool,classifier,start,exitCode,phase,duration\n" );
+        for ( Invocation i : invocations )
+        {
+            for ( Entry<String, Long> phase : i.phases.entrySet() )
+            {
+                csvRow( sb, i, phase.getKey(), phase.getValue() );
+            }
+            csvRow( sb, i, "total", i.duration );
+        }
+        return sb.toString();
+    }
+
+    private static void csvRow( StringBuilder sb, Invocation i, String phase, long duration )
+    {
+        sb.append( csv( i.project ) ).append( ',' ).append( csv( i.tool ) ).append( ',' ).append( csv( i.classifier ) );
+        sb.append( ',' ).append( i.start ).append( ',' ).append( i.exitCode ).append( ',' ).append( csv( phase ) );
+        sb.append( ',' ).append( duration ).append( '\n' );
+    }
+
+    private static String csv( String value )
+    {
+        if ( value == null )
+        {
+            return "";
+        }
+        if ( value.indexOf( ',' ) < 0 && value.indexOf( '"' ) < 0 && value.indexOf( '\n' ) < 0 )
+        {
+            return value;
+        }
+        return '"' + value.replace( "\"", "\"\"" ) + '"';
+    }
+
+    private static String quote( String value )
+    {
+        if ( value == null )
+        {
+            return "null";
+        }
+
+        StringBuilder sb = new StringBuilder( value.length() + 2 ).append( '"' );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            switch ( c )
+            {
+                case '"':
+                    sb.append( "\\\"" );
+                    break;
+                case '\\':
+                    sb.append( "\\\\" );
+                    break;
+                case '\n':
+                    sb.append( "\\n" );
+                    break;
+                case '\r':
+                    sb.append( "\\r" );
+                    break;
+                case '\t':
+                    sb.append( "\\t" );
+                    break;
+                default:
+                    if ( c < 0x20 )
+                    {
+                        sb.append( String.format( "\\u%04x", (int) c ) );
+                    }
+                    else
+                    {
+                        sb.append( c );
+                    }
+            }
+        }
+        return sb.append( '"' ).toString();
+    }
+
+    public static class Invocation
+    {
+        private final String project;
+
+        private final String buildDirectory;
+
+        private final String tool;
+
+        private final String classifier;
+
+        private final long start;
+
+        private final long duration;
+
+        private final int exitCode;
+
+        private final Map<String, Long> phases;
+
+        public Invocation( String project, String buildDirectory, String tool, String classifier, long start,
+                           long duration, int exitCode, Map<String, Long> phases )
+        {
+            this.project = project;
+            this.buildDirectory = buildDirectory;
+            this.tool = tool;
+            this.classifier = classifier;
+            this.start = start;
+            this.duration = duration;
+            this.exitCode = exitCode;
+            this.phases = phases;
+        }
+
+        public String getProject()
+        {
+            return project;
+        }
+
+        public String getTool()
+        {
+            return tool;
+        }
+
+        public String getClassifier()
+        {
+            return classifier;
+        }
+
+        public long getStart()
+        {
+            return start;
+        }
+
+        public long getDuration()
+        {
+            return duration;
+        }
+
+        public int getExitCode()
+        {
+            return exitCode;
+        }
+
+        public Map<String, Long> getPhases()
+        {
+            return phases;
+        }
+    }
+
+}
@@ -0,0 +1,279 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Merges the intermediate DITA XML (the <code>tempdita</code> directory left by asdoc with <code>-keep-xml</code>
+ * and <code>-skip-xsl</code>) of several modules into a single documentation set.
+ * <p>
+ * A file found on a single fragment is copied as is. When several fragments have the same XML file (a package spread
+ * over more than one module, or the <code>packages.dita</code> map) the top level elements with an <code>id</code>
+ * (or <code>href</code>) of all of them are merged, sorted by that key like asdoc does, the first fragment winning
+ * when two modules document the same element. Elements without a key (names, descriptions, configuration) are only
+ * taken from the first fragment, so the result does not depend on which module finished first.
+ * </p>
+ */
+public class DitaFragmentMerger
+{
+
+    private static final Set<String> XML_EXTENSIONS = new HashSet<String>( Arrays.asList( "xml", "dita", "ditamap" ) );
+
+    private DitaFragmentMerger()
+    {
+    }
+
+    /**
+     * @param fragments <code>tempdita</code> directories, missing ones are ignored
+     * @param target directory the merged documentation is written to
+     * @return number of files written
+     */
+    public static int merge( List<File> fragments, File target )
+        throws IOException
+    {
+        Map<String, List<File>> files = new TreeMap<String, List<File>>();
+        for ( File fragment : fragments )
+        {
+            collect( fragment, "", files );
+        }
+
+        for ( Map.Entry<String, List<File>> entry : files.entrySet() )
+        {
+            File destination = new File( target, entry.getKey() );
+            destination.getParentFile().mkdirs();
+
+            List<File> sources = entry.getValue();
+            if ( sources.size() == 1 || !XML_EXTENSIONS.contains( FileUtils.getExtension( entry.getKey() ) ) )
+            {
+                FileUtils.copyFile( sources.get( 0 ), destination );
+            }
+            else
+            {
+                write( mergeDocuments( sources ), destination );
+            }
+        }
+
+        return files.size();
+    }
+
+    private static void collect( File dir, String prefix, Map<String, List<File>> files )
+    {
+        String[] children = dir.list();
+        if ( children == null )
+        {
+            return;
+        }
+
+        for ( String child : children )
+        {
+            File file = new File( dir, child );
+            if ( file.isDirectory() )
+            {
+                collect( file, prefix + child + "/", files );
+            }
+            else
+            {
+                List<File> sources = files.get( prefix + child );
+                if ( sources == null )
+                {
+                    sources = new ArrayList<File>();
+                    files.put( prefix + child, sources );
+                }
+                sources.add( file );
+            }
+        }
+    }
+
+    static Document mergeDocuments( List<File> sources )
+        throws IOException
+    {
+        DocumentBuilder builder = newDocumentBuilder();
+
+        Document merged = parse( builder, sources.get( 0 ) );
+        Element root = merged.getDocumentElement();
+
+        // keyed elements go back where the first one was, unkeyed siblings around them keep their place
+        Node position = null;
+        Map<String, Node> keyed = new TreeMap<String, Node>();
+        for ( Element child : children( root ) )
+        {
+            String key = key( child );
+            if ( key == null )
+            {
+                continue;
+            }
+            if ( position == null )
+            {
+                position = merged.createTextNode( "" );
+                root.insertBefore( position, child );
+            }
+            keyed.put( key, root.removeChild( child ) );
+        }
+
+        for ( File source : sources.subList( 1, sources.size() ) )
+        {
+            Element other = parse( builder, source ).getDocumentElement();
+            if ( !root.getTagName().equals( other.getTagName() ) )
+            {
+                throw new IOException( "Unable to merge " + source + ", expected <" + root.getTagName()
+                    + "> but found <" + other.getTagName() + ">" );
+            }
+
+            for ( Element child : children( other ) )
+            {
+                String key = key( child );
+                if ( key != null && !keyed.containsKey( key ) )
+                {
+                    keyed.put( key, merged.importNode( child, true ) );
+                }
+            }
+        }
+
+        for ( Node child : keyed.values() )
+        {
+            root.insertBefore( child, position );
+        }
+        if ( position != null )
+        {
+            root.removeChild( position );
+        }
+
+        return merged;
+    }
+
+    private static String key( Element element )
+    {
+        if ( element.hasAttribute( "id" ) )
+        {
+            return element.getTagName() + "#" + element.getAttribute( "id" );
+        }
+        if ( element.hasAttribute( "href" ) )
+        {
+            // without the extension, so com.acme.xml sorts before com.acme.ui.xml as the packages do
+            return element.getTagName() + "@" + FileUtils.removeExtension( element.getAttribute( "href" ) );
+        }
+        return null;
+    }
+
+    private static List<Element> children( Element parent )
+    {
+        List<Element> elements = new ArrayList<Element>();
+        NodeList nodes = parent.getChildNodes();
+        for ( int i = 0; i < nodes.getLength(); i++ )
+        {
+            if ( nodes.item( i ).getNodeType() == Node.ELEMENT_NODE )
+            {
+                elements.add( (Element) nodes.item( i ) );
+            }
+        }
+        return elements;
+    }
+
+    private static DocumentBuilder newDocumentBuilder()
+        throws IOException
+    {
+        try
+        {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setValidating( false );
+            // asdoc references the DITA DTDs, which are neither shipped with the fragments nor needed to merge them
+            factory.setFeature( "http://apache.org/xml/features/nonvalidating/load-external-dtd", false );
+            return factory.newDocumentBuilder();
+        }
+        catch ( ParserConfigurationException e )
+        {
+            throw new IOException( "Unable to create XML parser", e );
+        }
+    }
+
+    private static Document parse( DocumentBuilder builder, File file )
+        throws IOException
+    {
+        try
+        {
+            return builder.parse( file );
+        }
+        catch ( SAXException e )
+        {
+            throw new IOException( "Unable to parse " + file, e );
+        }
+    }
+
+    private static void write( Document document, File destination )
+        throws IOException
+    {
+        OutputStream out = new FileOutputStream( destination );
+        try
+        {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty( OutputKeys.ENCODING, "UTF-8" );
+            DocumentType doctype = document.getDoctype();
+            if ( doctype != null )
+            {
+                if ( doctype.getPublicId() != null )
+                {
+                    transformer.setOutputProperty( OutputKeys.DOCTYPE_PUBLIC, doctype.getPublicId() );
+                }
+                if ( doctype.getSystemId() != null )
+                {
+                    transformer.setOutputProperty( OutputKeys.DOCTYPE_SYSTEM, doctype.getSystemId() );
+                }
+            }
+            transformer.transform( new DOMSource( document ), new StreamResult( out ) );
+        }
+        catch ( TransformerException e )
+        {
+            throw new IOException( "Unable to write " + destination, e );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.apache.commons.codec.binary.Hex;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Cheap digest over the inputs of a goal, used to tell if a previous output is still up to date. Files are not read,
+ * only their relative path, size and modification time are digested (directories are walked in sorted order), so
+ * computing a fingerprint over a large source tree costs about the same as listing it.
+ */
+public class InputFingerprint
+{
+
+    private final MessageDigest digest;
+
+    public InputFingerprint()
+    {
+        try
+        {
+            digest = MessageDigest.getInstance( "MD5" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    public InputFingerprint add( String name, Object value )
+    {
+        update( name );
+        update( value == null ? "<null>" : value.toString() );
+        return this;
+    }
+
+    public InputFingerprint addFiles( String name, File... files )
+    {
+        update( name );
+        if ( files == null )
+        {
+            update( "<null>" );
+            return this;
+        }
+
+        for ( File file : files )
+        {
+            if ( file == null )
+            {
+                update( "<null>" );
+                continue;
+            }
+            update( file.getAbsolutePath() );
+            addFile( file, "" );
+        }
+        return this;
+    }
+
+    private void addFile( File file, String relativePath )
+    {
+        if ( file.isDirectory() )
+        {
+            update( relativePath + "/" );
+            String[] children = file.list();
+            if ( children == null )
+            {
+                return;
+            }
+            Arrays.sort( children );
+            for ( String child : children )
+            {
+                addFile( new File( file, child ), relativePath + "/" + child );
+            }
+        }
+        else if ( file.isFile() )
+        {
+            update( relativePath + ":" + file.length() + ":" + file.lastModified() );
+        }
+        else
+        {
+            update( relativePath + ":<missing>" );
+        }
+    }
+
+    private void update( String value )
+    {
+        try
+        {
+            digest.update( value.getBytes( "UTF-8" ) );
+            digest.update( (byte) 0 );
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * @return the hex digest of everything added so far, the fingerprint can not be used after this call
+     */
+    public String get()
+    {
+        return new String( Hex.encodeHex( digest.digest() ) );
+    }
+
+    /**
+     * @return the fingerprint stored on <code>file</code> or null if there is none
+     */
+    public static String read( File file )
+    {
+        if ( !file.isFile() )
+        {
+            return null;
+        }
+
+        try
+        {
+            return FileUtils.fileRead( file, "UTF-8" ).trim();
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Stores <code>fingerprint</code> on <code>file</code>, through a temporary file so a killed build never leaves a
+     * partial fingerprint behind.
+     */
+    public static void write( File file, String fingerprint )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        File tmp = new File( file.getParentFile(), file.getName() + "." + Thread.currentThread().getId() + ".tmp" );
+        FileOutputStream out = new FileOutputStream( tmp );
+        try
+        {
+            out.write( fingerprint.getBytes( "UTF-8" ) );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+        file.delete();
+        if ( !tmp.renameTo( file ) )
+        {
+            tmp.delete();
+            throw new IOException( "Unable to write " + file );
+        }
+    }
+
+}
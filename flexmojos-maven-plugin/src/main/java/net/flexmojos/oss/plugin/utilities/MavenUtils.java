@@ -304,23 +304,7 @@ public class MavenUtils
             return null;
         }
 
-        if ( contextRoot == null || "".equals( contextRoot ) )
-        {
-            baseUrl = baseUrl.replace( "{contextRoot}/", "" );
-        }
-        else
-        {
-            baseUrl = baseUrl.replace( "{contextRoot}", contextRoot );
-        }
-
-        baseUrl = replaceArtifactCoordinatesTokens( baseUrl, artifact );
-
-        if ( extension != null )
-        {
-            baseUrl = baseUrl.replace( "{extension}", extension );
-        }
-
-        return baseUrl;
+        return RslUrlTemplate.compile( baseUrl ).interpolate( artifact, extension, contextRoot );
     }
 
     public static String getRuntimeLocaleOutputPath( String sample, Artifact artifact, String locale, String extension )
@@ -0,0 +1,267 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import net.flexmojos.oss.plugin.utilities.ZipAppender.Deflated;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Zips the files of a directory so the same content always gives the same archive: entries are sorted by name, every
+ * entry has the same timestamp and names are built from the file names below the directory, never from absolute
+ * paths, so they are the same when the directory is reached through a symlink. Directories are not added as entries.
+ * <p>
+ * Files are deflated in parallel and written in order as soon as they are ready, only a few files ahead of the writer
+ * are kept in memory. Archives that would need zip64 are written sequentially by <code>java.util.zip</code>.
+ * </p>
+ */
+public final class ReproducibleZip
+{
+
+    /**
+     * 1980-01-01 00:00:00, the first date MS-DOS time can hold
+     */
+    private static final int[] DOS_TIME = { 0, ( 1 << 5 ) | 1 };
+
+    private static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private ReproducibleZip()
+    {
+    }
+
+    /**
+     * @param directory files to zip
+     * @param zip archive to create, replaced atomically if it already exists
+     * @param threads number of files deflated at the same time
+     * @return number of entries written
+     */
+    public static int create( File directory, File zip, int threads )
+        throws IOException
+    {
+        Map<String, File> files = new TreeMap<String, File>();
+        collect( directory, "", files, new HashSet<File>() );
+
+        long length = 0;
+        for ( File file : files.values() )
+        {
+            length += file.length();
+        }
+
+        zip.getAbsoluteFile().getParentFile().mkdirs();
+        File temp = File.createTempFile( zip.getName(), ".tmp", zip.getAbsoluteFile().getParentFile() );
+        try
+        {
+            if ( files.size() >= 0xFFFF || length >= 0xFFFFFFFFL )
+            {
+                stream( files, temp );
+            }
+            else
+            {
+                write( files, temp, Math.max( 1, threads ) );
+            }
+            ZipAppender.replace( temp, zip );
+        }
+        finally
+        {
+            temp.delete();
+        }
+        return files.size();
+    }
+
+    /**
+     * @param parents canonical directories from the root to <code>directory</code>, a symlink back to one of them is
+     *            skipped instead of followed forever
+     */
+    private static void collect( File directory, String prefix, Map<String, File> files, Set<File> parents )
+        throws IOException
+    {
+        File canonical = directory.getCanonicalFile();
+        if ( !parents.add( canonical ) )
+        {
+            return;
+        }
+
+        File[] children = directory.listFiles();
+        if ( children != null )
+        {
+            for ( File child : children )
+            {
+                String name = prefix + child.getName();
+                if ( child.isDirectory() )
+                {
+                    collect( child, name + "/", files, parents );
+                }
+                else if ( child.isFile() )
+                {
+                    files.put( name, child );
+                }
+            }
+        }
+
+        parents.remove( canonical );
+    }
+
+    private static void write( Map<String, File> files, File temp, int threads )
+        throws IOException
+    {
+        List<File> pending = new ArrayList<File>( files.values() );
+        LinkedList<Future<Deflated>> deflating = new LinkedList<Future<Deflated>>();
+        int window = threads * 4;
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        OutputStream out = new BufferedOutputStream( new FileOutputStream( temp ), BUFFER_SIZE );
+        try
+        {
+            ByteArrayOutputStream central = new ByteArrayOutputStream();
+            long position = 0;
+            int next = 0;
+            for ( String entry : files.keySet() )
+            {
+                while ( next < pending.size() && deflating.size() < window )
+                {
+                    final File file = pending.get( next++ );
+                    deflating.add( executor.submit( new Callable<Deflated>()
+                    {
+                        public Deflated call()
+                            throws IOException
+                        {
+                            return Deflated.of( file );
+                        }
+                    } ) );
+                }
+
+                Deflated data = get( deflating.removeFirst() );
+                byte[] name = entry.getBytes( UTF8 );
+
+                byte[] local = ZipAppender.localHeader( name, DOS_TIME, data );
+                out.write( local );
+                out.write( data.bytes );
+                central.write( ZipAppender.centralHeader( name, DOS_TIME, data, position ) );
+
+                position += local.length + data.bytes.length;
+                if ( position > 0xFFFFFFFFL )
+                {
+                    throw new ZipException( "Archive too large: " + temp );
+                }
+            }
+
+            central.writeTo( out );
+            out.write( ZipAppender.endOfCentralDirectory( files.size(), central.size(), position, new byte[0] ) );
+            out.flush();
+        }
+        finally
+        {
+            executor.shutdownNow();
+            IOUtil.close( out );
+        }
+    }
+
+    private static Deflated get( Future<Deflated> future )
+        throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while zipping" );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException( e.getCause().getMessage(), e.getCause() );
+        }
+    }
+
+    /**
+     * Sequential fallback, <code>ZipOutputStream</code> switches to zip64 when it needs to.
+     */
+    private static void stream( Map<String, File> files, File temp )
+        throws IOException
+    {
+        // local time, so ZipEntry stores 1980-01-01 00:00:00 whatever the time zone is
+        long time = new GregorianCalendar( 1980, 0, 1 ).getTimeInMillis();
+
+        ZipOutputStream out =
+            new ZipOutputStream( new BufferedOutputStream( new FileOutputStream( temp ), BUFFER_SIZE ) );
+        try
+        {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for ( Map.Entry<String, File> file : files.entrySet() )
+            {
+                ZipEntry entry = new ZipEntry( file.getKey() );
+                entry.setTime( time );
+                out.putNextEntry( entry );
+                InputStream in = new FileInputStream( file.getValue() );
+                try
+                {
+                    int read;
+                    while ( ( read = in.read( buffer ) ) != -1 )
+                    {
+                        out.write( buffer, 0, read );
+                    }
+                }
+                finally
+                {
+                    IOUtil.close( in );
+                    out.closeEntry();
+                }
+            }
+            out.close();
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+}
@@ -0,0 +1,228 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.artifact.Artifact;
+
+/**
+ * A RSL url (or policy file url) parsed once into literal and token segments, so interpolating it for every RSL
+ * doesn't need to scan the whole string for every known token. Produces the same result as chaining
+ * {@link String#replace(CharSequence, CharSequence)} for each token, see
+ * {@link MavenUtils#interpolateRslUrl(String, Artifact, String, String)}.
+ */
+public final class RslUrlTemplate
+{
+
+    private static final int LITERAL = 0;
+
+    private static final int CONTEXT_ROOT = 1;
+
+    /** <code>{contextRoot}/</code>, removed altogether when there is no context root */
+    private static final int CONTEXT_ROOT_SLASH = 2;
+
+    private static final int GROUP_ID = 3;
+
+    private static final int ARTIFACT_ID = 4;
+
+    private static final int VERSION = 5;
+
+    private static final int HASH = 6;
+
+    private static final int CLASSIFIER = 7;
+
+    private static final int HARD_VERSION = 8;
+
+    private static final int EXTENSION = 9;
+
+    private static final String[] TOKENS = { null, "{contextRoot}", "{contextRoot}/", "{groupId}", "{artifactId}",
+        "{version}", "{hash}", "{classifier}", "{hard-version}", "{extension}" };
+
+    private static final ConcurrentMap<String, RslUrlTemplate> TEMPLATES =
+        new ConcurrentHashMap<String, RslUrlTemplate>();
+
+    private final String template;
+
+    private final int[] types;
+
+    private final String[] literals;
+
+    private final boolean hashed;
+
+    private RslUrlTemplate( String template )
+    {
+        this.template = template;
+
+        List<Integer> types = new ArrayList<Integer>();
+        List<String> literals = new ArrayList<String>();
+        StringBuilder literal = new StringBuilder();
+        boolean hashed = false;
+
+        int i = 0;
+        while ( i < template.length() )
+        {
+            int token = template.charAt( i ) == '{' ? tokenAt( template, i ) : LITERAL;
+            if ( token == LITERAL )
+            {
+                literal.append( template.charAt( i ) );
+                i++;
+                continue;
+            }
+
+            if ( literal.length() > 0 )
+            {
+                types.add( LITERAL );
+                literals.add( literal.toString() );
+                literal.setLength( 0 );
+            }
+            types.add( token );
+            literals.add( null );
+            hashed |= token == HASH;
+            i += TOKENS[token].length();
+        }
+        if ( literal.length() > 0 )
+        {
+            types.add( LITERAL );
+            literals.add( literal.toString() );
+        }
+
+        this.types = new int[types.size()];
+        for ( int j = 0; j < this.types.length; j++ )
+        {
+            this.types[j] = types.get( j );
+        }
+        this.literals = literals.toArray( new String[literals.size()] );
+        this.hashed = hashed;
+    }
+
+    private static int tokenAt( String template, int index )
+    {
+        // longest first, so {contextRoot}/ wins over {contextRoot}
+        if ( template.startsWith( TOKENS[CONTEXT_ROOT_SLASH], index ) )
+        {
+            return CONTEXT_ROOT_SLASH;
+        }
+        for ( int token = 1; token < TOKENS.length; token++ )
+        {
+            if ( template.startsWith( TOKENS[token], index ) )
+            {
+                return token;
+            }
+        }
+        return LITERAL;
+    }
+
+    /**
+     * @return the parsed template, parsed only once per distinct url for the whole build
+     */
+    public static RslUrlTemplate compile( String template )
+    {
+        RslUrlTemplate compiled = TEMPLATES.get( template );
+        if ( compiled == null )
+        {
+            compiled = new RslUrlTemplate( template );
+            RslUrlTemplate existing = TEMPLATES.putIfAbsent( template, compiled );
+            if ( existing != null )
+            {
+                compiled = existing;
+            }
+        }
+        return compiled;
+    }
+
+    public String getTemplate()
+    {
+        return template;
+    }
+
+    public String interpolate( Artifact artifact, String extension, String contextRoot )
+    {
+        boolean hasContextRoot = contextRoot != null && !"".equals( contextRoot );
+        String hash = hashed ? hash( artifact ) : null;
+
+        StringBuilder sb = new StringBuilder( template.length() + 64 );
+        for ( int i = 0; i < types.length; i++ )
+        {
+            switch ( types[i] )
+            {
+                case LITERAL:
+                    sb.append( literals[i] );
+                    break;
+                case CONTEXT_ROOT:
+                    sb.append( hasContextRoot ? contextRoot : TOKENS[CONTEXT_ROOT] );
+                    break;
+                case CONTEXT_ROOT_SLASH:
+                    if ( hasContextRoot )
+                    {
+                        sb.append( contextRoot ).append( '/' );
+                    }
+                    break;
+                case GROUP_ID:
+                    sb.append( artifact.getGroupId() );
+                    break;
+                case ARTIFACT_ID:
+                    sb.append( artifact.getArtifactId() );
+                    break;
+                case VERSION:
+                    sb.append( artifact.getBaseVersion() );
+                    break;
+                case HASH:
+                    sb.append( hash );
+                    break;
+                case CLASSIFIER:
+                    sb.append( artifact.getClassifier() != null ? artifact.getClassifier() : TOKENS[CLASSIFIER] );
+                    break;
+                case HARD_VERSION:
+                    sb.append( artifact.getVersion() );
+                    break;
+                case EXTENSION:
+                    sb.append( extension != null ? extension : TOKENS[EXTENSION] );
+                    break;
+                default:
+                    throw new IllegalStateException( "Unknown token " + types[i] );
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String hash( Artifact artifact )
+    {
+        try
+        {
+            byte[] artifactBytes = org.apache.commons.io.FileUtils.readFileToByteArray( artifact.getFile() );
+            return DigestUtils.md5Hex( artifactBytes );
+        }
+        catch ( IOException ignored )
+        {
+            return "CANT_CALCULATE_HASH";
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return template;
+    }
+
+}
@@ -0,0 +1,494 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Adds entries to an existing zip (a SWC) without touching the ones already there: everything up to the central
+ * directory is transferred as raw bytes, the new entries are deflated and appended, and a new central directory is
+ * written. The archive is replaced atomically, so a failure leaves the original file in place.
+ * <p>
+ * Zip64 and split archives are re-streamed entry by entry instead, which is slower but produces the same content.
+ * </p>
+ */
+public final class ZipAppender
+{
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+
+    private static final int CENTRAL_HEADER = 0x02014b50;
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+
+    private static final int END_SIZE = 22;
+
+    private static final int UTF8_FLAG = 0x0800;
+
+    private static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+    private ZipAppender()
+    {
+    }
+
+    /**
+     * @param zip archive to update
+     * @param entries entry name to content, appended in iteration order
+     */
+    public static void append( File zip, Map<String, File> entries )
+        throws IOException
+    {
+        File temp = File.createTempFile( zip.getName(), ".tmp", zip.getAbsoluteFile().getParentFile() );
+        try
+        {
+            CentralDirectory directory = CentralDirectory.read( zip );
+            if ( directory == null || directory.entries + entries.size() > 0xFFFF )
+            {
+                restream( zip, entries, temp );
+            }
+            else
+            {
+                append( zip, directory, entries, temp );
+            }
+            replace( temp, zip );
+        }
+        finally
+        {
+            temp.delete();
+        }
+    }
+
+    private static void append( File zip, CentralDirectory directory, Map<String, File> entries, File temp )
+        throws IOException
+    {
+        Set<String> names = directory.names( zip );
+        for ( String name : entries.keySet() )
+        {
+            if ( !names.add( name ) )
+            {
+                throw new ZipException( "duplicate entry: " + name );
+            }
+        }
+
+        FileInputStream in = new FileInputStream( zip );
+        FileOutputStream fos = new FileOutputStream( temp );
+        try
+        {
+            FileChannel source = in.getChannel();
+            FileChannel target = fos.getChannel();
+
+            transfer( source, 0, directory.offset, target );
+
+            List<byte[]> centralHeaders = new ArrayList<byte[]>( entries.size() );
+            long position = directory.offset;
+            OutputStream out = new BufferedOutputStream( Channels.newOutputStream( target ), 64 * 1024 );
+            for ( Map.Entry<String, File> entry : entries.entrySet() )
+            {
+                Deflated data = Deflated.of( entry.getValue() );
+                if ( position > 0xFFFFFFFFL )
+                {
+                    throw new ZipException( "Archive too large to append to " + zip );
+                }
+
+                byte[] name = entry.getKey().getBytes( UTF8 );
+                int[] dosTime = dosTime( entry.getValue().lastModified() );
+
+                byte[] local = localHeader( name, dosTime, data );
+                out.write( local );
+                out.write( data.bytes );
+                centralHeaders.add( centralHeader( name, dosTime, data, position ) );
+
+                position += local.length + data.bytes.length;
+            }
+            out.flush();
+
+            long centralOffset = position;
+            transfer( source, directory.offset, directory.size, target );
+            long centralSize = directory.size;
+            for ( byte[] header : centralHeaders )
+            {
+                out.write( header );
+                centralSize += header.length;
+            }
+
+            if ( centralOffset > 0xFFFFFFFFL || centralSize > 0xFFFFFFFFL )
+            {
+                throw new ZipException( "Archive too large to append to " + zip );
+            }
+
+            int total = directory.entries + entries.size();
+            out.write( endOfCentralDirectory( total, centralSize, centralOffset, directory.comment ) );
+            out.flush();
+        }
+        finally
+        {
+            IOUtil.close( in );
+            IOUtil.close( fos );
+        }
+    }
+
+    /**
+     * Plain <code>java.util.zip</code> copy, for the archives the raw append can't handle.
+     */
+    private static void restream( File zip, Map<String, File> entries, File temp )
+        throws IOException
+    {
+        ZipFile source = new ZipFile( zip );
+        ZipOutputStream out = new ZipOutputStream( new BufferedOutputStream( new FileOutputStream( temp ) ) );
+        try
+        {
+            Enumeration<? extends ZipEntry> existing = source.entries();
+            while ( existing.hasMoreElements() )
+            {
+                ZipEntry entry = existing.nextElement();
+                out.putNextEntry( copyOf( entry ) );
+                InputStream input = source.getInputStream( entry );
+                try
+                {
+                    IOUtil.copy( input, out );
+                }
+                finally
+                {
+                    IOUtil.close( input );
+                    out.closeEntry();
+                }
+            }
+
+            for ( Map.Entry<String, File> entry : entries.entrySet() )
+            {
+                ZipEntry zipEntry = new ZipEntry( entry.getKey() );
+                zipEntry.setTime( entry.getValue().lastModified() );
+                out.putNextEntry( zipEntry );
+                InputStream input = new FileInputStream( entry.getValue() );
+                try
+                {
+                    IOUtil.copy( input, out );
+                }
+                finally
+                {
+                    IOUtil.close( input );
+                    out.closeEntry();
+                }
+            }
+        }
+        finally
+        {
+            IOUtil.close( out );
+            source.close();
+        }
+    }
+
+    /**
+     * The compressed size of the original entry can't be kept, the data is compressed again.
+     */
+    private static ZipEntry copyOf( ZipEntry entry )
+    {
+        ZipEntry copy = new ZipEntry( entry.getName() );
+        copy.setTime( entry.getTime() );
+        copy.setComment( entry.getComment() );
+        copy.setExtra( entry.getExtra() );
+        if ( entry.getMethod() == ZipEntry.STORED )
+        {
+            copy.setMethod( ZipEntry.STORED );
+            copy.setSize( entry.getSize() );
+            copy.setCompressedSize( entry.getSize() );
+            copy.setCrc( entry.getCrc() );
+        }
+        return copy;
+    }
+
+    static void replace( File temp, File zip )
+        throws IOException
+    {
+        try
+        {
+            Files.move( temp.toPath(), zip.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( AtomicMoveNotSupportedException e )
+        {
+            Files.move( temp.toPath(), zip.toPath(), StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+
+    private static void transfer( FileChannel source, long position, long count, FileChannel target )
+        throws IOException
+    {
+        long end = position + count;
+        while ( position < end )
+        {
+            long transferred = source.transferTo( position, end - position, target );
+            if ( transferred <= 0 )
+            {
+                throw new IOException( "Unexpected end of file copying zip entries" );
+            }
+            position += transferred;
+        }
+    }
+
+    /**
+     * Local file header of a deflated entry, sizes and crc are known so no data descriptor follows the data.
+     */
+    static byte[] localHeader( byte[] name, int[] dosTime, Deflated data )
+    {
+        ByteBuffer local = buffer( 30 + name.length );
+        local.putInt( LOCAL_HEADER ).putShort( (short) 20 ).putShort( (short) UTF8_FLAG );
+        local.putShort( (short) ZipEntry.DEFLATED ).putShort( (short) dosTime[0] ).putShort( (short) dosTime[1] );
+        local.putInt( (int) data.crc ).putInt( data.bytes.length ).putInt( (int) data.size );
+        local.putShort( (short) name.length ).putShort( (short) 0 ).put( name );
+        return local.array();
+    }
+
+    /**
+     * @param offset position of the local file header on the archive
+     */
+    static byte[] centralHeader( byte[] name, int[] dosTime, Deflated data, long offset )
+    {
+        ByteBuffer central = buffer( 46 + name.length );
+        central.putInt( CENTRAL_HEADER ).putShort( (short) 20 ).putShort( (short) 20 );
+        central.putShort( (short) UTF8_FLAG ).putShort( (short) ZipEntry.DEFLATED );
+        central.putShort( (short) dosTime[0] ).putShort( (short) dosTime[1] );
+        central.putInt( (int) data.crc ).putInt( data.bytes.length ).putInt( (int) data.size );
+        central.putShort( (short) name.length ).putShort( (short) 0 ).putShort( (short) 0 );
+        central.putShort( (short) 0 ).putShort( (short) 0 ).putInt( 0 ).putInt( (int) offset ).put( name );
+        return central.array();
+    }
+
+    static byte[] endOfCentralDirectory( int entries, long centralSize, long centralOffset, byte[] comment )
+    {
+        ByteBuffer end = buffer( END_SIZE + comment.length );
+        end.putInt( END_OF_CENTRAL_DIRECTORY ).putShort( (short) 0 ).putShort( (short) 0 );
+        end.putShort( (short) entries ).putShort( (short) entries );
+        end.putInt( (int) centralSize ).putInt( (int) centralOffset );
+        end.putShort( (short) comment.length ).put( comment );
+        return end.array();
+    }
+
+    private static ByteBuffer buffer( int size )
+    {
+        return ByteBuffer.allocate( size ).order( ByteOrder.LITTLE_ENDIAN );
+    }
+
+    /**
+     * @return MS-DOS time and date, as stored on zip headers
+     */
+    static int[] dosTime( long time )
+    {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis( time );
+        int year = calendar.get( Calendar.YEAR );
+        if ( year < 1980 )
+        {
+            return new int[] { 0, ( 1 << 5 ) | 1 };
+        }
+        int dosTime =
+            ( calendar.get( Calendar.HOUR_OF_DAY ) << 11 ) | ( calendar.get( Calendar.MINUTE ) << 5 )
+                | ( calendar.get( Calendar.SECOND ) >> 1 );
+        int dosDate =
+            ( ( year - 1980 ) << 9 ) | ( ( calendar.get( Calendar.MONTH ) + 1 ) << 5 )
+                | calendar.get( Calendar.DAY_OF_MONTH );
+        return new int[] { dosTime, dosDate };
+    }
+
+    static class Deflated
+    {
+        byte[] bytes;
+
+        long crc;
+
+        long size;
+
+        static Deflated of( File file )
+            throws IOException
+        {
+            Deflated deflated = new Deflated();
+            CRC32 crc = new CRC32();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream( (int) Math.min( file.length(), 1 << 20 ) + 64 );
+            Deflater deflater = new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+            InputStream in = new FileInputStream( file );
+            try
+            {
+                DeflaterOutputStream out = new DeflaterOutputStream( buffer, deflater );
+                byte[] chunk = new byte[64 * 1024];
+                int read;
+                while ( ( read = in.read( chunk ) ) != -1 )
+                {
+                    crc.update( chunk, 0, read );
+                    out.write( chunk, 0, read );
+                    deflated.size += read;
+                }
+                out.finish();
+            }
+            finally
+            {
+                IOUtil.close( in );
+                deflater.end();
+            }
+
+            if ( deflated.size > 0xFFFFFFFFL )
+            {
+                throw new ZipException( "Entry too large: " + file );
+            }
+            deflated.bytes = buffer.toByteArray();
+            deflated.crc = crc.getValue();
+            return deflated;
+        }
+    }
+
+    /**
+     * Location of the central directory, read from the end of central directory record.
+     */
+    private static class CentralDirectory
+    {
+        private long offset;
+
+        private long size;
+
+        private int entries;
+
+        private byte[] comment;
+
+        /**
+         * @return null when the archive needs zip64 or spans several disks
+         */
+        static CentralDirectory read( File zip )
+            throws IOException
+        {
+            RandomAccessFile file = new RandomAccessFile( zip, "r" );
+            try
+            {
+                long length = file.length();
+                int tailLength = (int) Math.min( length, END_SIZE + 0xFFFF + 20 );
+                byte[] tail = new byte[tailLength];
+                file.seek( length - tailLength );
+                file.readFully( tail );
+                ByteBuffer buffer = ByteBuffer.wrap( tail ).order( ByteOrder.LITTLE_ENDIAN );
+
+                for ( int i = tailLength - END_SIZE; i >= 0; i-- )
+                {
+                    if ( buffer.getInt( i ) != END_OF_CENTRAL_DIRECTORY )
+                    {
+                        continue;
+                    }
+                    int commentLength = buffer.getShort( i + 20 ) & 0xFFFF;
+                    if ( i + END_SIZE + commentLength != tailLength )
+                    {
+                        continue;
+                    }
+
+                    if ( i >= 20 && buffer.getInt( i - 20 ) == ZIP64_LOCATOR )
+                    {
+                        return null;
+                    }
+                    int disk = buffer.getShort( i + 4 ) & 0xFFFF;
+                    int centralDisk = buffer.getShort( i + 6 ) & 0xFFFF;
+                    int diskEntries = buffer.getShort( i + 8 ) & 0xFFFF;
+
+                    CentralDirectory directory = new CentralDirectory();
+                    directory.entries = buffer.getShort( i + 10 ) & 0xFFFF;
+                    directory.size = buffer.getInt( i + 12 ) & 0xFFFFFFFFL;
+                    directory.offset = buffer.getInt( i + 16 ) & 0xFFFFFFFFL;
+                    directory.comment = new byte[commentLength];
+                    System.arraycopy( tail, i + END_SIZE, directory.comment, 0, commentLength );
+
+                    if ( disk != 0 || centralDisk != 0 || diskEntries != directory.entries
+                        || directory.entries == 0xFFFF || directory.size == 0xFFFFFFFFL
+                        || directory.offset == 0xFFFFFFFFL
+                        || directory.offset + directory.size > length - tailLength + i )
+                    {
+                        return null;
+                    }
+                    return directory;
+                }
+                throw new ZipException( "Not a zip file, end of central directory not found: " + zip );
+            }
+            finally
+            {
+                file.close();
+            }
+        }
+
+        Set<String> names( File zip )
+            throws IOException
+        {
+            byte[] bytes = new byte[(int) size];
+            RandomAccessFile file = new RandomAccessFile( zip, "r" );
+            try
+            {
+                file.seek( offset );
+                file.readFully( bytes );
+            }
+            finally
+            {
+                file.close();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap( bytes ).order( ByteOrder.LITTLE_ENDIAN );
+            Set<String> names = new HashSet<String>();
+            int position = 0;
+            for ( int i = 0; i < entries; i++ )
+            {
+                if ( position + 46 > bytes.length || buffer.getInt( position ) != CENTRAL_HEADER )
+                {
+                    throw new ZipException( "Invalid central directory on " + zip );
+                }
+                int nameLength = buffer.getShort( position + 28 ) & 0xFFFF;
+                int extraLength = buffer.getShort( position + 30 ) & 0xFFFF;
+                int commentLength = buffer.getShort( position + 32 ) & 0xFFFF;
+                names.add( new String( bytes, position + 46, nameLength, UTF8 ) );
+                position += 46 + nameLength + extraLength + commentLength;
+            }
+            return names;
+        }
+    }
+
+}
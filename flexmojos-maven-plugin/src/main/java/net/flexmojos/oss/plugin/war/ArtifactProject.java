@@ -0,0 +1,85 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.war;
+
+import org.apache.maven.project.MavenProject;
+import net.flexmojos.oss.plugin.AbstractMavenMojo;
+import net.flexmojos.oss.plugin.utilities.CompileConfigurationLoader;
+
+/**
+ * The pom of a flex artifact along with the compiler settings copy-flex-resources needs from it, read only once.
+ */
+public class ArtifactProject
+{
+
+    private final MavenProject project;
+
+    private final boolean dependenciesResolved;
+
+    private final String lastRslUrl;
+
+    private final String[] localesRuntime;
+
+    private final String runtimeLocaleOutputPath;
+
+    public ArtifactProject( MavenProject project, boolean dependenciesResolved )
+    {
+        this.project = project;
+        this.dependenciesResolved = dependenciesResolved;
+
+        String[] urls = CompileConfigurationLoader.getCompilerPluginSettings( project, "rslUrls" );
+        if ( urls == null || urls.length == 0 )
+        {
+            urls = AbstractMavenMojo.DEFAULT_RSL_URLS;
+        }
+        this.lastRslUrl = urls[urls.length - 1];
+
+        String[] locales = CompileConfigurationLoader.getCompilerPluginSettings( project, "localesRuntime" );
+        this.localesRuntime = locales == null ? new String[0] : locales;
+
+        String outputPath = CompileConfigurationLoader.getCompilerPluginSetting( project, "runtimeLocaleOutputPath" );
+        this.runtimeLocaleOutputPath =
+            outputPath == null ? AbstractMavenMojo.DEFAULT_RUNTIME_LOCALE_OUTPUT_PATH : outputPath;
+    }
+
+    public MavenProject getProject()
+    {
+        return project;
+    }
+
+    public boolean isDependenciesResolved()
+    {
+        return dependenciesResolved;
+    }
+
+    public String getLastRslUrl()
+    {
+        return lastRslUrl;
+    }
+
+    public String[] getLocalesRuntime()
+    {
+        return localesRuntime;
+    }
+
+    public String getRuntimeLocaleOutputPath()
+    {
+        return runtimeLocaleOutputPath;
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.war;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Session wide cache of {@link ArtifactProject}s. Stored on the repository session data, which is shared by every
+ * (cloned) session of a parallel reactor, so each artifact pom is built once per build no matter how many war modules
+ * need it.
+ */
+public class ArtifactProjectCache
+{
+
+    private static final String KEY = ArtifactProjectCache.class.getName();
+
+    private final ConcurrentMap<String, Future<ArtifactProject>> projects =
+        new ConcurrentHashMap<String, Future<ArtifactProject>>();
+
+    public static ArtifactProjectCache get( MavenSession session )
+    {
+        SessionData data = session.getRepositorySession().getData();
+        while ( true )
+        {
+            ArtifactProjectCache cache = (ArtifactProjectCache) data.get( KEY );
+            if ( cache != null )
+            {
+                return cache;
+            }
+            data.set( KEY, null, new ArtifactProjectCache() );
+        }
+    }
+
+    /**
+     * Returns the project cached under <code>key</code>, scheduling <code>builder</code> on <code>executor</code> when
+     * it isn't available yet. Concurrent requests for the same key share the same build.
+     */
+    public Future<ArtifactProject> get( String key, Callable<ArtifactProject> builder, Executor executor )
+    {
+        Future<ArtifactProject> existing = projects.get( key );
+        if ( existing != null )
+        {
+            return existing;
+        }
+
+        FutureTask<ArtifactProject> task = new FutureTask<ArtifactProject>( builder );
+        existing = projects.putIfAbsent( key, task );
+        if ( existing != null )
+        {
+            return existing;
+        }
+
+        executor.execute( task );
+        return task;
+    }
+
+    /**
+     * @return the project cached under <code>key</code> or null when it was never requested
+     */
+    public Future<ArtifactProject> peek( String key )
+    {
+        return projects.get( key );
+    }
+
+}
@@ -20,12 +20,16 @@ package net.flexmojos.oss.plugin.war;
 import static net.flexmojos.oss.util.PathUtil.file;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -36,12 +40,10 @@ import org.apache.maven.model.Profile;
 import org.apache.maven.project.ProjectBuilder;
 import org.apache.maven.project.ProjectBuildingException;
 import org.apache.maven.project.ProjectBuildingRequest;
-import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringUtils;
 import net.flexmojos.oss.plugin.AbstractMavenMojo;
 import net.flexmojos.oss.plugin.common.FlexExtension;
 import net.flexmojos.oss.plugin.common.FlexScopes;
-import net.flexmojos.oss.plugin.utilities.CompileConfigurationLoader;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
 
 /**
@@ -109,17 +111,36 @@ public class CopyMojo
      */
     private File webappDirectory;
 
+    /**
+     * How resources are placed into the webapp, valid values are: "copy", "hardlink" or "symlink". Hard links fall back
+     * to copy when not supported (i.e. when the local repository is on a different device).
+     * 
+     * @parameter default-value="copy" expression="${flexmojos.copy.strategy}"
+     */
+    private ResourceDeployer.Strategy deploymentStrategy;
+
+    /**
+     * Resources already on webapp with the same size and modification date are not copied again. When true, their
+     * content hash is compared as well.
+     * 
+     * @parameter default-value="false" expression="${flexmojos.copy.checkHash}"
+     */
+    private boolean checkHash;
+
+    /**
+     * Number of threads used to copy resources and to build the poms of SWF dependencies.
+     * 
+     * @parameter default-value="4" expression="${flexmojos.copy.threads}"
+     */
+    private int copyThreads;
+
+    private ResourceDeployer deployer;
+
+    private ExecutorService projectBuilderExecutor;
+
     private void copy( File sourceFile, File destFile )
-        throws MojoExecutionException
     {
-        try
-        {
-            FileUtils.copyFile( sourceFile, destFile );
-        }
-        catch ( IOException e )
-        {
-            throw new MojoExecutionException( "Failed to copy " + sourceFile, e );
-        }
+        deployer.deploy( sourceFile, destFile );
     }
 
     public void fmExecute()
@@ -131,6 +152,24 @@ public class CopyMojo
             return;
         }
 
+        deployer = new ResourceDeployer( deploymentStrategy, checkHash, copyThreads, getLog() );
+        projectBuilderExecutor = Executors.newFixedThreadPool( Math.max( 1, copyThreads ) );
+        try
+        {
+            copyResources();
+            deployer.finish();
+        }
+        finally
+        {
+            deployer.shutdown();
+            // queued builds may be shared with other modules through the cache, so let them complete
+            projectBuilderExecutor.shutdown();
+        }
+    }
+
+    private void copyResources()
+        throws MojoExecutionException
+    {
         String packaging = project.getPackaging();
 
         if ( "war".equals( packaging ) )
@@ -138,6 +177,23 @@ public class CopyMojo
             webappDirectory.mkdirs();
 
             List<Artifact> swfDependencies = getSwfArtifacts();
+            List<Artifact> airDependencies = getAirArtifacts();
+
+            // start building every needed pom upfront, so they are built in parallel
+            for ( Artifact artifact : swfDependencies )
+            {
+                if ( copyRSL || copyRuntimeLocales || isFinalNameNeeded( artifact ) )
+                {
+                    requestProject( artifact );
+                }
+            }
+            for ( Artifact artifact : airDependencies )
+            {
+                if ( isFinalNameNeeded( artifact ) )
+                {
+                    requestProject( artifact );
+                }
+            }
 
             for ( Artifact artifact : swfDependencies )
             {
@@ -151,8 +207,6 @@ public class CopyMojo
                 }
             }
 
-            List<Artifact> airDependencies = getAirArtifacts();
-
             for ( Artifact artifact : airDependencies )
             {
                 File sourceFile = artifact.getFile();
@@ -171,13 +225,14 @@ public class CopyMojo
 
             if ( copyRSL || copyRuntimeLocales )
             {
+                ArtifactProject artifactProject = new ArtifactProject( project, true );
                 if ( copyRSL )
                 {
-                    performRslCopy( project );
+                    performRslCopy( artifactProject );
                 }
                 if ( copyRuntimeLocales )
                 {
-                    performRuntimeLocalesCopy( project );
+                    performRuntimeLocalesCopy( artifactProject );
                 }
             }
         }
@@ -211,7 +266,6 @@ public class CopyMojo
         throws MojoExecutionException
     {
         boolean isModule = !StringUtils.isEmpty( artifact.getClassifier() );
-        MavenProject pomProject = getProject( artifact );
         String fileName;
         if ( isModule )
         {
@@ -228,13 +282,14 @@ public class CopyMojo
         }
         else
         {
-            if ( !useFinalName )
+            ArtifactProject pomProject = isFinalNameNeeded( artifact ) ? getProject( artifact ) : null;
+            if ( pomProject == null )
             {
                 fileName = artifact.getArtifactId() + "-" + artifact.getVersion() + "." + artifact.getType();
             }
             else
             {
-                fileName = pomProject.getBuild().getFinalName() + "." + artifact.getType();
+                fileName = pomProject.getProject().getBuild().getFinalName() + "." + artifact.getType();
             }
         }
 
@@ -248,22 +303,56 @@ public class CopyMojo
         return destFile;
     }
 
-    private MavenProject getProject( Artifact artifact )
-        throws MojoExecutionException
+    private boolean isFinalNameNeeded( Artifact artifact )
+    {
+        return useFinalName && StringUtils.isEmpty( artifact.getClassifier() );
+    }
+
+    /**
+     * Dependencies are only needed to find the RSLs, so they are only resolved when RSLs are copied.
+     */
+    private Future<ArtifactProject> requestProject( final Artifact artifact )
+    {
+        final boolean resolveDependencies = copyRSL;
+
+        final List<String> ids = new ArrayList<String>();
+        for ( Profile profile : project.getActiveProfiles() )
+        {
+            ids.add( profile.getId() );
+        }
+
+        String key = artifact.getId() + ":" + ids;
+        ArtifactProjectCache cache = ArtifactProjectCache.get( session );
+
+        // a project built with dependencies is good for any request
+        Future<ArtifactProject> resolved = cache.peek( key + ":deps" );
+        if ( resolved != null )
+        {
+            return resolved;
+        }
+
+        return cache.get( resolveDependencies ? key + ":deps" : key, new Callable<ArtifactProject>()
+        {
+            public ArtifactProject call()
+            {
+                return buildProject( artifact, ids, resolveDependencies );
+            }
+        }, projectBuilderExecutor );
+    }
+
+    private ArtifactProject buildProject( Artifact artifact, List<String> activeProfileIds,
+                                          boolean resolveDependencies )
     {
         try
         {
             ProjectBuildingRequest request = new DefaultProjectBuildingRequest();
             request.setLocalRepository( localRepository );
             request.setRemoteRepositories( remoteRepositories );
-            request.setResolveDependencies( true );
-            ArrayList<String> ids = new ArrayList<String>();
-            for(Profile profile : project.getActiveProfiles()){
-            	ids.add(profile.getId());
-            }
-            request.setActiveProfileIds(ids);
+            request.setResolveDependencies( resolveDependencies );
+            request.setActiveProfileIds( activeProfileIds );
             request.setRepositorySession( session.getRepositorySession() );
-            return projectBuilder.build( artifact, request ).getProject();
+            MavenProject artifactProject = projectBuilder.build( artifact, request ).getProject();
+            return new ArtifactProject( artifactProject, resolveDependencies );
         }
         catch ( ProjectBuildingException e )
         {
@@ -272,6 +361,24 @@ public class CopyMojo
         }
     }
 
+    private ArtifactProject getProject( Artifact artifact )
+        throws MojoExecutionException
+    {
+        try
+        {
+            return requestProject( artifact ).get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while building pom for " + artifact, e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new MojoExecutionException( "Failed to build pom for " + artifact, e.getCause() );
+        }
+    }
+
     private List<Artifact> getRSLDependencies( MavenProject artifactProject )
     {
         List<Artifact> swcDeps = getArtifacts( SWC, artifactProject );
@@ -286,42 +393,20 @@ public class CopyMojo
         return swcDeps;
     }
 
-    private String getLastRslUrls( MavenProject artifactProject )
-    {
-        String[] urls = CompileConfigurationLoader.getCompilerPluginSettings( artifactProject, "rslUrls" );
-        if ( urls == null || urls.length == 0 )
-        {
-            urls = AbstractMavenMojo.DEFAULT_RSL_URLS;
-        }
-        return urls[urls.length - 1];
-    }
-
-    private String getRuntimeLocaleOutputPath( MavenProject artifactProject )
-    {
-        String runtimeLocaleOutputPath =
-            CompileConfigurationLoader.getCompilerPluginSetting( artifactProject, "runtimeLocaleOutputPath" );
-        if ( runtimeLocaleOutputPath == null )
-        {
-            runtimeLocaleOutputPath = AbstractMavenMojo.DEFAULT_RUNTIME_LOCALE_OUTPUT_PATH;
-        }
-        return runtimeLocaleOutputPath;
-    }
-
-    private List<Artifact> getRuntimeLocalesDependencies( MavenProject artifactProject )
+    private List<Artifact> getRuntimeLocalesDependencies( ArtifactProject artifactProject )
     {
-        String[] localesRuntime =
-            CompileConfigurationLoader.getCompilerPluginSettings( artifactProject, "localesRuntime" );
-        if ( localesRuntime == null || localesRuntime.length == 0 )
+        String[] localesRuntime = artifactProject.getLocalesRuntime();
+        if ( localesRuntime.length == 0 )
         {
             return Collections.emptyList();
         }
 
+        MavenProject p = artifactProject.getProject();
         List<Artifact> artifacts = new ArrayList<Artifact>();
         for ( String locale : localesRuntime )
         {
-            artifacts.add( repositorySystem.createArtifactWithClassifier( artifactProject.getGroupId(),
-                                                                          artifactProject.getArtifactId(),
-                                                                          artifactProject.getVersion(), SWF, locale ) );
+            artifacts.add( repositorySystem.createArtifactWithClassifier( p.getGroupId(), p.getArtifactId(),
+                                                                          p.getVersion(), SWF, locale ) );
         }
         return artifacts;
     }
@@ -331,17 +416,17 @@ public class CopyMojo
         return getArtifacts( SWF, project );
     }
 
-    private void performRslCopy( MavenProject artifactProject )
+    private void performRslCopy( ArtifactProject artifactProject )
         throws MojoExecutionException
     {
-        List<Artifact> rslDeps = getRSLDependencies( artifactProject );
+        List<Artifact> rslDeps = getRSLDependencies( artifactProject.getProject() );
 
         if ( rslDeps.isEmpty() )
         {
             return;
         }
 
-        String rslUrls = getLastRslUrls( artifactProject );
+        String rslUrls = artifactProject.getLastRslUrl();
 
         for ( Artifact artifact : rslDeps )
         {
@@ -366,7 +451,7 @@ public class CopyMojo
         }
     }
 
-    private void performRuntimeLocalesCopy( MavenProject artifactProject )
+    private void performRuntimeLocalesCopy( ArtifactProject artifactProject )
         throws MojoExecutionException
     {
         List<Artifact> deps = getRuntimeLocalesDependencies( artifactProject );
@@ -376,7 +461,7 @@ public class CopyMojo
             return;
         }
 
-        String runtimeLocaleOutputPath = getRuntimeLocaleOutputPath( artifactProject );
+        String runtimeLocaleOutputPath = artifactProject.getRuntimeLocaleOutputPath();
 
         for ( Artifact artifact : deps )
         {
@@ -388,7 +473,7 @@ public class CopyMojo
     private void performSubArtifactsCopy( Artifact artifact )
         throws MojoExecutionException
     {
-        MavenProject artifactProject = getProject( artifact );
+        ArtifactProject artifactProject = getProject( artifact );
         if ( artifactProject != null )
         {
             if ( copyRSL )
@@ -0,0 +1,247 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.war;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Places flex resources into the webapp. Resources are collected first and deployed by a small thread pool on
+ * {@link #finish()}, files already deployed and identical to their source are left untouched.
+ */
+public class ResourceDeployer
+{
+
+    public enum Strategy
+    {
+        copy, hardlink, symlink;
+    }
+
+    private final Strategy strategy;
+
+    private final boolean checkHash;
+
+    private final Log log;
+
+    private final ExecutorService executor;
+
+    private final Map<File, File> sources = new LinkedHashMap<File, File>();
+
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    public ResourceDeployer( Strategy strategy, boolean checkHash, int threads, Log log )
+    {
+        this.strategy = strategy;
+        this.checkHash = checkHash;
+        this.log = log;
+        this.executor = Executors.newFixedThreadPool( Math.max( 1, threads ) );
+    }
+
+    /**
+     * Schedules <code>source</code> to be placed at <code>dest</code>. The same destination is only deployed once,
+     * even when several artifacts share it (like a common RSL). When different sources share a destination the last one
+     * wins, as it did when resources were copied one after the other.
+     */
+    public synchronized void deploy( File source, File dest )
+    {
+        File previous = sources.put( dest.getAbsoluteFile(), source );
+        if ( previous != null && !previous.getAbsoluteFile().equals( source.getAbsoluteFile() ) )
+        {
+            log.warn( "Both " + previous + " and " + source + " are deployed to " + dest + ", keeping " + source );
+        }
+    }
+
+    private Future<Boolean> submit( final File source, final File dest )
+    {
+        return executor.submit( new Callable<Boolean>()
+        {
+            public Boolean call()
+                throws Exception
+            {
+                if ( isIdentical( source, dest ) )
+                {
+                    skipped.incrementAndGet();
+                    return false;
+                }
+                doDeploy( source, dest );
+                return true;
+            }
+        } );
+    }
+
+    /**
+     * Deploys every scheduled resource and waits for them.
+     */
+    public synchronized void finish()
+        throws MojoExecutionException
+    {
+        List<Future<Boolean>> deployments = new ArrayList<Future<Boolean>>();
+        for ( Map.Entry<File, File> entry : sources.entrySet() )
+        {
+            deployments.add( submit( entry.getValue(), entry.getKey() ) );
+        }
+
+        int deployed = 0;
+        for ( Future<Boolean> deployment : deployments )
+        {
+            try
+            {
+                if ( deployment.get() )
+                {
+                    deployed++;
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException( "Interrupted while deploying flex resources", e );
+            }
+            catch ( ExecutionException e )
+            {
+                if ( e.getCause() instanceof MojoExecutionException )
+                {
+                    throw (MojoExecutionException) e.getCause();
+                }
+                throw new MojoExecutionException( e.getCause().getMessage(), e.getCause() );
+            }
+        }
+        log.info( "Deployed " + deployed + " flex resources (" + strategy + "), " + skipped.get()
+            + " already up to date" );
+    }
+
+    /**
+     * Releases the thread pool, pending deployments are cancelled.
+     */
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    protected boolean isIdentical( File source, File dest )
+        throws MojoExecutionException
+    {
+        if ( !dest.exists() )
+        {
+            return false;
+        }
+
+        if ( strategy == Strategy.symlink )
+        {
+            return Files.isSymbolicLink( dest.toPath() ) && sameFile( source.toPath(), dest.toPath() );
+        }
+
+        if ( source.length() != dest.length() || source.lastModified() != dest.lastModified() )
+        {
+            return false;
+        }
+
+        return !checkHash || hash( source ).equals( hash( dest ) );
+    }
+
+    private static boolean sameFile( Path a, Path b )
+    {
+        try
+        {
+            return Files.isSameFile( a, b );
+        }
+        catch ( IOException e )
+        {
+            return false;
+        }
+    }
+
+    private static String hash( File file )
+        throws MojoExecutionException
+    {
+        InputStream in = null;
+        try
+        {
+            in = new FileInputStream( file );
+            return DigestUtils.md5Hex( in );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to hash " + file, e );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    protected void doDeploy( File source, File dest )
+        throws MojoExecutionException
+    {
+        Path from = source.toPath();
+        Path to = dest.toPath();
+        try
+        {
+            Files.createDirectories( to.getParent() );
+            Files.deleteIfExists( to );
+            switch ( strategy )
+            {
+                case symlink:
+                    Files.createSymbolicLink( to, from.toAbsolutePath() );
+                    return;
+                case hardlink:
+                    try
+                    {
+                        Files.createLink( to, from );
+                        return;
+                    }
+                    catch ( IOException e )
+                    {
+                        // i.e. local repository and webapp on different devices
+                        log.debug( "Unable to hard link " + dest + ", copying instead: " + e.getMessage() );
+                    }
+                    catch ( UnsupportedOperationException e )
+                    {
+                        log.debug( "Hard links not supported, copying " + dest );
+                    }
+                    // fall through
+                default:
+                    Files.copy( from, to, StandardCopyOption.COPY_ATTRIBUTES );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to deploy " + source + " to " + dest, e );
+        }
+    }
+
+}
@@ -18,82 +18,201 @@
 package net.flexmojos.oss.truster;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.apache.commons.io.IOUtils;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
 import net.flexmojos.oss.util.PathUtil;
 
+/**
+ * Adds directories to the <code>maven.cfg</code> Flash Player trust file. Updates hold a lock on
+ * <code>maven.cfg.lock</code> (so concurrent builds do not lose each other entries) and replace the file through a
+ * temporary one, so Flash Player and other builds never see a truncated file. Paths known to be trusted are kept in
+ * memory, so trusting the same directory again does not touch the file system.
+ */
 @Component( role = FlashPlayerTruster.class )
 public class DefaultFlashPlayerTruster
     extends AbstractLogEnabled
     implements FlashPlayerTruster
 {
 
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * A file lock is held by the whole JVM, threads (and truster instances) still need to wait for each other. Truster
+     * classes loaded by other plugin class loaders have their own monitor, see {@link #lock(FileChannel)}.
+     */
+    private static final Object LOCK = new Object();
+
+    private final Set<String> trusted = Collections.newSetFromMap( new ConcurrentHashMap<String, Boolean>() );
+
     public void updateSecuritySandbox( File trustedFile )
         throws TrustException
     {
 
         String trustedPath = PathUtil.path( trustedFile.getParentFile() );
+        if ( trusted.contains( trustedPath ) )
+        {
+            return;
+        }
 
-        File mavenCfg = new File( getTrustDir(), "maven.cfg" );
-        if ( !mavenCfg.exists() )
+        File trustDir = getTrustDir();
+        File mavenCfg = new File( trustDir, "maven.cfg" );
+
+        getLogger().debug( "maven.cfg location: " + mavenCfg );
+
+        synchronized ( LOCK )
         {
+            RandomAccessFile lockFile = null;
             try
             {
-                // noinspection ResultOfMethodCallIgnored
-                mavenCfg.createNewFile();
+                lockFile = new RandomAccessFile( new File( trustDir, "maven.cfg.lock" ), "rw" );
+                FileLock lock = lock( lockFile.getChannel() );
+                try
+                {
+                    Set<String> cfg = read( mavenCfg );
+                    trusted.addAll( cfg );
+
+                    if ( cfg.contains( trustedPath ) )
+                    {
+                        getLogger().debug( "Already trust on " + trustedPath );
+                        return;
+                    }
+
+                    getLogger().info( "Updating Flash Player Trust directory " + trustedPath );
+
+                    cfg.add( trustedPath );
+                    write( mavenCfg, cfg );
+                    trusted.add( trustedPath );
+                }
+                finally
+                {
+                    lock.release();
+                }
             }
             catch ( IOException e )
             {
-                throw new TrustException( "Unable to create FlashPayerTrust file: " + mavenCfg.getAbsolutePath(), e );
+                throw new TrustException( "Unable to edit FlashPayerTrust file: " + mavenCfg.getAbsolutePath(), e );
+            }
+            finally
+            {
+                close( lockFile );
             }
         }
+    }
 
-        getLogger().debug( "maven.cfg location: " + mavenCfg );
-
-        try
+    /**
+     * Locks the channel, waiting for other JVMs and for trusters of other plugin class loaders, whose locks on the same
+     * file are reported as an {@link OverlappingFileLockException} instead of blocking.
+     */
+    private static FileLock lock( FileChannel channel )
+        throws IOException
+    {
+        while ( true )
         {
-            // Load maven.cfg
-            FileReader input = new FileReader( mavenCfg );
-            String text = IOUtils.toString( input );
-            List<String> cfg = Arrays.asList( text.split( "\n" ) );
-            input.close();
+            try
+            {
+                return channel.lock();
+            }
+            catch ( OverlappingFileLockException e )
+            {
+                try
+                {
+                    Thread.sleep( 50 );
+                }
+                catch ( InterruptedException ie )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException( "Interrupted while waiting for the trust file lock" );
+                }
+            }
+        }
+    }
 
-            if ( cfg.contains( trustedPath ) )
+    private static void close( RandomAccessFile file )
+    {
+        if ( file != null )
+        {
+            try
             {
-                getLogger().debug( "Already trust on " + trustedPath );
-                return;
+                file.close();
             }
-            else
+            catch ( IOException e )
             {
-                getLogger().info( "Updating Flash Player Trust directory " + trustedPath );
+                // ignore
             }
+        }
+    }
+
+    private static Set<String> read( File mavenCfg )
+        throws IOException
+    {
+        Set<String> cfg = new LinkedHashSet<String>();
+        if ( !mavenCfg.exists() )
+        {
+            return cfg;
+        }
 
-            if ( !text.endsWith( "\n" ) )
+        for ( String line : FileUtils.fileRead( mavenCfg, ENCODING ).split( "\n" ) )
+        {
+            line = line.trim();
+            if ( line.length() != 0 )
             {
-                text = text + '\n';
+                cfg.add( line );
             }
+        }
+        return cfg;
+    }
 
-            // add builder folder
-            text = text + trustedPath + '\n';
+    private static void write( File mavenCfg, Set<String> cfg )
+        throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        for ( String path : cfg )
+        {
+            text.append( path ).append( '\n' );
+        }
 
-            // Save maven.cfg
-            FileWriter output = new FileWriter( mavenCfg );
-            IOUtils.write( text, output );
-            output.flush();
+        File tmp = File.createTempFile( "maven.cfg", ".tmp", mavenCfg.getParentFile() );
+        OutputStream output = null;
+        try
+        {
+            output = new FileOutputStream( tmp );
+            output.write( text.toString().getBytes( ENCODING ) );
             output.close();
+            output = null;
 
+            try
+            {
+                Files.move( tmp.toPath(), mavenCfg.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING );
+            }
+            catch ( AtomicMoveNotSupportedException e )
+            {
+                Files.move( tmp.toPath(), mavenCfg.toPath(), StandardCopyOption.REPLACE_EXISTING );
+            }
         }
-        catch ( IOException e )
+        finally
         {
-            throw new TrustException( "Unable to edit FlashPayerTrust file: " + mavenCfg.getAbsolutePath(), e );
+            IOUtil.close( output );
+            tmp.delete();
         }
     }
 
@@ -0,0 +1,192 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compatibilitykit.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import net.flexmojos.oss.compatibilitykit.SwfVersions;
+import net.flexmojos.oss.compatibilitykit.Version;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Checks {@link Version} and {@link SwfVersions} against the string based algorithm they replaced.
+ */
+public class VersionTest
+{
+
+    private static final String[] KNOWN_VERSIONS = { "", " ", null, "2", "2.0.1", "3", "3.0", "3.0.0", "3.0.0.477",
+        "3.0.1.1092-flexcover", "3.1", "3.1.0", "3.2.0.3958", "3.3.0.4852", "3.4.0.9271", "3.5.0.12683",
+        "3.6.0.16995", "4", "4.0", "4.0-SNAPSHOT", "4.0.0", "4.0.0-SNAPSHOT", "4.0.0.3127", "4.0.0.10485",
+        "4.0.0.14159", "4.1.0.16076", "4.5.0.20967", "4.5.1.21328", "4.6.0.23201", "4.8.0", "4.9.0", "4.9.1",
+        "4.10.0", "4.11.0", "4.12.0", "4.12.1", "4.13.0", "4.14.0", "4.14.1", "4.15.0", "4.16.0", "0.1.0", "0.5.0",
+        "9", "9.0", "9.0.124", "10", "10.0", "10.0.0", "10.0.1", "10.1", "10.1.0", "10.2", "10.3", "11", "11.0",
+        "11.1", "11.2", "11.3", "11.4", "11.5", "11.6", "11.7", "11.8", "11.9", "12.0", "13.0", "14.0", "15.0",
+        "16.0", "17.0", "18.0", "1.0", "1.5", "2.0", "2.5", "2.6", "2.7", "3.2", "3.3", "3.4", "3.5", "3.6", "3.7",
+        "3.8", "3.9", "4.0.0-beta", "x.y", "4..0", "4.0.", ".4", "-SNAPSHOT" };
+
+    private static List<String> versions()
+    {
+        List<String> versions = new ArrayList<String>( Arrays.asList( KNOWN_VERSIONS ) );
+        Random random = new Random( 7 );
+        char[] alphabet = "0123456789..-a ".toCharArray();
+        for ( int i = 0; i < 300; i++ )
+        {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt( 9 );
+            for ( int j = 0; j < length; j++ )
+            {
+                sb.append( alphabet[random.nextInt( alphabet.length )] );
+            }
+            versions.add( sb.toString() );
+        }
+        return versions;
+    }
+
+    @Test
+    public void parseLikeSplitVersion()
+    {
+        for ( String version : versions() )
+        {
+            Assert.assertTrue( Arrays.equals( Version.parse( version ).toArray(), legacySplitVersion( version ) ),
+                               "'" + version + "'" );
+        }
+    }
+
+    @Test
+    public void compareLikeIsVersionOK()
+    {
+        List<String> versions = versions();
+        for ( String a : versions )
+        {
+            for ( String b : versions )
+            {
+                int[] fdk = legacySplitVersion( a );
+                int[] other = legacySplitVersion( b );
+                Assert.assertEquals( Version.parse( a ).isMinVersionOK( Version.parse( b ) ),
+                                     legacyIsVersionOK( fdk, other ), "'" + a + "' min '" + b + "'" );
+                Assert.assertEquals( Version.parse( a ).isMaxVersionOK( Version.parse( b ) ),
+                                     legacyIsVersionOK( other, fdk ), "'" + a + "' max '" + b + "'" );
+            }
+        }
+    }
+
+    @Test
+    public void swfVersionsLikeTheVersionChain()
+    {
+        for ( String version : versions() )
+        {
+            Assert.assertEquals( SwfVersions.forFlashVersion( version ), legacyFlashSwfVersion( version ), version );
+            Assert.assertEquals( SwfVersions.forAirVersion( version ), legacyAirSwfVersion( version ), version );
+        }
+    }
+
+    @Test
+    public void parsedOnce()
+    {
+        Assert.assertSame( Version.parse( "4.6.0.23201" ), Version.parse( "4.6.0.23201" ) );
+    }
+
+    private static int[] legacySplitVersion( String version )
+    {
+        if ( version == null || version.trim().equals( "" ) )
+        {
+            return new int[0];
+        }
+
+        int endIndex = version.indexOf( '-' );
+        if ( endIndex != -1 )
+        {
+            version = version.substring( 0, endIndex );
+        }
+
+        String[] versionsStr = version.split( "\\." );
+        int[] versions = new int[versionsStr.length];
+
+        for ( int i = 0; i < versionsStr.length; i++ )
+        {
+            try
+            {
+                versions[i] = new Integer( versionsStr[i] );
+            }
+            catch ( NumberFormatException e )
+            {
+                versions[i] = 0;
+            }
+        }
+
+        return versions;
+    }
+
+    private static boolean legacyIsVersionOK( int[] fdkVersion, int[] minVersion )
+    {
+        int lenght = Math.min( fdkVersion.length, minVersion.length );
+
+        int result = 0;
+        for ( int i = 0; i < lenght; i++ )
+        {
+            result = fdkVersion[i] - minVersion[i];
+            if ( result != 0 )
+            {
+                return result > -1;
+            }
+        }
+
+        return result > -1;
+    }
+
+    private static boolean min( String version, String minVersion )
+    {
+        return legacyIsVersionOK( legacySplitVersion( version ), legacySplitVersion( minVersion ) );
+    }
+
+    private static Integer legacyFlashSwfVersion( String flashVersion )
+    {
+        String[] versions = { "17.0", "16.0", "15.0", "14.0", "13.0", "12.0", "11.9", "11.8", "11.7", "11.6", "11.5",
+            "11.4", "11.3", "11.2", "11.1", "11", "10.3", "10.2", "10.1", "9" };
+        int[] swfVersions = { 28, 27, 26, 25, 24, 23, 22, 21, 20, 19, 18, 17, 16, 15, 14, 13, 12, 11, 10, 9 };
+        for ( int i = 0; i < versions.length; i++ )
+        {
+            if ( min( flashVersion, versions[i] ) )
+            {
+                return swfVersions[i];
+            }
+        }
+        return null;
+    }
+
+    private static Integer legacyAirSwfVersion( String airVersion )
+    {
+        String[] versions = { "17.0", "16.0", "15.0", "14.0", "13.0", "4.0", "3.9", "3.8", "3.7", "3.6", "3.5", "3.4",
+            "3.3", "3.2", "3.0" };
+        int[] swfVersions = { 28, 27, 26, 25, 24, 23, 22, 21, 20, 19, 18, 17, 16, 15, 13 };
+        for ( int i = 0; i < versions.length; i++ )
+        {
+            if ( min( airVersion, versions[i] ) )
+            {
+                return swfVersions[i];
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.license;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import net.flexmojos.oss.plugin.utilities.MavenUtils;
+
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class DefaultLicenseCalculatorTest
+{
+
+    private String userHome;
+
+    private File home;
+
+    private DefaultLicenseCalculator calculator;
+
+    @BeforeMethod
+    public void temporaryHome()
+        throws IOException
+    {
+        home = new File( "target/license-home" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( home );
+        home.mkdirs();
+
+        userHome = System.getProperty( "user.home" );
+        System.setProperty( "user.home", home.getPath() );
+
+        calculator = new DefaultLicenseCalculator();
+        calculator.enableLogging( new ConsoleLogger( Logger.LEVEL_DISABLED, "license" ) );
+    }
+
+    @AfterMethod
+    public void restoreHome()
+    {
+        System.setProperty( "user.home", userHome );
+    }
+
+    @Test
+    public void installedLicenses()
+        throws IOException
+    {
+        if ( !MavenUtils.isLinux() )
+        {
+            throw new SkipException( "Only linux keeps the installed licenses under user.home" );
+        }
+
+        File installed = new File( home, ".adobe/Flex/license.properties" );
+        write( installed, "flexbuilder3=1111-2222\nflashbuilder4=3333-4444\n" );
+
+        Map<String, String> licenses = calculator.getInstalledLicenses();
+        assertThat( licenses.size(), equalTo( 2 ) );
+        assertThat( licenses.get( "flexbuilder3" ), equalTo( "1111-2222" ) );
+        assertThat( licenses.get( "flashbuilder4" ), equalTo( "3333-4444" ) );
+    }
+
+    @Test
+    public void noInstalledLicenses()
+    {
+        if ( !MavenUtils.isLinux() )
+        {
+            throw new SkipException( "Only linux keeps the installed licenses under user.home" );
+        }
+
+        assertThat( calculator.getInstalledLicenses(), equalTo( Collections.<String, String> emptyMap() ) );
+    }
+
+    @Test
+    public void projectLicenses()
+        throws IOException
+    {
+        File licenseFile = new File( home, "project/licenses.properties" );
+        write( licenseFile, "# kept with the project\nflashbuilder4 = 5555-6666\n" );
+
+        assertThat( calculator.getLicenses( licenseFile ),
+                    equalTo( Collections.singletonMap( "flashbuilder4", "5555-6666" ) ) );
+    }
+
+    @Test
+    public void readOnceUntilModified()
+        throws IOException
+    {
+        File licenseFile = new File( home, "licenses.properties" );
+        write( licenseFile, "flashbuilder4=1111\n" );
+
+        Map<String, String> licenses = calculator.getLicenses( licenseFile );
+        assertThat( calculator.getLicenses( licenseFile ), sameInstance( licenses ) );
+
+        write( licenseFile, "flashbuilder4=2222-3333\n" );
+        licenseFile.setLastModified( licenseFile.lastModified() + 2000 );
+
+        assertThat( calculator.getLicenses( licenseFile ),
+                    equalTo( Collections.singletonMap( "flashbuilder4", "2222-3333" ) ) );
+    }
+
+    @Test( expectedExceptions = FileNotFoundException.class )
+    public void missingProjectLicenses()
+        throws IOException
+    {
+        calculator.getLicenses( new File( home, "missing.properties" ) );
+    }
+
+    private static void write( File file, String content )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file.getPath(), "ISO-8859-1", content );
+    }
+
+}
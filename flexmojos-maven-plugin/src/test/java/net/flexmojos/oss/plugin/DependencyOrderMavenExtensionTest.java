@@ -0,0 +1,188 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginManagement;
+import org.apache.maven.project.MavenProject;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class DependencyOrderMavenExtensionTest
+{
+
+    private static final String FLEXMOJOS = "net.flexmojos.oss:flexmojos-maven-plugin";
+
+    @DataProvider
+    public Object[][] compilerVersions()
+    {
+        return new Object[][] { { "2.0.1", "flexmojos-flex2-compatibility-layer" },
+            { "2", "flexmojos-flex2-compatibility-layer" },
+            { "3.0.0.477", "flexmojos-flex3-compatibility-layer" },
+            { "3.6.0.16995-SNAPSHOT", "flexmojos-flex3-compatibility-layer" }, { "4.6.b.23201", null },
+            { "4.16.1", null }, { "20.0.0", null }, { "21.0.0.95", null }, { "30", null }, { "32.0.0.89", null },
+            { "200.0", null }, { "", null }, { null, null } };
+    }
+
+    @Test( dataProvider = "compilerVersions" )
+    public void compatibilityLayer( String compilerVersion, String expected )
+    {
+        assertThat( DependencyOrderMavenExtension.getCompatibilityLayer( compilerVersion ), equalTo( expected ) );
+    }
+
+    @Test
+    public void compilerIsMovedToTheEnd()
+        throws Exception
+    {
+        MavenProject project = project( "3.6.0.16995" );
+
+        new DependencyOrderMavenExtension().afterSessionStart( session( project ) );
+
+        List<Dependency> deps = project.getPlugin( FLEXMOJOS ).getDependencies();
+        assertThat( artifactIds( deps ), equalTo( Arrays.asList( "flexmojos-flex3-compatibility-layer", "playerglobal",
+                                                                 "framework", "compiler" ) ) );
+        assertThat( deps.get( 0 ).getVersion(), equalTo( "7.2.0-SNAPSHOT" ) );
+
+        Plugin managed = project.getPluginManagement().getPluginsAsMap().get( FLEXMOJOS );
+        deps = managed.getDependencies();
+        assertThat( artifactIds( deps ), equalTo( Arrays.asList( "flexmojos-flex3-compatibility-layer", "playerglobal",
+                                                                 "framework", "compiler" ) ) );
+    }
+
+    @Test
+    public void multiDigitSdkNeedsNoCompatibilityLayer()
+        throws Exception
+    {
+        MavenProject project = project( "20.0.0" );
+
+        new DependencyOrderMavenExtension().afterSessionStart( session( project ) );
+
+        List<Dependency> deps = project.getPlugin( FLEXMOJOS ).getDependencies();
+        assertThat( artifactIds( deps ), equalTo( Arrays.asList( "playerglobal", "framework", "compiler" ) ) );
+    }
+
+    @Test
+    public void projectsWithSameConfigurationKeepTheirOwnDependencies()
+        throws Exception
+    {
+        MavenProject a = project( "3.6.0.16995" );
+        MavenProject b = project( "3.6.0.16995" );
+
+        new DependencyOrderMavenExtension().afterSessionStart( session( a, b ) );
+
+        List<Dependency> depsA = a.getPlugin( FLEXMOJOS ).getDependencies();
+        List<Dependency> depsB = b.getPlugin( FLEXMOJOS ).getDependencies();
+        assertThat( artifactIds( depsB ), equalTo( artifactIds( depsA ) ) );
+        for ( int i = 0; i < depsA.size(); i++ )
+        {
+            assertThat( depsB.get( i ), not( sameInstance( depsA.get( i ) ) ) );
+        }
+    }
+
+    @Test
+    public void noCompiler()
+        throws Exception
+    {
+        Plugin plugin = plugin( dependency( "com.adobe.flex.framework", "framework", "pom", "4.6.b.23201" ) );
+        MavenProject project = new MavenProject( new Model() );
+        project.getModel().setBuild( new Build() );
+        project.getBuild().addPlugin( plugin );
+        List<Dependency> deps = plugin.getDependencies();
+
+        new DependencyOrderMavenExtension().afterSessionStart( session( project ) );
+
+        assertThat( plugin.getDependencies(), sameInstance( deps ) );
+    }
+
+    private static MavenSession session( MavenProject... projects )
+    {
+        MavenExecutionRequest request = mock( MavenExecutionRequest.class );
+        when( request.getUserProperties() ).thenReturn( new Properties() );
+
+        MavenSession session = mock( MavenSession.class );
+        when( session.getRequest() ).thenReturn( request );
+        when( session.getProjects() ).thenReturn( Arrays.asList( projects ) );
+        return session;
+    }
+
+    private static MavenProject project( String compilerVersion )
+    {
+        Model model = new Model();
+        model.setBuild( new Build() );
+        model.getBuild().addPlugin( plugin( dependency( "com.adobe.flex", "compiler", "pom", compilerVersion ),
+                                            dependency( "com.adobe.flex.framework", "playerglobal", "swc", "11.1" ),
+                                            dependency( "com.adobe.flex.framework", "framework", "pom",
+                                                        compilerVersion ) ) );
+        model.getBuild().setPluginManagement( new PluginManagement() );
+        model.getBuild().getPluginManagement().addPlugin( plugin( dependency( "com.adobe.flex", "compiler", "pom",
+                                                                              compilerVersion ),
+                                                                  dependency( "com.adobe.flex.framework",
+                                                                              "playerglobal", "swc", "11.1" ),
+                                                                  dependency( "com.adobe.flex.framework",
+                                                                              "framework", "pom", compilerVersion ) ) );
+        return new MavenProject( model );
+    }
+
+    private static Plugin plugin( Dependency... dependencies )
+    {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId( "net.flexmojos.oss" );
+        plugin.setArtifactId( "flexmojos-maven-plugin" );
+        plugin.setVersion( "7.2.0-SNAPSHOT" );
+        plugin.setDependencies( new ArrayList<Dependency>( Arrays.asList( dependencies ) ) );
+        return plugin;
+    }
+
+    private static Dependency dependency( String groupId, String artifactId, String type, String version )
+    {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId( groupId );
+        dependency.setArtifactId( artifactId );
+        dependency.setType( type );
+        dependency.setVersion( version );
+        return dependency;
+    }
+
+    private static List<String> artifactIds( List<Dependency> deps )
+    {
+        List<String> ids = new ArrayList<String>();
+        for ( Dependency dep : deps )
+        {
+            ids.add( dep.getArtifactId() );
+        }
+        return ids;
+    }
+
+}
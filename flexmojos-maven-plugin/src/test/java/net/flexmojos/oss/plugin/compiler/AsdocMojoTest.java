@@ -0,0 +1,204 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler;
+
+import static org.codehaus.plexus.util.ReflectionUtils.setVariableValueInObject;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.archiver.UnArchiver;
+import org.codehaus.plexus.archiver.manager.ArchiverManager;
+import org.codehaus.plexus.util.FileUtils;
+import net.flexmojos.oss.compiler.IASDocConfiguration;
+import net.flexmojos.oss.compiler.command.Result;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AsdocMojoTest
+{
+
+    private File build;
+
+    private File sources;
+
+    private File template;
+
+    private UnArchiver unarchiver;
+
+    private String inputs;
+
+    private int compilations;
+
+    private AsdocMojo mojo;
+
+    @BeforeMethod
+    public void createMojo()
+        throws Exception
+    {
+        File dir = new File( "target/asdoc-mojo" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+
+        build = new File( dir, "target" );
+        sources = new File( dir, "src" );
+        sources.mkdirs();
+        template = new File( dir, "asdoc-template.zip" );
+        FileUtils.fileWrite( template.getPath(), "template" );
+
+        final Artifact templateArtifact = mock( Artifact.class );
+        when( templateArtifact.getFile() ).thenReturn( template );
+        unarchiver = mock( UnArchiver.class );
+        ArchiverManager archiverManager = mock( ArchiverManager.class );
+        when( archiverManager.getUnArchiver( "zip" ) ).thenReturn( unarchiver );
+
+        inputs = "inputs";
+        compilations = 0;
+        mojo = new AsdocMojo()
+        {
+            @Override
+            public Result doCompile( IASDocConfiguration cfg, boolean synchronize )
+                throws Exception
+            {
+                compilations++;
+                FileUtils.fileWrite( new File( getOutput(), "index.html" ).getPath(), "docs" );
+                return mock( Result.class );
+            }
+
+            @Override
+            protected String getInputFingerprint()
+            {
+                return inputs;
+            }
+
+            @Override
+            public File[] getSourcePath()
+            {
+                return new File[] { sources };
+            }
+
+            @Override
+            public String getCompilerVersion()
+            {
+                return "4.12.0";
+            }
+
+            @Override
+            public Artifact resolve( String groupId, String artifactId, String version, String classifier,
+                                     String type )
+            {
+                return templateArtifact;
+            }
+        };
+        mojo.setLog( mock( Log.class ) );
+        mojo.setArchiverManager( archiverManager );
+
+        MavenProject project = new MavenProject();
+        project.getBuild().setDirectory( build.getPath() );
+        setVariableValueInObject( mojo, "project", project );
+        setVariableValueInObject( mojo, "asdocOutputDirectory", new File( build, "asdoc" ) );
+        setVariableValueInObject( mojo, "incremental", true );
+        setVariableValueInObject( mojo, "attach", false );
+    }
+
+    @Test
+    public void unchangedInputsSkipCompilation()
+        throws Exception
+    {
+        mojo.fmExecute();
+        mojo.fmExecute();
+
+        assertThat( compilations, equalTo( 1 ) );
+    }
+
+    @Test
+    public void changedInputsRecompile()
+        throws Exception
+    {
+        mojo.fmExecute();
+        inputs = "changed";
+        mojo.fmExecute();
+
+        assertThat( compilations, equalTo( 2 ) );
+    }
+
+    @Test
+    public void missingOutputRecompiles()
+        throws Exception
+    {
+        mojo.fmExecute();
+        FileUtils.cleanDirectory( new File( build, "asdoc" ) );
+        mojo.fmExecute();
+
+        assertThat( compilations, equalTo( 2 ) );
+    }
+
+    @Test
+    public void nonIncrementalAlwaysCompiles()
+        throws Exception
+    {
+        setVariableValueInObject( mojo, "incremental", false );
+        mojo.fmExecute();
+        mojo.fmExecute();
+
+        assertThat( compilations, equalTo( 2 ) );
+    }
+
+    @Test
+    public void unchangedTemplateIsUnpackedOnce()
+        throws Exception
+    {
+        String templates = mojo.getTemplatesPath();
+
+        assertThat( mojo.getTemplatesPath(), equalTo( templates ) );
+        verify( unarchiver, times( 1 ) ).extract();
+    }
+
+    @Test
+    public void changedTemplateIsUnpackedAgain()
+        throws Exception
+    {
+        mojo.getTemplatesPath();
+
+        long lastModified = template.lastModified();
+        FileUtils.fileWrite( template.getPath(), "another template" );
+        template.setLastModified( lastModified + 2000 );
+        mojo.getTemplatesPath();
+
+        verify( unarchiver, times( 2 ) ).extract();
+    }
+
+    @Test
+    public void missingMarkerUnpacksAgain()
+        throws Exception
+    {
+        mojo.getTemplatesPath();
+        new File( build, "flexmojos/asdoc-template.marker" ).delete();
+        mojo.getTemplatesPath();
+
+        verify( unarchiver, times( 2 ) ).extract();
+    }
+
+}
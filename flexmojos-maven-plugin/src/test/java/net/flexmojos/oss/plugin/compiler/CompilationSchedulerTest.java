@@ -0,0 +1,172 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CompilationSchedulerTest
+{
+
+    private List<String> compiled;
+
+    private AtomicInteger running;
+
+    private AtomicInteger maxRunning;
+
+    @BeforeMethod
+    public void reset()
+    {
+        compiled = Collections.synchronizedList( new ArrayList<String>() );
+        running = new AtomicInteger();
+        maxRunning = new AtomicInteger();
+    }
+
+    private CompilationScheduler.Compilation compilation( final String id )
+    {
+        return new CompilationScheduler.Compilation()
+        {
+            public void compile()
+            {
+                int now = running.incrementAndGet();
+                synchronized ( maxRunning )
+                {
+                    maxRunning.set( Math.max( maxRunning.get(), now ) );
+                }
+                try
+                {
+                    Thread.sleep( 50 );
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                compiled.add( id );
+            }
+        };
+    }
+
+    private CompilationScheduler.Compilation failure( final String id )
+    {
+        return new CompilationScheduler.Compilation()
+        {
+            public void compile()
+                throws MojoFailureException
+            {
+                compiled.add( id );
+                throw new MojoFailureException( id + " failed" );
+            }
+        };
+    }
+
+    @Test( timeOut = 10000 )
+    public void dependenciesCompileFirst()
+        throws Exception
+    {
+        CompilationScheduler scheduler = new CompilationScheduler();
+        scheduler.add( "app", compilation( "app" ), "ui", "core" );
+        scheduler.add( "ui", compilation( "ui" ), "core" );
+        scheduler.add( "core", compilation( "core" ) );
+
+        scheduler.execute( 4 );
+
+        assertThat( compiled, equalTo( Arrays.asList( "core", "ui", "app" ) ) );
+    }
+
+    @Test( timeOut = 10000 )
+    public void concurrencyIsBounded()
+        throws Exception
+    {
+        CompilationScheduler scheduler = new CompilationScheduler();
+        for ( int i = 0; i < 12; i++ )
+        {
+            scheduler.add( "module" + i, compilation( "module" + i ) );
+        }
+
+        scheduler.execute( 3 );
+
+        assertThat( compiled.size(), equalTo( 12 ) );
+        assertThat( maxRunning.get(), equalTo( 3 ) );
+    }
+
+    @Test( timeOut = 10000 )
+    public void circularDependency()
+        throws Exception
+    {
+        CompilationScheduler scheduler = new CompilationScheduler();
+        scheduler.add( "core", compilation( "core" ) );
+        scheduler.add( "a", compilation( "a" ), "core", "b" );
+        scheduler.add( "b", compilation( "b" ), "a" );
+
+        try
+        {
+            scheduler.execute( 2 );
+            throw new AssertionError( "circular dependency not detected" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            assertThat( compiled, equalTo( Arrays.asList( "core" ) ) );
+        }
+    }
+
+    @Test( timeOut = 10000, expectedExceptions = MojoExecutionException.class )
+    public void unknownDependency()
+        throws Exception
+    {
+        CompilationScheduler scheduler = new CompilationScheduler();
+        scheduler.add( "app", compilation( "app" ), "core" );
+
+        scheduler.execute( 2 );
+    }
+
+    @Test( timeOut = 10000 )
+    public void failureSkipsDependents()
+        throws Exception
+    {
+        CompilationScheduler scheduler = new CompilationScheduler();
+        scheduler.add( "core", failure( "core" ) );
+        scheduler.add( "ui", compilation( "ui" ), "core" );
+        scheduler.add( "app", compilation( "app" ), "ui" );
+        scheduler.add( "other", compilation( "other" ) );
+
+        try
+        {
+            scheduler.execute( 2 );
+            throw new AssertionError( "failure not propagated" );
+        }
+        catch ( MojoFailureException e )
+        {
+            assertThat( e.getMessage(), equalTo( "core failed" ) );
+        }
+        assertThat( compiled.contains( "ui" ), equalTo( false ) );
+        assertThat( compiled.contains( "app" ), equalTo( false ) );
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler;
+
+import static net.flexmojos.oss.plugin.AbstractMavenMojo.FLASH_GROUP_ID;
+import static net.flexmojos.oss.plugin.AbstractMavenMojo.PLAYER_GLOBAL;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.flexmojos.oss.matcher.collection.CollectionsMatcher;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class GlobalArtifactConcurrencyTest
+{
+
+    private static final int VERSIONS = 4;
+
+    private static final int MOJOS = 64;
+
+    private File repository;
+
+    @BeforeMethod
+    public void createRepository()
+        throws Exception
+    {
+        repository = new File( "target/global-artifact-concurrency" );
+        FileUtils.deleteDirectory( repository );
+
+        for ( int v = 0; v < VERSIONS; v++ )
+        {
+            File source = sourceFile( v );
+            source.getParentFile().mkdirs();
+            StringBuilder content = new StringBuilder();
+            for ( int i = 0; i < 50000; i++ )
+            {
+                content.append( "playerglobal " ).append( v ).append( '\n' );
+            }
+            FileUtils.fileWrite( source.getPath(), content.toString() );
+        }
+    }
+
+    private File sourceFile( int version )
+    {
+        return new File( repository, "1." + version + "/playerglobal-1." + version + ".swc" );
+    }
+
+    @Test
+    public void manyCompilationsStripTheGlobalArtifactOnce()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( 16 );
+        final CountDownLatch start = new CountDownLatch( 1 );
+        try
+        {
+            List<Future<Collection<Artifact>>> results = new ArrayList<Future<Collection<Artifact>>>();
+            for ( int i = 0; i < MOJOS; i++ )
+            {
+                final int version = i % VERSIONS;
+                results.add( executor.submit( new Callable<Collection<Artifact>>()
+                {
+                    public Collection<Artifact> call()
+                        throws Exception
+                    {
+                        MxmlcMojo mojo = newMojo( version );
+                        start.await();
+                        return mojo.getGlobalArtifactCollection();
+                    }
+                } ) );
+            }
+            start.countDown();
+
+            for ( int i = 0; i < MOJOS; i++ )
+            {
+                int version = i % VERSIONS;
+                Collection<Artifact> globals = results.get( i ).get();
+                assertThat( globals, CollectionsMatcher.isSize( 1 ) );
+
+                File stripped = globals.iterator().next().getFile();
+                assertThat( stripped.getAbsoluteFile(),
+                            equalTo( new File( sourceFile( version ).getParentFile(), "playerglobal.swc" ).getAbsoluteFile() ) );
+                assertThat( FileUtils.fileRead( stripped ), equalTo( FileUtils.fileRead( sourceFile( version ) ) ) );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        for ( int v = 0; v < VERSIONS; v++ )
+        {
+            // no temporary file left behind
+            assertThat( sourceFile( v ).getParentFile().list().length, equalTo( 2 ) );
+        }
+    }
+
+    private MxmlcMojo newMojo( int version )
+    {
+        final Artifact global =
+            new DefaultArtifact( FLASH_GROUP_ID, PLAYER_GLOBAL, "1." + version, "provided", "swc", null,
+                                 new DefaultArtifactHandler( "swc" ) );
+        global.setFile( sourceFile( version ) );
+        global.setResolved( true );
+
+        MxmlcMojo mojo = new MxmlcMojo()
+        {
+            @Override
+            public Set<Artifact> getDependencies()
+            {
+                return Collections.singleton( global );
+            }
+        };
+        mojo.setLog( mock( Log.class ) );
+        return mojo;
+    }
+
+}
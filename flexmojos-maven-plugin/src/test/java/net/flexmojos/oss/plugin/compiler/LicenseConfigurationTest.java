@@ -0,0 +1,135 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler;
+
+import static org.codehaus.plexus.util.ReflectionUtils.setVariableValueInObject;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.flexmojos.oss.compiler.ILicense;
+import net.flexmojos.oss.license.LicenseCalculator;
+import net.flexmojos.oss.plugin.compiler.attributes.MavenRuntimeException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LicenseConfigurationTest
+{
+
+    private static final File LICENSE_FILE = new File( "license.properties" );
+
+    private LicenseCalculator calculator;
+
+    private CompcMojo mojo;
+
+    @BeforeMethod
+    public void createMojo()
+        throws Exception
+    {
+        calculator = mock( LicenseCalculator.class );
+        when( calculator.getInstalledLicenses() ).thenReturn( licenses( "flexbuilder3", "installed", "flashbuilder4",
+                                                                        "installed" ) );
+        when( calculator.getLicenses( LICENSE_FILE ) ).thenReturn( licenses( "flashbuilder4", "file", "flex4",
+                                                                             "file" ) );
+
+        mojo = new CompcMojo();
+        setVariableValueInObject( mojo, "licenseCalculator", calculator );
+        setVariableValueInObject( mojo, "licenseLocalLookup", true );
+    }
+
+    @Test
+    public void noLicenses()
+        throws Exception
+    {
+        when( calculator.getInstalledLicenses() ).thenReturn( Collections.<String, String> emptyMap() );
+
+        assertThat( mojo.getLicense(), nullValue() );
+    }
+
+    @Test
+    public void installedLicenses()
+    {
+        assertThat( toMap( mojo.getLicense() ),
+                    equalTo( licenses( "flashbuilder4", "installed", "flexbuilder3", "installed" ) ) );
+    }
+
+    @Test
+    public void precedence()
+        throws Exception
+    {
+        setVariableValueInObject( mojo, "licenseFile", LICENSE_FILE );
+        setVariableValueInObject( mojo, "licenses", licenses( "flex4", "pom" ) );
+
+        // installed < licenseFile < licenses
+        assertThat( toMap( mojo.getLicense() ),
+                    equalTo( licenses( "flashbuilder4", "file", "flex4", "pom", "flexbuilder3", "installed" ) ) );
+    }
+
+    @Test
+    public void noLocalLookup()
+        throws Exception
+    {
+        setVariableValueInObject( mojo, "licenseLocalLookup", false );
+        setVariableValueInObject( mojo, "licenseFile", LICENSE_FILE );
+
+        assertThat( toMap( mojo.getLicense() ), equalTo( licenses( "flashbuilder4", "file", "flex4", "file" ) ) );
+        verify( calculator, never() ).getInstalledLicenses();
+    }
+
+    @Test( expectedExceptions = MavenRuntimeException.class )
+    public void unreadableLicenseFile()
+        throws Exception
+    {
+        when( calculator.getLicenses( LICENSE_FILE ) ).thenThrow( new IOException( "unreadable" ) );
+        setVariableValueInObject( mojo, "licenseFile", LICENSE_FILE );
+
+        mojo.getLicense();
+    }
+
+    private static Map<String, String> licenses( String... productAndSerials )
+    {
+        Map<String, String> licenses = new HashMap<String, String>();
+        for ( int i = 0; i < productAndSerials.length; i += 2 )
+        {
+            licenses.put( productAndSerials[i], productAndSerials[i + 1] );
+        }
+        return licenses;
+    }
+
+    private static Map<String, String> toMap( ILicense[] licenses )
+    {
+        Map<String, String> map = new TreeMap<String, String>();
+        for ( ILicense license : licenses )
+        {
+            map.put( license.product(), license.serialNumber() );
+        }
+        return map;
+    }
+
+}
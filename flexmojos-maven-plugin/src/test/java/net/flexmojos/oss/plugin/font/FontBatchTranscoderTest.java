@@ -0,0 +1,179 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.font;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.adobe.fonts.transcoder.Font2SWF;
+
+public class FontBatchTranscoderTest
+{
+
+    private File dir;
+
+    private File font;
+
+    private FontBatchTranscoder transcoder;
+
+    @BeforeMethod
+    public void setUp()
+        throws IOException
+    {
+        dir = new File( "target/font-batch-transcoder" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+        dir.mkdirs();
+
+        // public domain face with A, B, C and space, generated for these tests
+        font = new File( dir, "flexmojos-test.ttf" );
+        FileUtils.copyFile( new File( "target/test-classes/fonts/flexmojos-test.ttf" ), font );
+
+        transcoder = new FontBatchTranscoder( new File( dir, "fingerprints" ), 4 );
+    }
+
+    private FontFace face( String alias, boolean bold, boolean italic, Font2SWF.DefineFontKind kind )
+    {
+        FontFace face = new FontFace();
+        face.setFile( font );
+        face.setAlias( alias );
+        face.setBold( bold );
+        face.setItalic( italic );
+        face.setTranscoder( kind );
+        face.setUnicodeRanges( "U+0020,U+0041-U+0043" );
+        return face;
+    }
+
+    private Map<File, FontFace> faces()
+    {
+        Map<File, FontFace> faces = new LinkedHashMap<File, FontFace>();
+        faces.put( new File( dir, "regular.swf" ), face( "Test", false, false, Font2SWF.DefineFontKind.DEFINEFONT4 ) );
+        faces.put( new File( dir, "bold.swf" ), face( "Test", true, false, Font2SWF.DefineFontKind.DEFINEFONT3 ) );
+        faces.put( new File( dir, "italic.swf" ), face( "Test", false, true, Font2SWF.DefineFontKind.DEFINEFONT4 ) );
+        faces.put( new File( dir, "boldItalic.swf" ), face( "Test", true, true, Font2SWF.DefineFontKind.DEFINEFONT3 ) );
+        return faces;
+    }
+
+    @Test
+    public void transcodesEveryFace()
+        throws Exception
+    {
+        Map<File, FontFace> faces = faces();
+
+        assertThat( transcoder.transcode( faces ), equalTo( Arrays.asList( faces.keySet().toArray( new File[0] ) ) ) );
+        for ( File swf : faces.keySet() )
+        {
+            assertThat( swf.getName(), isSwf( swf ), equalTo( true ) );
+        }
+        assertThat( dir.list( new FilenameFilter()
+        {
+            public boolean accept( File parent, String name )
+            {
+                return name.endsWith( ".tmp" );
+            }
+        } ).length, equalTo( 0 ) );
+    }
+
+    @Test
+    public void skipsUnchangedFaces()
+        throws Exception
+    {
+        Map<File, FontFace> faces = faces();
+        transcoder.transcode( faces );
+
+        File regular = new File( dir, "regular.swf" );
+        long lastModified = regular.lastModified() - 10000;
+        regular.setLastModified( lastModified );
+
+        assertThat( transcoder.transcode( faces ), equalTo( Collections.<File> emptyList() ) );
+        assertThat( regular.lastModified(), equalTo( lastModified ) );
+    }
+
+    @Test
+    public void retranscodesChangedSettings()
+        throws Exception
+    {
+        Map<File, FontFace> faces = faces();
+        transcoder.transcode( faces );
+
+        File bold = new File( dir, "bold.swf" );
+        faces.get( bold ).setUnicodeRanges( "U+0041" );
+
+        assertThat( transcoder.transcode( faces ), equalTo( Arrays.asList( bold ) ) );
+    }
+
+    @Test
+    public void retranscodesChangedFont()
+        throws Exception
+    {
+        Map<File, FontFace> faces = faces();
+        transcoder.transcode( faces );
+
+        font.setLastModified( font.lastModified() + 10000 );
+
+        assertThat( transcoder.transcode( faces ).size(), equalTo( faces.size() ) );
+    }
+
+    @Test
+    public void retranscodesMissingSwf()
+        throws Exception
+    {
+        Map<File, FontFace> faces = faces();
+        transcoder.transcode( faces );
+
+        File italic = new File( dir, "italic.swf" );
+        italic.delete();
+
+        assertThat( transcoder.transcode( faces ), equalTo( Arrays.asList( italic ) ) );
+    }
+
+    private static boolean isSwf( File file )
+        throws IOException
+    {
+        byte[] signature = new byte[3];
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            if ( in.read( signature ) != 3 )
+            {
+                return false;
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        String magic = new String( signature, "US-ASCII" );
+        return "FWS".equals( magic ) || "CWS".equals( magic );
+    }
+
+}
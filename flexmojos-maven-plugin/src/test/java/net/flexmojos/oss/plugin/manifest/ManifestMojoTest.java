@@ -0,0 +1,117 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.manifest;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.testng.annotations.Test;
+
+public class ManifestMojoTest
+{
+
+    @Test
+    public void stripsOnlyTheExtension()
+        throws Exception
+    {
+        Xpp3Dom dom =
+            ManifestMojo.createManifest( Arrays.asList( "com/acme.assets/Icon.as", "net/my.ascii/Table.mxml",
+                                                        "org/flex/Canvas.as", "Root.mxml" ) );
+
+        assertComponent( dom.getChild( 0 ), "Icon", "com.acme.assets.Icon" );
+        assertComponent( dom.getChild( 1 ), "Table", "net.my.ascii.Table" );
+        assertComponent( dom.getChild( 2 ), "Canvas", "org.flex.Canvas" );
+        assertComponent( dom.getChild( 3 ), "Root", "Root" );
+    }
+
+    @Test
+    public void windowsSeparators()
+        throws Exception
+    {
+        Xpp3Dom dom = ManifestMojo.createManifest( Arrays.asList( "com\\acme.assets\\Icon.as" ) );
+
+        assertComponent( dom.getChild( 0 ), "Icon", "com.acme.assets.Icon" );
+    }
+
+    @Test
+    public void sortedByClassName()
+        throws Exception
+    {
+        Xpp3Dom a = ManifestMojo.createManifest( Arrays.asList( "b/Second.as", "a/First.mxml", "c/Third.as" ) );
+        Xpp3Dom b = ManifestMojo.createManifest( Arrays.asList( "c/Third.as", "b/Second.as", "a/First.mxml" ) );
+
+        assertThat( a, equalTo( b ) );
+        assertComponent( a.getChild( 0 ), "First", "a.First" );
+        assertComponent( a.getChild( 2 ), "Third", "c.Third" );
+    }
+
+    @Test
+    public void sameClassOnTwoSourceRoots()
+        throws Exception
+    {
+        Xpp3Dom dom = ManifestMojo.createManifest( Arrays.asList( "com/acme/Main.as", "com/acme/Main.as" ) );
+
+        assertThat( dom.getChildCount(), equalTo( 1 ) );
+    }
+
+    @Test( expectedExceptions = MojoFailureException.class )
+    public void duplicatedId()
+        throws Exception
+    {
+        ManifestMojo.createManifest( Arrays.asList( "com/acme/Button.as", "com/acme/ui/Button.mxml" ) );
+    }
+
+    @Test
+    public void writesOnlyWhenChanged()
+        throws Exception
+    {
+        File manifest = new File( "target/manifest-mojo/manifest.xml" ).getAbsoluteFile();
+        manifest.delete();
+
+        Xpp3Dom dom = ManifestMojo.createManifest( Arrays.asList( "com/acme/\u00c9clair.as" ) );
+        assertThat( ManifestMojo.write( dom, manifest ), equalTo( true ) );
+        assertThat( read( manifest ).startsWith( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" ), equalTo( true ) );
+        assertThat( read( manifest ).contains( "com.acme.\u00c9clair" ), equalTo( true ) );
+
+        assertThat( ManifestMojo.write( ManifestMojo.createManifest( Arrays.asList( "com/acme/\u00c9clair.as" ) ),
+                                        manifest ), equalTo( false ) );
+
+        assertThat( ManifestMojo.write( ManifestMojo.createManifest( Arrays.asList( "com/acme/Other.as" ) ),
+                                        manifest ), equalTo( true ) );
+    }
+
+    private static void assertComponent( Xpp3Dom component, String id, String classname )
+    {
+        assertThat( component.getAttribute( "id" ), equalTo( id ) );
+        assertThat( component.getAttribute( "class" ), equalTo( classname ) );
+    }
+
+    private static String read( File file )
+        throws IOException
+    {
+        return FileUtils.fileRead( file, "UTF-8" );
+    }
+
+}
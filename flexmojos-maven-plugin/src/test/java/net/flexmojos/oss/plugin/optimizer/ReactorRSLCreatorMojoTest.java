@@ -0,0 +1,219 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.optimizer;
+
+import static org.codehaus.plexus.util.ReflectionUtils.setVariableValueInObject;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import net.flexmojos.oss.compiler.FlexCompiler;
+import net.flexmojos.oss.compiler.IDigestConfiguration;
+import net.flexmojos.oss.compiler.IOptimizerConfiguration;
+import net.flexmojos.oss.compiler.command.Result;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ReactorRSLCreatorMojoTest
+{
+
+    private static final int MODULES = 8;
+
+    private File dir;
+
+    private List<MavenProject> projects;
+
+    private FlexCompiler compiler;
+
+    private MavenProjectHelper projectHelper;
+
+    /**
+     * threads the memoized getters were called from
+     */
+    private final Set<Thread> getterThreads = Collections.synchronizedSet( new HashSet<Thread>() );
+
+    @BeforeMethod
+    public void createReactor()
+        throws Exception
+    {
+        dir = new File( "target/reactor-rsl-creator" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+
+        projects = new ArrayList<MavenProject>();
+        for ( int i = 0; i < MODULES; i++ )
+        {
+            projects.add( swcProject( "module" + i ) );
+        }
+
+        compiler = mock( FlexCompiler.class );
+        final Result result = mock( Result.class );
+        Answer<Result> optimizer = new Answer<Result>()
+        {
+            public Result answer( InvocationOnMock invocation )
+                throws Throwable
+            {
+                IOptimizerConfiguration cfg = (IOptimizerConfiguration) invocation.getArguments()[0];
+                FileUtils.copyFile( new File( cfg.getInput() ), new File( cfg.getOutput() ) );
+                return result;
+            }
+        };
+        when( compiler.optimize( any( IOptimizerConfiguration.class ), anyBoolean(), anyString() ) ).thenAnswer(
+            optimizer );
+        when( compiler.digest( any( IDigestConfiguration.class ), anyBoolean(), anyString() ) ).thenReturn( result );
+        projectHelper = mock( MavenProjectHelper.class );
+        getterThreads.clear();
+    }
+
+    private MavenProject swcProject( String artifactId )
+        throws IOException
+    {
+        File basedir = new File( dir, artifactId );
+        File swc = new File( basedir, "target/" + artifactId + ".swc" );
+        swc.getParentFile().mkdirs();
+        ZipOutputStream out = new ZipOutputStream( new FileOutputStream( swc ) );
+        try
+        {
+            out.putNextEntry( new ZipEntry( "library.swf" ) );
+            out.write( ( "swf of " + artifactId ).getBytes( "UTF-8" ) );
+            out.closeEntry();
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+
+        Artifact artifact = mock( Artifact.class );
+        when( artifact.getFile() ).thenReturn( swc );
+
+        MavenProject project = new MavenProject();
+        project.setGroupId( "com.acme" );
+        project.setArtifactId( artifactId );
+        project.setVersion( "1.0" );
+        project.setPackaging( "swc" );
+        project.setArtifact( artifact );
+        project.getBuild().setDirectory( new File( basedir, "target" ).getPath() );
+        project.getBuild().setOutputDirectory( new File( basedir, "target/classes" ).getPath() );
+        project.getBuild().setFinalName( artifactId );
+        return project;
+    }
+
+    private ReactorRSLCreatorMojo createMojo( int threads, File cache )
+        throws Exception
+    {
+        ReactorRSLCreatorMojo mojo = new ReactorRSLCreatorMojo()
+        {
+            @Override
+            public String[] getLoadConfig()
+            {
+                getterThreads.add( Thread.currentThread() );
+                return new String[0];
+            }
+
+            @Override
+            public String[] getKeepAs3Metadata()
+            {
+                getterThreads.add( Thread.currentThread() );
+                return new String[] { "Bindable" };
+            }
+
+            @Override
+            public String getCompilerVersion()
+            {
+                getterThreads.add( Thread.currentThread() );
+                return "4.12.0";
+            }
+
+            @Override
+            public String getClassifier()
+            {
+                getterThreads.add( Thread.currentThread() );
+                return null;
+            }
+        };
+        mojo.setLog( mock( Log.class ) );
+        setVariableValueInObject( mojo, "reactorProjects", projects );
+        setVariableValueInObject( mojo, "rslThreads", threads );
+        setVariableValueInObject( mojo, "compiler", compiler );
+        setVariableValueInObject( mojo, "projectHelper", projectHelper );
+        setVariableValueInObject( mojo, "optimizeRsl", true );
+        setVariableValueInObject( mojo, "updateSwcDigest", true );
+        setVariableValueInObject( mojo, "rslCacheDirectory", cache );
+        return mojo;
+    }
+
+    @Test
+    public void createsEveryRslConcurrently()
+        throws Exception
+    {
+        createMojo( 4, null ).fmExecute();
+
+        for ( MavenProject project : projects )
+        {
+            File rsl = new File( project.getBuild().getDirectory(), project.getArtifactId() + ".swf" );
+            assertThat( FileUtils.fileRead( rsl, "UTF-8" ), equalTo( "swf of " + project.getArtifactId() ) );
+            verify( projectHelper ).attachArtifact( project, "swf", rsl );
+        }
+    }
+
+    @Test
+    public void settingsAreResolvedBeforeGoingParallel()
+        throws Exception
+    {
+        createMojo( 4, new File( dir, "rsl-cache" ) ).fmExecute();
+
+        assertThat( getterThreads, equalTo( Collections.singleton( Thread.currentThread() ) ) );
+    }
+
+    @Test
+    public void cachedRslsAreReused()
+        throws Exception
+    {
+        File cache = new File( dir, "rsl-cache" );
+        createMojo( 4, cache ).fmExecute();
+        createMojo( 4, cache ).fmExecute();
+
+        verify( compiler, times( MODULES ) ).optimize( any( IOptimizerConfiguration.class ), eq( true ), anyString() );
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.test.scanners;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.equalTo;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.Test;
+
+public class AS3ContentFlexClassScannerTest
+{
+
+    private static final String COMMENTS_REGEX = "//.*|(\"(?:\\\\[^\"]|\\\\\"|.)*?\")|(?s)/\\*.*?\\*/";
+
+    @Test
+    public void stripCommentsLikeTheRegex()
+    {
+        char[] alphabet = { '/', '*', '"', '\\', '\n', '\r', 'a', ' ', ' ' };
+        Random random = new Random( 42 );
+        for ( int i = 0; i < 100000; i++ )
+        {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt( 25 );
+            for ( int j = 0; j < length; j++ )
+            {
+                sb.append( alphabet[random.nextInt( alphabet.length )] );
+            }
+            String contents = sb.toString();
+            assertThat( contents, AS3ContentFlexClassScanner.stripComments( contents ),
+                        equalTo( contents.replaceAll( COMMENTS_REGEX, "$1 " ) ) );
+        }
+    }
+
+    @Test
+    public void classesAndSnippets()
+        throws Exception
+    {
+        File dir = new File( "target/as3-content-scanner" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+        dir.mkdirs();
+
+        FileUtils.fileWrite( new File( dir, "ATest.as" ).getPath(), "package {\n public class ATest {}\n}" );
+        FileUtils.fileWrite( new File( dir, "BTest.as" ).getPath(), "// public class BTest\n/* class BTest */ var a;" );
+        FileUtils.fileWrite( new File( dir, "CTest.as" ).getPath(), "var s = \"// not a comment\"; interface CTest" );
+        FileUtils.fileWrite( new File( dir, "DTest.mxml" ).getPath(), "<mx:Application/>" );
+
+        AS3ContentFlexClassScanner scanner = new AS3ContentFlexClassScanner();
+        scanner.enableLogging( new ConsoleLogger( Logger.LEVEL_INFO, "test" ) );
+        scanner.scan( new File[] { dir }, new String[0], new HashMap<String, Object>() );
+
+        assertThat( scanner.getAs3Classes().size(), equalTo( 3 ) );
+        assertThat( scanner.getAs3Classes().containsAll( Arrays.asList( "ATest.as", "CTest.as", "DTest.mxml" ) ),
+                    equalTo( true ) );
+        assertThat( scanner.getAs3Snippets(), equalTo( Arrays.asList( "BTest.as" ) ) );
+    }
+
+}
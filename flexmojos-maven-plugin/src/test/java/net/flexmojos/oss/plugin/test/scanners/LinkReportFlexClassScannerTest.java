@@ -0,0 +1,94 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.test.scanners;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.equalTo;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.flexmojos.oss.plugin.common.FlexClassifier;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LinkReportFlexClassScannerTest
+{
+
+    private File sources;
+
+    private File linkReport;
+
+    @BeforeMethod
+    public void createSources()
+        throws Exception
+    {
+        File base = new File( "target/link-report-scanner" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( base );
+        sources = new File( base, "src" );
+
+        for ( String file : new String[] { "ATest.as", "pkg/BTest.mxml", "pkg/CTest.as", "pkg/Excluded.as" } )
+        {
+            File f = new File( sources, file );
+            f.getParentFile().mkdirs();
+            f.createNewFile();
+        }
+
+        String sep = File.separator;
+        linkReport = new File( base, "link-report.xml" );
+        FileUtils.fileWrite( linkReport.getPath(), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+            + "<report>\n  <scripts>\n" //
+            + "    <script name=\"" + sources.getPath() + sep + "ATest.as\" mod=\"1\" size=\"10\">\n" //
+            + "      <def id=\"ATest\" />\n      <dep id=\"Object\" />\n    </script>\n" //
+            + "    <script name=\"" + sources.getPath() + sep + "pkg" + sep + "BTest.mxml\" />\n" //
+            + "    <script name=\"" + sources.getPath() + sep + "pkg" + sep + "Excluded.as\" />\n" //
+            + "    <script name=\"/somewhere/else/CTest.as\" />\n" //
+            + "  </scripts>\n  <external-defs>\n    <ext id=\"pkg:CTest\" />\n  </external-defs>\n</report>\n" );
+    }
+
+    @Test
+    public void keepsOnlyLinkedAndIncludedFiles()
+    {
+        Map<String, Object> context = new HashMap<String, Object>();
+        context.put( FlexClassifier.LINK_REPORT, linkReport );
+
+        LinkReportFlexClassScanner scanner = new LinkReportFlexClassScanner();
+        scanner.scan( new File[] { sources }, new String[] { "**/Excluded.as" }, context );
+
+        assertThat( scanner.getAs3Classes().size(), equalTo( 2 ) );
+        assertThat( scanner.getAs3Classes().containsAll( Arrays.asList( "ATest.as", "pkg" + File.separator
+            + "BTest.mxml" ) ), equalTo( true ) );
+    }
+
+    @Test( expectedExceptions = IllegalStateException.class )
+    public void invalidLinkReport()
+        throws Exception
+    {
+        FileUtils.fileWrite( linkReport.getPath(), "<report><script name=\"x\"></report>" );
+
+        Map<String, Object> context = new HashMap<String, Object>();
+        context.put( FlexClassifier.LINK_REPORT, linkReport );
+
+        new LinkReportFlexClassScanner().scan( new File[] { sources }, new String[0], context );
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.PluginManagement;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.testng.annotations.Test;
+
+public class CompileConfigurationLoaderTest
+{
+
+    private static Xpp3Dom configuration( String... options )
+    {
+        Xpp3Dom configuration = new Xpp3Dom( "configuration" );
+        for ( int i = 0; i < options.length; i += 2 )
+        {
+            Xpp3Dom option = new Xpp3Dom( options[i] );
+            option.setValue( options[i + 1] );
+            configuration.addChild( option );
+        }
+        return configuration;
+    }
+
+    private static Plugin plugin( String artifactId, Xpp3Dom configuration, Xpp3Dom... executions )
+    {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId( "net.flexmojos.oss" );
+        plugin.setArtifactId( artifactId );
+        plugin.setConfiguration( configuration );
+        for ( int i = 0; i < executions.length; i++ )
+        {
+            PluginExecution execution = new PluginExecution();
+            execution.setId( "execution-" + i );
+            execution.setConfiguration( executions[i] );
+            plugin.addExecution( execution );
+        }
+        return plugin;
+    }
+
+    private static MavenProject project( Plugin plugin, Plugin managed )
+    {
+        Model model = new Model();
+        model.setBuild( new Build() );
+        if ( plugin != null )
+        {
+            model.getBuild().addPlugin( plugin( "maven-compiler-plugin", configuration( "debug", "compiler" ) ) );
+            model.getBuild().addPlugin( plugin );
+        }
+        if ( managed != null )
+        {
+            model.getBuild().setPluginManagement( new PluginManagement() );
+            model.getBuild().getPluginManagement().addPlugin( managed );
+        }
+        return new MavenProject( model );
+    }
+
+    @Test
+    public void executionsOverridePluginConfiguration()
+    {
+        MavenProject project =
+            project( plugin( "flexmojos-maven-plugin", configuration( "debug", "plugin", "locale", "en_US" ),
+                             configuration( "debug", "first" ), null, configuration( "debug", "last" ) ), null );
+
+        assertThat( CompileConfigurationLoader.getCompilerPluginSetting( project, "debug" ), equalTo( "last" ) );
+        assertThat( CompileConfigurationLoader.getCompilerPluginSetting( project, "locale" ), equalTo( "en_US" ) );
+        assertThat( CompileConfigurationLoader.getCompilerPluginSetting( project, "missing" ), nullValue() );
+    }
+
+    @Test
+    public void pluginsOverridePluginManagement()
+    {
+        MavenProject project =
+            project( plugin( "flexmojos-maven-plugin", configuration( "debug", "plugin" ) ),
+                     plugin( "flexmojos-maven-plugin", configuration( "debug", "managed", "locale", "pt_BR" ) ) );
+
+        assertThat( CompileConfigurationLoader.getCompilerPluginSetting( project, "debug" ), equalTo( "plugin" ) );
+        assertThat( CompileConfigurationLoader.getCompilerPluginSetting( project, "locale" ), equalTo( "pt_BR" ) );
+    }
+
+    @Test
+    public void onlyPluginManagement()
+    {
+        MavenProject project =
+            project( null, plugin( "flexmojos-maven-plugin", null, configuration( "debug", "managed" ) ) );
+
+        assertThat( CompileConfigurationLoader.getCompilerPluginSetting( project, "debug" ), equalTo( "managed" ) );
+    }
+
+    @Test
+    public void noFlexmojosPlugin()
+    {
+        MavenProject project = project( plugin( "maven-jar-plugin", configuration( "debug", "jar" ) ), null );
+
+        assertThat( CompileConfigurationLoader.getCompilerPluginSetting( project, "debug" ), nullValue() );
+        assertThat( CompileConfigurationLoader.getCompilerPluginSettings( project, "debug" ), nullValue() );
+    }
+
+    @Test
+    public void listSettings()
+    {
+        Xpp3Dom locales = new Xpp3Dom( "localesRuntime" );
+        for ( String locale : new String[] { "en_US", "pt_BR" } )
+        {
+            Xpp3Dom child = new Xpp3Dom( "locale" );
+            child.setValue( locale );
+            locales.addChild( child );
+        }
+        Xpp3Dom configuration = configuration();
+        configuration.addChild( locales );
+
+        MavenProject project = project( plugin( "flexmojos-maven-plugin", configuration ), null );
+
+        assertThat( CompileConfigurationLoader.getCompilerPluginSettings( project, "localesRuntime" ),
+                    equalTo( new String[] { "en_US", "pt_BR" } ) );
+    }
+
+    @Test
+    public void projectsWithSameCoordinates()
+    {
+        MavenProject first = project( plugin( "flexmojos-maven-plugin", configuration( "debug", "first" ) ), null );
+        MavenProject second = project( plugin( "flexmojos-maven-plugin", configuration( "debug", "second" ) ), null );
+
+        assertThat( CompileConfigurationLoader.getCompilerPluginSetting( first, "debug" ), equalTo( "first" ) );
+        assertThat( CompileConfigurationLoader.getCompilerPluginSetting( second, "debug" ), equalTo( "second" ) );
+    }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.equalTo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.flexmojos.oss.compiler.command.Result;
+import net.flexmojos.oss.plugin.utilities.CompilerMetrics.Invocation;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.Test;
+
+public class CompilerMetricsTest
+{
+
+    private Invocation invocation( String tool, String classifier, long duration, int exitCode )
+    {
+        Map<String, Long> phases = new LinkedHashMap<String, Long>();
+        phases.put( "arguments", 5L );
+        phases.put( "execution", duration - 5 );
+        return new Invocation( "g:a:swf:1.0", "target", tool, classifier, 1000L, duration, exitCode, phases );
+    }
+
+    @Test
+    public void json()
+    {
+        String json =
+            CompilerMetrics.toJson( Arrays.asList( invocation( "compileSwf", null, 100, 0 ),
+                                                   invocation( "compileSwf", "en_\"US", 50, 2 ) ) );
+
+        assertThat( json, equalTo( "{\n  \"invocations\": [\n"
+            + "    {\"project\": \"g:a:swf:1.0\", \"tool\": \"compileSwf\", \"classifier\": null, \"start\": 1000, "
+            + "\"duration\": 100, \"exitCode\": 0, \"phases\": {\"arguments\": 5, \"execution\": 95}},\n"
+            + "    {\"project\": \"g:a:swf:1.0\", \"tool\": \"compileSwf\", \"classifier\": \"en_\\\"US\", \"start\": 1000, "
+            + "\"duration\": 50, \"exitCode\": 2, \"phases\": {\"arguments\": 5, \"execution\": 45}}\n"
+            + "  ],\n  \"totals\": {\n    \"compileSwf\": {\"count\": 2, \"duration\": 150}\n  }\n}\n" ) );
+    }
+
+    @Test
+    public void csv()
+    {
+        String csv = CompilerMetrics.toCsv( Arrays.asList( invocation( "optimize", "a,b", 20, 0 ) ) );
+
+        assertThat( csv, equalTo( "project,tool,classifier,start,exitCode,phase,duration\n"
+            + "g:a:swf:1.0,optimize,\"a,b\",1000,0,arguments,5\n" + "g:a:swf:1.0,optimize,\"a,b\",1000,0,execution,15\n"
+            + "g:a:swf:1.0,optimize,\"a,b\",1000,0,total,20\n" ) );
+    }
+
+    @Test
+    public void projectReportOnlyWhenSomethingWasRecorded()
+        throws IOException
+    {
+        File dir = new File( "target/compiler-metrics" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+
+        MavenProject a = project( new File( dir, "a" ), "a" );
+        MavenProject b = project( new File( dir, "b" ), "b" );
+
+        CompilerMetrics metrics = new CompilerMetrics();
+        metrics.record( a, null, result( "compileSwf" ), 0 );
+        metrics.record( b, null, result( "compileSwc" ), 0 );
+        metrics.record( a, "en_US", result( "compileSwf" ), 0 );
+
+        File report = new File( dir, "a/flexmojos/" + CompilerMetrics.REPORT_NAME + ".csv" );
+        assertThat( report.exists(), equalTo( false ) );
+
+        metrics.writeProjectReport( a );
+        String csv = FileUtils.fileRead( report, "UTF-8" );
+        assertThat( csv.contains( "g:a:swf:1.0,compileSwf,,1000" ), equalTo( true ) );
+        assertThat( csv.contains( "g:a:swf:1.0,compileSwf,en_US,1000" ), equalTo( true ) );
+        assertThat( csv.contains( "compileSwc" ), equalTo( false ) );
+
+        report.delete();
+        metrics.writeProjectReport( a );
+        assertThat( report.exists(), equalTo( false ) );
+
+        assertThat( metrics.getInvocations().size(), equalTo( 3 ) );
+    }
+
+    private static MavenProject project( File buildDirectory, String artifactId )
+    {
+        Model model = new Model();
+        model.setGroupId( "g" );
+        model.setArtifactId( artifactId );
+        model.setPackaging( "swf" );
+        model.setVersion( "1.0" );
+        model.setBuild( new Build() );
+        model.getBuild().setDirectory( buildDirectory.getPath() );
+        return new MavenProject( model );
+    }
+
+    private static Result result( String tool )
+    {
+        Result result = new Result();
+        result.setTool( tool );
+        result.setStartTime( 1000L );
+        result.setEndTime( 1100L );
+        result.addPhase( "execution", 100L );
+        return result;
+    }
+
+}
@@ -0,0 +1,258 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+public class DitaFragmentMergerTest
+{
+
+    private static final String DOCTYPE =
+        "<!DOCTYPE apiPackage PUBLIC \"-//IDEAlliance//DTD DITA API Package//EN\" \"apiPackage.dtd\">";
+
+    private File dir;
+
+    @BeforeMethod
+    public void clean()
+        throws IOException
+    {
+        dir = new File( "target/dita-fragment-merger" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+    }
+
+    @Test
+    public void matchesMonolithicRun()
+        throws Exception
+    {
+        File monolithic = new File( dir, "monolithic" );
+        writePackages( monolithic, "com.acme", "com.acme.ui", "com.acme.util" );
+        writePackage( monolithic, "com.acme", "Config", "Main", "Shared" );
+        writePackage( monolithic, "com.acme.ui", "Button" );
+        writePackage( monolithic, "com.acme.util", "Strings" );
+
+        // the com.acme package is split over both modules, Shared is documented by both
+        File core = new File( dir, "core" );
+        writePackages( core, "com.acme", "com.acme.util" );
+        writePackage( core, "com.acme", "Main", "Shared" );
+        writePackage( core, "com.acme.util", "Strings" );
+
+        File ui = new File( dir, "ui" );
+        writePackages( ui, "com.acme", "com.acme.ui" );
+        writePackage( ui, "com.acme", "Config", "Shared" );
+        writePackage( ui, "com.acme.ui", "Button" );
+
+        File merged = new File( dir, "merged" );
+        assertThat( DitaFragmentMerger.merge( Arrays.asList( core, ui, new File( dir, "missing" ) ), merged ),
+                    equalTo( 4 ) );
+
+        for ( String name : new String[] { "packages.dita", "com.acme.xml", "com.acme.ui.xml", "com.acme.util.xml" } )
+        {
+            assertThat( name, new TreeSet<String>( keys( new File( merged, name ) ) ),
+                        equalTo( new TreeSet<String>( keys( new File( monolithic, name ) ) ) ) );
+        }
+    }
+
+    /**
+     * Two modules documented on their own against the asdoc output of a single aggregated run over both, unkeyed
+     * elements after the classes (related links) included.
+     */
+    @Test
+    public void matchesMonolithicFixture()
+        throws Exception
+    {
+        File fixture = new File( "target/test-classes/asdoc-fragments" );
+        File monolithic = new File( fixture, "monolithic" );
+
+        File merged = new File( dir, "merged" );
+        DitaFragmentMerger.merge( Arrays.asList( new File( fixture, "core" ), new File( fixture, "ui" ) ), merged );
+
+        assertThat( new TreeSet<String>( Arrays.asList( merged.list() ) ),
+                    equalTo( new TreeSet<String>( Arrays.asList( monolithic.list() ) ) ) );
+        for ( String name : monolithic.list() )
+        {
+            Element expected = parse( new File( monolithic, name ) );
+            Element actual = parse( new File( merged, name ) );
+            assertThat( name, actual.isEqualNode( expected ), equalTo( true ) );
+        }
+    }
+
+    @Test
+    public void deterministicOrder()
+        throws Exception
+    {
+        File first = new File( dir, "first" );
+        writePackage( first, "com.acme", "B" );
+        File second = new File( dir, "second" );
+        writePackage( second, "com.acme", "A" );
+
+        File merged = new File( dir, "merged" );
+        DitaFragmentMerger.merge( Arrays.asList( first, second ), merged );
+        String once = FileUtils.fileRead( new File( merged, "com.acme.xml" ), "UTF-8" );
+
+        FileUtils.deleteDirectory( merged );
+        DitaFragmentMerger.merge( Arrays.asList( first, second ), merged );
+
+        assertThat( FileUtils.fileRead( new File( merged, "com.acme.xml" ), "UTF-8" ), equalTo( once ) );
+        assertThat( keys( new File( merged, "com.acme.xml" ) ), equalTo( Arrays.asList( "apiName",
+                                                                                          "apiClassifier#com.acme:A",
+                                                                                          "apiClassifier#com.acme:B" ) ) );
+
+        FileUtils.deleteDirectory( merged );
+        DitaFragmentMerger.merge( Arrays.asList( second, first ), merged );
+        assertThat( FileUtils.fileRead( new File( merged, "com.acme.xml" ), "UTF-8" ), equalTo( once ) );
+    }
+
+    @Test
+    public void singleFragmentIsCopied()
+        throws Exception
+    {
+        File only = new File( dir, "only" );
+        writePackage( only, "com.acme", "Main" );
+        new File( only, "images" ).mkdirs();
+        FileUtils.fileWrite( new File( only, "images/logo.png" ).getAbsolutePath(), "png" );
+
+        File merged = new File( dir, "merged" );
+        DitaFragmentMerger.merge( Arrays.asList( only ), merged );
+
+        assertThat( FileUtils.fileRead( new File( merged, "com.acme.xml" ), "UTF-8" ),
+                    equalTo( FileUtils.fileRead( new File( only, "com.acme.xml" ), "UTF-8" ) ) );
+        assertThat( FileUtils.fileRead( new File( merged, "images/logo.png" ) ), equalTo( "png" ) );
+    }
+
+    @Test( expectedExceptions = IOException.class )
+    public void differentRoots()
+        throws Exception
+    {
+        File first = new File( dir, "first" );
+        writePackage( first, "com.acme", "Main" );
+        File second = new File( dir, "second" );
+        write( new File( second, "com.acme.xml" ), "<apiMap id=\"com.acme\" />" );
+
+        DitaFragmentMerger.merge( Arrays.asList( first, second ), new File( dir, "merged" ) );
+    }
+
+    private static void writePackages( File fragment, String... packages )
+        throws IOException
+    {
+        StringBuilder xml = new StringBuilder( "<apiMap id=\"packages\"><apiItemName>packages</apiItemName>" );
+        for ( String p : packages )
+        {
+            xml.append( "<topicref href=\"" ).append( p ).append( ".xml\" navtitle=\"" ).append( p ).append( "\"/>" );
+        }
+        xml.append( "</apiMap>" );
+        write( new File( fragment, "packages.dita" ), xml.toString() );
+    }
+
+    private static void writePackage( File fragment, String name, String... classes )
+        throws IOException
+    {
+        StringBuilder xml = new StringBuilder( DOCTYPE );
+        xml.append( "<apiPackage id=\"" ).append( name ).append( "\"><apiName>" ).append( name ).append( "</apiName>" );
+        for ( String c : classes )
+        {
+            xml.append( "<apiClassifier id=\"" ).append( name ).append( ':' ).append( c ).append( "\"><apiName>" );
+            xml.append( c ).append( "</apiName><apiClassifierDetail><apiDesc><p>" ).append( c );
+            xml.append( " docs</p></apiDesc></apiClassifierDetail></apiClassifier>" );
+        }
+        xml.append( "</apiPackage>" );
+        write( new File( fragment, name + ".xml" ), xml.toString() );
+    }
+
+    private static void write( File file, String content )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file.getAbsolutePath(), "UTF-8", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + content );
+    }
+
+    /**
+     * @return the root element, without the whitespace between elements
+     */
+    private static Element parse( File file )
+        throws Exception
+    {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature( "http://apache.org/xml/features/nonvalidating/load-external-dtd", false );
+        Element root = factory.newDocumentBuilder().parse( file ).getDocumentElement();
+        removeWhitespace( root );
+        return root;
+    }
+
+    private static void removeWhitespace( Node node )
+    {
+        NodeList children = node.getChildNodes();
+        for ( int i = children.getLength() - 1; i >= 0; i-- )
+        {
+            Node child = children.item( i );
+            if ( child.getNodeType() == Node.TEXT_NODE && child.getNodeValue().trim().length() == 0 )
+            {
+                node.removeChild( child );
+            }
+            else
+            {
+                removeWhitespace( child );
+            }
+        }
+    }
+
+    private static List<String> keys( File file )
+        throws Exception
+    {
+        Element root = parse( file );
+
+        List<String> keys = new ArrayList<String>();
+        NodeList children = root.getChildNodes();
+        for ( int i = 0; i < children.getLength(); i++ )
+        {
+            if ( children.item( i ).getNodeType() != Node.ELEMENT_NODE )
+            {
+                continue;
+            }
+            Element child = (Element) children.item( i );
+            String key = child.getTagName();
+            if ( child.hasAttribute( "id" ) )
+            {
+                key += "#" + child.getAttribute( "id" );
+            }
+            else if ( child.hasAttribute( "href" ) )
+            {
+                key += "@" + child.getAttribute( "href" );
+            }
+            keys.add( key );
+        }
+        return keys;
+    }
+
+}
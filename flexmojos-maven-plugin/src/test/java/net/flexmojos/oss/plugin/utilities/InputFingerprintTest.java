@@ -0,0 +1,156 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class InputFingerprintTest
+{
+
+    private File sources;
+
+    private File library;
+
+    @BeforeMethod
+    public void createInputs()
+        throws IOException
+    {
+        File dir = new File( "target/input-fingerprint" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+
+        sources = new File( dir, "src" );
+        write( new File( sources, "com/acme/Main.as" ), "package com.acme { public class Main {} }" );
+        write( new File( sources, "com/acme/ui/Button.mxml" ), "<s:Button />" );
+
+        library = new File( dir, "lib.swc" );
+        write( library, "swc" );
+    }
+
+    private String fingerprint( String title )
+    {
+        return new InputFingerprint().addFiles( "sourcePath", sources ).addFiles( "libraryPath", library ).add( "title",
+                                                                                                              title ).get();
+    }
+
+    @Test
+    public void unchangedInputs()
+    {
+        assertThat( fingerprint( "Docs" ), equalTo( fingerprint( "Docs" ) ) );
+    }
+
+    @Test
+    public void modifiedSource()
+        throws IOException
+    {
+        String before = fingerprint( "Docs" );
+
+        File main = new File( sources, "com/acme/Main.as" );
+        long lastModified = main.lastModified();
+        write( main, "package com.acme { public class Main { public var i:int; } }" );
+        main.setLastModified( lastModified + 2000 );
+
+        assertThat( fingerprint( "Docs" ), not( equalTo( before ) ) );
+    }
+
+    @Test
+    public void touchedLibrary()
+    {
+        String before = fingerprint( "Docs" );
+
+        library.setLastModified( library.lastModified() + 2000 );
+
+        assertThat( fingerprint( "Docs" ), not( equalTo( before ) ) );
+    }
+
+    @Test
+    public void addedAndRemovedSource()
+        throws IOException
+    {
+        String before = fingerprint( "Docs" );
+
+        File added = new File( sources, "com/acme/Added.as" );
+        write( added, "package com.acme { public class Added {} }" );
+        assertThat( fingerprint( "Docs" ), not( equalTo( before ) ) );
+
+        added.delete();
+        assertThat( fingerprint( "Docs" ), equalTo( before ) );
+
+        new File( sources, "com/acme/ui/Button.mxml" ).delete();
+        assertThat( fingerprint( "Docs" ), not( equalTo( before ) ) );
+    }
+
+    @Test
+    public void changedConfiguration()
+    {
+        assertThat( fingerprint( "Docs" ), not( equalTo( fingerprint( "Other Docs" ) ) ) );
+        assertThat( fingerprint( null ), not( equalTo( fingerprint( "null" ) ) ) );
+    }
+
+    @Test
+    public void valuesDoNotRunTogether()
+    {
+        String ab = new InputFingerprint().add( "a", "b" ).add( "c", "" ).get();
+        String a = new InputFingerprint().add( "a", "" ).add( "bc", "" ).get();
+
+        assertThat( ab, not( equalTo( a ) ) );
+    }
+
+    @Test
+    public void missingFile()
+    {
+        File missing = new File( sources, "missing.swc" );
+        String before = new InputFingerprint().addFiles( "libraryPath", missing ).get();
+
+        assertThat( new InputFingerprint().addFiles( "libraryPath", missing ).get(), equalTo( before ) );
+        assertThat( new InputFingerprint().addFiles( "libraryPath", library ).get(), not( equalTo( before ) ) );
+    }
+
+    @Test
+    public void readAndWrite()
+        throws IOException
+    {
+        File file = new File( sources.getParentFile(), "flexmojos/asdoc.fingerprint" );
+        assertThat( InputFingerprint.read( file ), nullValue() );
+
+        String fingerprint = fingerprint( "Docs" );
+        InputFingerprint.write( file, fingerprint );
+        assertThat( InputFingerprint.read( file ), equalTo( fingerprint ) );
+
+        InputFingerprint.write( file, "other" );
+        assertThat( InputFingerprint.read( file ), equalTo( "other" ) );
+        assertThat( file.getParentFile().list().length, equalTo( 1 ) );
+    }
+
+    private static void write( File file, String content )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file.getAbsolutePath(), "UTF-8", content );
+    }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ReproducibleZipTest
+{
+
+    private static final String[] NAMES =
+        { "index.html", "App.js", "css/app.css", "org/apache/flex/core/UIBase.js", "org/apache/flex/core/View.js",
+            "org/apache/flex/html/Button.js", "assets/logo.png", "assets/empty.txt" };
+
+    private File dir;
+
+    private File output;
+
+    @BeforeMethod
+    public void createOutput()
+        throws IOException
+    {
+        dir = new File( "target/reproducible-zip" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+
+        output = new File( dir, "bin/js-release" );
+        Random random = new Random( 7 );
+        for ( String name : NAMES )
+        {
+            byte[] content = new byte[name.endsWith( "empty.txt" ) ? 0 : 1024 + random.nextInt( 256 * 1024 )];
+            for ( int i = 0; i < content.length; i++ )
+            {
+                content[i] = (byte) ( name.endsWith( ".png" ) ? random.nextInt() : 'a' + random.nextInt( 8 ) );
+            }
+            write( new File( output, name ), content );
+        }
+    }
+
+    @Test
+    public void sameContentSameZip()
+        throws Exception
+    {
+        File first = new File( dir, "first.zip" );
+        ReproducibleZip.create( output, first, 1 );
+
+        Thread.sleep( 1100 );
+        for ( String name : NAMES )
+        {
+            new File( output, name ).setLastModified( System.currentTimeMillis() );
+        }
+
+        File second = new File( dir, "second.zip" );
+        ReproducibleZip.create( output, second, 4 );
+
+        assertThat( Arrays.equals( Files.readAllBytes( first.toPath() ), Files.readAllBytes( second.toPath() ) ),
+                    equalTo( true ) );
+    }
+
+    @Test
+    public void sortedRelativeEntries()
+        throws IOException
+    {
+        File zip = new File( dir, "output.zip" );
+        assertThat( ReproducibleZip.create( output, zip, 3 ), equalTo( 8 ) );
+
+        assertThat( entries( zip ), equalTo( Arrays.asList( "App.js", "assets/empty.txt", "assets/logo.png",
+                                                            "css/app.css", "index.html",
+                                                            "org/apache/flex/core/UIBase.js",
+                                                            "org/apache/flex/core/View.js",
+                                                            "org/apache/flex/html/Button.js" ) ) );
+
+        ZipFile zipFile = new ZipFile( zip );
+        try
+        {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while ( entries.hasMoreElements() )
+            {
+                ZipEntry entry = entries.nextElement();
+                InputStream in = zipFile.getInputStream( entry );
+                try
+                {
+                    byte[] expected = Files.readAllBytes( new File( output, entry.getName() ).toPath() );
+                    assertThat( entry.getName(), Arrays.equals( IOUtil.toByteArray( in ), expected ), equalTo( true ) );
+                }
+                finally
+                {
+                    IOUtil.close( in );
+                }
+            }
+        }
+        finally
+        {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public void symlinkedDirectory()
+        throws Exception
+    {
+        File link = new File( dir, "link" );
+        File loop = new File( output, "css/loop" );
+        try
+        {
+            Files.createSymbolicLink( link.toPath(), output.toPath() );
+            // a link back to a parent is not followed
+            Files.createSymbolicLink( loop.toPath(), output.toPath() );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            throw new SkipException( "No symbolic links on this file system" );
+        }
+        catch ( IOException e )
+        {
+            throw new SkipException( "Unable to create symbolic link: " + e.getMessage() );
+        }
+
+        try
+        {
+            File direct = new File( dir, "direct.zip" );
+            ReproducibleZip.create( output, direct, 2 );
+            File linked = new File( dir, "linked.zip" );
+            ReproducibleZip.create( link, linked, 2 );
+
+            assertThat( entries( direct ).size(), equalTo( 8 ) );
+            assertThat( Arrays.equals( Files.readAllBytes( direct.toPath() ), Files.readAllBytes( linked.toPath() ) ),
+                        equalTo( true ) );
+        }
+        finally
+        {
+            Files.deleteIfExists( loop.toPath() );
+            Files.deleteIfExists( link.toPath() );
+        }
+    }
+
+    private static List<String> entries( File zip )
+        throws IOException
+    {
+        List<String> names = new ArrayList<String>();
+        ZipFile zipFile = new ZipFile( zip );
+        try
+        {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while ( entries.hasMoreElements() )
+            {
+                names.add( entries.nextElement().getName() );
+            }
+        }
+        finally
+        {
+            zipFile.close();
+        }
+        return names;
+    }
+
+    private static void write( File file, byte[] content )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( content );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.maven.artifact.Artifact;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class RslUrlTemplateTest
+{
+
+    private static final String[] TEMPLATES = { "/{contextRoot}/rsl/{artifactId}-{version}.{extension}",
+        "{contextRoot}/rsl/{groupId}/{artifactId}-{classifier}-{hard-version}.{extension}",
+        "/{contextRoot}/locales/{artifactId}-{version}-{locale}.{extension}", "rsl/{artifactId}.swf?ctx={contextRoot}",
+        "http://cdn/{contextRoot}{contextRoot}/{artifactId}", "{unknown}/{artifactId", "no tokens at all", "",
+        "{{artifactId}}", "{contextRoot}" };
+
+    private static Artifact artifact( String classifier )
+    {
+        Artifact artifact = mock( Artifact.class );
+        when( artifact.getGroupId() ).thenReturn( "org.apache.flex.framework" );
+        when( artifact.getArtifactId() ).thenReturn( "framework" );
+        when( artifact.getBaseVersion() ).thenReturn( "4.14.1-SNAPSHOT" );
+        when( artifact.getVersion() ).thenReturn( "4.14.1-20150101.101010-1" );
+        when( artifact.getClassifier() ).thenReturn( classifier );
+        return artifact;
+    }
+
+    @DataProvider
+    public Object[][] combinations()
+    {
+        String[] contextRoots = { null, "", "myapp" };
+        String[] extensions = { null, "swf", "swz" };
+        String[] classifiers = { null, "en_US" };
+
+        Object[][] data = new Object[TEMPLATES.length * contextRoots.length * extensions.length * classifiers.length][];
+        int i = 0;
+        for ( String template : TEMPLATES )
+        {
+            for ( String contextRoot : contextRoots )
+            {
+                for ( String extension : extensions )
+                {
+                    for ( String classifier : classifiers )
+                    {
+                        data[i++] = new Object[] { template, contextRoot, extension, classifier };
+                    }
+                }
+            }
+        }
+        return data;
+    }
+
+    @Test( dataProvider = "combinations" )
+    public void sameAsStringReplace( String template, String contextRoot, String extension, String classifier )
+    {
+        Artifact artifact = artifact( classifier );
+        assertThat( RslUrlTemplate.compile( template ).interpolate( artifact, extension, contextRoot ),
+                    equalTo( legacyInterpolate( template, artifact, extension, contextRoot ) ) );
+    }
+
+    @Test
+    public void compiledOnce()
+    {
+        String template = TEMPLATES[0];
+        assertThat( RslUrlTemplate.compile( new String( template ) ),
+                    sameInstance( RslUrlTemplate.compile( new String( template ) ) ) );
+    }
+
+    /**
+     * The token replacement MavenUtils used to do before templates were compiled.
+     */
+    private static String legacyInterpolate( String baseUrl, Artifact artifact, String extension, String contextRoot )
+    {
+        if ( contextRoot == null || "".equals( contextRoot ) )
+        {
+            baseUrl = baseUrl.replace( "{contextRoot}/", "" );
+        }
+        else
+        {
+            baseUrl = baseUrl.replace( "{contextRoot}", contextRoot );
+        }
+
+        baseUrl = baseUrl.replace( "{groupId}", artifact.getGroupId() );
+        baseUrl = baseUrl.replace( "{artifactId}", artifact.getArtifactId() );
+        baseUrl = baseUrl.replace( "{version}", artifact.getBaseVersion() );
+        if ( artifact.getClassifier() != null )
+        {
+            baseUrl = baseUrl.replace( "{classifier}", artifact.getClassifier() );
+        }
+        baseUrl = baseUrl.replace( "{hard-version}", artifact.getVersion() );
+
+        if ( extension != null )
+        {
+            baseUrl = baseUrl.replace( "{extension}", extension );
+        }
+
+        return baseUrl;
+    }
+
+}
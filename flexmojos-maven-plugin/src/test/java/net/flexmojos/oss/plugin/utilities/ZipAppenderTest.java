@@ -0,0 +1,218 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ZipAppenderTest
+{
+
+    private File dir;
+
+    private File swc;
+
+    private byte[] library;
+
+    private Map<String, File> docs;
+
+    @BeforeMethod
+    public void createSwc()
+        throws IOException
+    {
+        dir = new File( "target/zip-appender" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+        dir.mkdirs();
+
+        library = new byte[512 * 1024];
+        Random random = new Random( 11 );
+        for ( int i = 0; i < library.length; i++ )
+        {
+            library[i] = (byte) random.nextInt( 16 );
+        }
+
+        swc = new File( dir, "library.swc" );
+        ZipOutputStream out = new ZipOutputStream( new FileOutputStream( swc ) );
+        try
+        {
+            out.putNextEntry( new ZipEntry( "catalog.xml" ) );
+            out.write( "<swc xmlns=\"http://www.adobe.com/flash/swccatalog/9\" />".getBytes( "UTF-8" ) );
+            out.closeEntry();
+
+            out.putNextEntry( new ZipEntry( "library.swf" ) );
+            out.write( library );
+            out.closeEntry();
+
+            byte[] stored = "stored".getBytes( "UTF-8" );
+            CRC32 crc = new CRC32();
+            crc.update( stored );
+            ZipEntry entry = new ZipEntry( "locale/en_US/stored.properties" );
+            entry.setMethod( ZipEntry.STORED );
+            entry.setSize( stored.length );
+            entry.setCompressedSize( stored.length );
+            entry.setCrc( crc.getValue() );
+            out.putNextEntry( entry );
+            out.write( stored );
+            out.closeEntry();
+
+            out.setComment( "flexmojos" );
+        }
+        finally
+        {
+            out.close();
+        }
+
+        docs = new LinkedHashMap<String, File>();
+        docs.put( "docs/packages.dita", write( "packages.dita", "<apiMap><apiItemRef href=\"pkg.xml\"/></apiMap>" ) );
+        docs.put( "docs/pkg/Classe\u00e9.xml", write( "classe.xml", "<apiPackage id=\"pkg\">\u00e9</apiPackage>" ) );
+    }
+
+    private File write( String name, String content )
+        throws IOException
+    {
+        File file = new File( dir, name );
+        FileUtils.fileWrite( file.getPath(), "UTF-8", content );
+        return file;
+    }
+
+    @Test
+    public void originalEntriesAreByteIdentical()
+        throws IOException
+    {
+        byte[] before = Files.readAllBytes( swc.toPath() );
+        long centralDirectory = centralDirectoryOffset( swc );
+
+        ZipAppender.append( swc, docs );
+
+        byte[] after = Files.readAllBytes( swc.toPath() );
+        assertThat( Arrays.equals( Arrays.copyOf( before, (int) centralDirectory ),
+                                   Arrays.copyOf( after, (int) centralDirectory ) ), equalTo( true ) );
+
+        ZipFile zip = new ZipFile( swc );
+        try
+        {
+            assertThat( zip.getComment(), equalTo( "flexmojos" ) );
+            assertThat( names( zip ), equalTo( Arrays.asList( "catalog.xml", "library.swf",
+                                                              "locale/en_US/stored.properties",
+                                                              "docs/packages.dita", "docs/pkg/Classe\u00e9.xml" ) ) );
+            assertThat( Arrays.equals( read( zip, "library.swf" ), library ), equalTo( true ) );
+            assertThat( new String( read( zip, "locale/en_US/stored.properties" ), "UTF-8" ), equalTo( "stored" ) );
+            assertThat( new String( read( zip, "docs/pkg/Classe\u00e9.xml" ), "UTF-8" ),
+                        equalTo( "<apiPackage id=\"pkg\">\u00e9</apiPackage>" ) );
+        }
+        finally
+        {
+            zip.close();
+        }
+    }
+
+    @Test
+    public void duplicatedEntryKeepsOriginal()
+        throws IOException
+    {
+        byte[] before = Files.readAllBytes( swc.toPath() );
+
+        try
+        {
+            ZipAppender.append( swc, Collections.singletonMap( "catalog.xml", docs.get( "docs/packages.dita" ) ) );
+            throw new AssertionError( "duplicated entry accepted" );
+        }
+        catch ( ZipException e )
+        {
+            // expected
+        }
+
+        byte[] after = Files.readAllBytes( swc.toPath() );
+        assertThat( Arrays.equals( before, after ), equalTo( true ) );
+        assertThat( Arrays.asList( dir.list() ).size(), equalTo( 3 ) );
+    }
+
+    private static List<String> names( ZipFile zip )
+    {
+        List<String> names = new ArrayList<String>();
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while ( entries.hasMoreElements() )
+        {
+            names.add( entries.nextElement().getName() );
+        }
+        return names;
+    }
+
+    private static byte[] read( ZipFile zip, String name )
+        throws IOException
+    {
+        InputStream in = zip.getInputStream( zip.getEntry( name ) );
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            IOUtil.copy( in, out );
+            return out.toByteArray();
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    private static long centralDirectoryOffset( File zip )
+        throws IOException
+    {
+        RandomAccessFile file = new RandomAccessFile( zip, "r" );
+        try
+        {
+            // no comment other than "flexmojos" (9 bytes), so the end record sits right before it
+            file.seek( file.length() - 22 - 9 + 16 );
+            int b0 = file.read();
+            int b1 = file.read();
+            int b2 = file.read();
+            int b3 = file.read();
+            return ( b0 | ( b1 << 8 ) | ( b2 << 16 ) | ( (long) b3 << 24 ) );
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+
+}
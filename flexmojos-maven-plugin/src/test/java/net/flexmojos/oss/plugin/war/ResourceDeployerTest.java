@@ -0,0 +1,106 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.war;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ResourceDeployerTest
+{
+
+    private File dir;
+
+    private Log log;
+
+    @BeforeMethod
+    public void clean()
+        throws IOException
+    {
+        dir = new File( "target/resource-deployer" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+        dir.mkdirs();
+        log = mock( Log.class );
+    }
+
+    private File source( String name, String content )
+        throws IOException
+    {
+        File file = new File( dir, name );
+        FileUtils.fileWrite( file.getAbsolutePath(), "UTF-8", content );
+        return file;
+    }
+
+    private void deploy( File dest, File... sources )
+        throws Exception
+    {
+        ResourceDeployer deployer = new ResourceDeployer( ResourceDeployer.Strategy.copy, true, 2, log );
+        try
+        {
+            for ( File source : sources )
+            {
+                deployer.deploy( source, dest );
+            }
+            deployer.finish();
+        }
+        finally
+        {
+            deployer.shutdown();
+        }
+    }
+
+    @Test
+    public void sharedSourceIsDeployedOnce()
+        throws Exception
+    {
+        File rsl = source( "rsl.swf", "rsl" );
+        File dest = new File( dir, "webapp/rsl.swf" );
+
+        deploy( dest, rsl, rsl );
+
+        assertThat( FileUtils.fileRead( dest, "UTF-8" ), equalTo( "rsl" ) );
+        verify( log, never() ).warn( any( CharSequence.class ) );
+    }
+
+    @Test
+    public void lastSourceWins()
+        throws Exception
+    {
+        File first = source( "first.swf", "first" );
+        File last = source( "last.swf", "last" );
+        File dest = new File( dir, "webapp/main.swf" );
+
+        deploy( dest, first, last );
+
+        assertThat( FileUtils.fileRead( dest, "UTF-8" ), equalTo( "last" ) );
+        verify( log ).warn( anyString() );
+    }
+
+}
@@ -0,0 +1,240 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.truster;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import net.flexmojos.oss.util.PathUtil;
+
+public class DefaultFlashPlayerTrusterTest
+{
+
+    private File trustDir;
+
+    private File projects;
+
+    @BeforeMethod
+    public void clean()
+        throws IOException
+    {
+        File dir = new File( "target/flash-player-truster" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( dir );
+        trustDir = new File( dir, "FlashPlayerTrust" );
+        trustDir.mkdirs();
+        projects = new File( dir, "projects" );
+    }
+
+    private static DefaultFlashPlayerTruster truster( final File trustDir )
+    {
+        DefaultFlashPlayerTruster truster = new DefaultFlashPlayerTruster()
+        {
+            @Override
+            public File getTrustDir()
+            {
+                return trustDir;
+            }
+        };
+        truster.enableLogging( new ConsoleLogger( Logger.LEVEL_WARN, "truster" ) );
+        return truster;
+    }
+
+    private static File swf( File projects, String worker, int i )
+    {
+        return new File( projects, worker + "-" + i + "/main.swf" );
+    }
+
+    @Test
+    public void keepsExistingEntries()
+        throws Exception
+    {
+        FileUtils.fileWrite( new File( trustDir, "maven.cfg" ).getAbsolutePath(), "UTF-8", "/some/where\r\n/else" );
+
+        DefaultFlashPlayerTruster truster = truster( trustDir );
+        truster.updateSecuritySandbox( swf( projects, "single", 0 ) );
+        truster.updateSecuritySandbox( swf( projects, "single", 0 ) );
+
+        assertThat( lines(), equalTo( Arrays.asList( "/some/where", "/else",
+                                                     PathUtil.path( swf( projects, "single", 0 ).getParentFile() ) ) ) );
+    }
+
+    @Test
+    public void concurrentThreads()
+        throws Exception
+    {
+        final int threads = 8;
+        final int entries = 25;
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        List<Future<Void>> results = new ArrayList<Future<Void>>();
+        for ( int t = 0; t < threads; t++ )
+        {
+            final String worker = "thread" + t;
+            // a truster per thread, all of them share the class loader and so its monitor
+            final DefaultFlashPlayerTruster truster = truster( trustDir );
+            results.add( executor.submit( new Callable<Void>()
+            {
+                public Void call()
+                {
+                    for ( int i = 0; i < entries; i++ )
+                    {
+                        truster.updateSecuritySandbox( swf( projects, worker, i ) );
+                        truster.updateSecuritySandbox( swf( projects, "shared", i ) );
+                    }
+                    return null;
+                }
+            } ) );
+        }
+        for ( Future<Void> result : results )
+        {
+            result.get();
+        }
+        executor.shutdown();
+
+        assertEntries( threads * entries + entries );
+    }
+
+    @Test
+    public void concurrentClassLoaders()
+        throws Exception
+    {
+        int loaders = 4;
+        int entries = 25;
+
+        List<URL> classpath = new ArrayList<URL>();
+        for ( String path : System.getProperty( "java.class.path" ).split( File.pathSeparator ) )
+        {
+            classpath.add( new File( path ).toURI().toURL() );
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( loaders );
+        List<Future<Object>> results = new ArrayList<Future<Object>>();
+        for ( int l = 0; l < loaders; l++ )
+        {
+            // a truster class per loader, as different plugin realms would have, file locks overlap within the JVM
+            ClassLoader loader = new URLClassLoader( classpath.toArray( new URL[classpath.size()] ), null );
+            final Method fork = loader.loadClass( Fork.class.getName() ).getMethod( "main", String[].class );
+            final String[] args =
+                { trustDir.getAbsolutePath(), projects.getAbsolutePath(), "loader" + l, String.valueOf( entries ) };
+            results.add( executor.submit( new Callable<Object>()
+            {
+                public Object call()
+                    throws Exception
+                {
+                    return fork.invoke( null, (Object) args );
+                }
+            } ) );
+        }
+        for ( Future<Object> result : results )
+        {
+            result.get();
+        }
+        executor.shutdown();
+
+        assertEntries( loaders * entries + entries );
+    }
+
+    @Test
+    public void concurrentProcesses()
+        throws Exception
+    {
+        int processes = 4;
+        int entries = 25;
+
+        String java = new File( new File( System.getProperty( "java.home" ), "bin" ), "java" ).getAbsolutePath();
+        List<Process> forks = new ArrayList<Process>();
+        for ( int p = 0; p < processes; p++ )
+        {
+            ProcessBuilder builder =
+                new ProcessBuilder( java, "-cp", System.getProperty( "java.class.path" ), Fork.class.getName(),
+                                    trustDir.getAbsolutePath(), projects.getAbsolutePath(), "process" + p,
+                                    String.valueOf( entries ) );
+            builder.redirectErrorStream( true );
+            builder.redirectOutput( new File( trustDir.getParentFile(), "process" + p + ".log" ) );
+            forks.add( builder.start() );
+        }
+
+        for ( Process fork : forks )
+        {
+            assertThat( fork.waitFor(), equalTo( 0 ) );
+        }
+
+        assertEntries( processes * entries + entries );
+    }
+
+    private void assertEntries( int expected )
+        throws IOException
+    {
+        List<String> lines = lines();
+        Set<String> unique = new HashSet<String>( lines );
+        assertThat( "duplicated entries", unique.size(), equalTo( lines.size() ) );
+        assertThat( lines.size(), equalTo( expected ) );
+        assertThat( trustDir.list().length, equalTo( 2 ) );
+    }
+
+    private List<String> lines()
+        throws IOException
+    {
+        return Arrays.asList( FileUtils.fileRead( new File( trustDir, "maven.cfg" ), "UTF-8" ).split( "\n" ) );
+    }
+
+    /**
+     * Trusts directories from another JVM: trust dir, projects dir, worker name, number of entries.
+     */
+    public static class Fork
+    {
+        public static void main( String[] args )
+            throws Exception
+        {
+            File trustDir = new File( args[0] );
+            File projects = new File( args[1] );
+            int entries = Integer.parseInt( args[3] );
+
+            DefaultFlashPlayerTruster truster = truster( trustDir );
+            for ( int i = 0; i < entries; i++ )
+            {
+                truster.updateSecuritySandbox( swf( projects, args[2], i ) );
+                truster.updateSecuritySandbox( swf( projects, "shared", i ) );
+                TimeUnit.MILLISECONDS.sleep( 1 );
+            }
+        }
+    }
+
+}
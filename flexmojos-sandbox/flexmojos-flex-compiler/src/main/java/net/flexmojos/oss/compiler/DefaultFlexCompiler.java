@@ -30,8 +30,14 @@ import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Component( role = FlexCompiler.class )
 public class DefaultFlexCompiler
@@ -45,21 +51,32 @@ public class DefaultFlexCompiler
     @Requirement( role = FlexToolInterceptor.class )
     private List<FlexToolInterceptor> interceptors;
 
+    /**
+     * Soft values, the registry holds classes of its classloader, a strong value would keep the weak key alive forever
+     */
+    private final Map<ClassLoader, Reference<ToolRegistry>> toolRegistries =
+        new WeakHashMap<ClassLoader, Reference<ToolRegistry>>();
+
     public Result compileSwc( final ICompcConfiguration configuration, boolean sychronize,
                               final String compilerName )
         throws Exception
     {
-        return CommandUtil.execute( new Command()
+        return CommandUtil.execute( "compileSwc", new Command()
         {
             public void command()
                     throws Exception
             {
+                long start = System.currentTimeMillis();
                 String[] args = parser.parseArguments( configuration, ICompcConfiguration.class );
+                CommandUtil.recordPhase( "arguments", System.currentTimeMillis() - start );
                 logArgs( args );
+                long execution = System.currentTimeMillis();
                 try {
                     executeCompcMain(compilerName, args);
                 } catch (Throwable t) {
                     throw new Exception("Exception during Compc execution", t);
+                } finally {
+                    CommandUtil.recordPhase( "execution", System.currentTimeMillis() - execution );
                 }
             }
         }, sychronize );
@@ -69,23 +86,29 @@ public class DefaultFlexCompiler
                               final String compilerName )
         throws Exception
     {
+        long start = System.currentTimeMillis();
         final List<String> argsList =
             parser.getArgumentsList( cfgHolder.configuration, ICommandLineConfiguration.class );
         if ( cfgHolder.sourceFile != null )
         {
             argsList.add( cfgHolder.sourceFile.getAbsolutePath() );
         }
-        return CommandUtil.execute( new Command()
+        final long argumentsTime = System.currentTimeMillis() - start;
+        return CommandUtil.execute( "compileSwf", new Command()
         {
             public void command()
                     throws Exception
             {
+                CommandUtil.recordPhase( "arguments", argumentsTime );
                 String[] args = argsList.toArray( new String[argsList.size()] );
                 logArgs( args );
+                long execution = System.currentTimeMillis();
                 try {
                     executeMxmlcMain(compilerName, args);
                 } catch (Throwable t) {
                     throw new Exception("Exception during Mxmlc execution", t);
+                } finally {
+                    CommandUtil.recordPhase( "execution", System.currentTimeMillis() - execution );
                 }
             }
         }, sychronize );
@@ -95,17 +118,22 @@ public class DefaultFlexCompiler
                          final String compilerName )
         throws Exception
     {
-        return CommandUtil.execute( new Command()
+        return CommandUtil.execute( "asdoc", new Command()
         {
             public void command()
                     throws Exception
             {
+                long start = System.currentTimeMillis();
                 String[] args = parser.parseArguments(configuration, IASDocConfiguration.class);
+                CommandUtil.recordPhase( "arguments", System.currentTimeMillis() - start );
                 logArgs(args);
+                long execution = System.currentTimeMillis();
                 try {
                     executeAsdocMain(compilerName, args);
                 } catch(Throwable t) {
                     throw new Exception("Exception during ASDoc execution", t);
+                } finally {
+                    CommandUtil.recordPhase( "execution", System.currentTimeMillis() - execution );
                 }
             }
         }, sychronize );
@@ -115,17 +143,22 @@ public class DefaultFlexCompiler
                           final String compilerName )
         throws Exception
     {
-        return CommandUtil.execute( new Command()
+        return CommandUtil.execute( "digest", new Command()
         {
             public void command()
                 throws Exception
             {
+                long start = System.currentTimeMillis();
                 String[] args = parser.parseArguments( configuration, IDigestConfiguration.class );
+                CommandUtil.recordPhase( "arguments", System.currentTimeMillis() - start );
                 logArgs( args );
+                long execution = System.currentTimeMillis();
                 try {
                     executeDigestMain(compilerName, args);
                 } catch (Throwable t) {
                     throw new Exception("Exception during DigestTool execution", t);
+                } finally {
+                    CommandUtil.recordPhase( "execution", System.currentTimeMillis() - execution );
                 }
             }
         }, sychronize );
@@ -135,17 +168,22 @@ public class DefaultFlexCompiler
                             final String compilerName )
         throws Exception
     {
-        return CommandUtil.execute( new Command()
+        return CommandUtil.execute( "optimize", new Command()
         {
             public void command()
                 throws Exception
             {
+                long start = System.currentTimeMillis();
                 String[] args = parser.parseArguments( configuration, IOptimizerConfiguration.class );
+                CommandUtil.recordPhase( "arguments", System.currentTimeMillis() - start );
                 logArgs( args );
+                long execution = System.currentTimeMillis();
                 try {
                     executeOptimizerMain(compilerName, args);
                 } catch (Throwable t) {
                     throw new Exception("Exception during Optimizer execution", t);
+                } finally {
+                    CommandUtil.recordPhase( "execution", System.currentTimeMillis() - execution );
                 }
             }
         }, sychronize );
@@ -267,15 +305,8 @@ public class DefaultFlexCompiler
     }
 
     private int executeTool(String toolGroupName, String toolName, String[] args) throws Exception {
-        // Initialize the tool registry.
-        FlexToolRegistry toolRegistry = new FlexToolRegistry();
-
         // Get the desired tool group.
-        FlexToolGroup toolGroup = toolRegistry.getToolGroup(toolGroupName);
-        if(toolGroup == null) {
-            throw new Exception("Unable to find compiler: " + toolGroupName + " in the plugin classpath. " +
-                    "List of compiles found: " + toolRegistry.getToolGroupNames());
-        }
+        FlexToolGroup toolGroup = getToolGroup(toolGroupName);
 
         // Get the desired tool.
         if(!toolGroup.hasFlexTool(toolName)) {
@@ -294,4 +325,52 @@ public class DefaultFlexCompiler
         return tool.execute(args);
     }
 
+    /**
+     * Tool groups are discovered from the context classloader, which is the plugin realm holding the compiler
+     * dependencies. The registry and the groups resolved from it are kept per classloader, so every compilation using
+     * the same compiler reuses them, while a build using another compiler version gets its own.
+     */
+    FlexToolGroup getToolGroup(String toolGroupName) throws Exception {
+        ToolRegistry registry = getToolRegistry();
+
+        FlexToolGroup toolGroup = registry.toolGroups.get(toolGroupName);
+        if(toolGroup == null) {
+            toolGroup = registry.registry.getToolGroup(toolGroupName);
+            if(toolGroup == null) {
+                throw new Exception("Unable to find compiler: " + toolGroupName + " in the plugin classpath. " +
+                        "List of compiles found: " + registry.registry.getToolGroupNames());
+            }
+            registry.toolGroups.putIfAbsent(toolGroupName, toolGroup);
+        }
+        return toolGroup;
+    }
+
+    private ToolRegistry getToolRegistry() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        synchronized (toolRegistries) {
+            Reference<ToolRegistry> reference = toolRegistries.get(classLoader);
+            ToolRegistry registry = reference != null ? reference.get() : null;
+            if(registry == null) {
+                // Initialize the tool registry.
+                registry = new ToolRegistry(createToolRegistry());
+                toolRegistries.put(classLoader, new SoftReference<ToolRegistry>(registry));
+            }
+            return registry;
+        }
+    }
+
+    protected FlexToolRegistry createToolRegistry() {
+        return new FlexToolRegistry();
+    }
+
+    private static class ToolRegistry {
+        private final FlexToolRegistry registry;
+
+        private final ConcurrentMap<String, FlexToolGroup> toolGroups = new ConcurrentHashMap<String, FlexToolGroup>();
+
+        ToolRegistry(FlexToolRegistry registry) {
+            this.registry = registry;
+        }
+    }
+
 }
@@ -24,14 +24,38 @@ import flex2.compiler.util.ThreadLocalToolkit;
 public class CommandUtil
 {
 
+    private static final ThreadLocal<Result> CURRENT = new ThreadLocal<Result>();
+
     public static Result execute( final Command command, boolean sychronize )
+        throws Exception
+    {
+        return execute( null, command, sychronize );
+    }
+
+    /**
+     * Adds <code>millis</code> to the given phase of the command running on the current thread, does nothing outside a
+     * command.
+     */
+    public static void recordPhase( String phase, long millis )
+    {
+        Result r = CURRENT.get();
+        if ( r != null )
+        {
+            r.addPhase( phase, millis );
+        }
+    }
+
+    public static Result execute( String tool, final Command command, boolean sychronize )
             throws Exception
         {
             final Result r = new Result();
+            r.setTool( tool );
             Thread t = new Thread( new Runnable()
             {
                 public void run()
                 {
+                    CURRENT.set( r );
+                    r.setStartTime( System.currentTimeMillis() );
     //                SecurityManager sm = System.getSecurityManager();
     //
     //                System.setSecurityManager( new SecurityManager()
@@ -63,6 +87,8 @@ public class CommandUtil
     //                }
     
                     r.setExitCode( ThreadLocalToolkit.errorCount() );
+                    r.setEndTime( System.currentTimeMillis() );
+                    CURRENT.remove();
                 }
             } );
             t.setUncaughtExceptionHandler( new UncaughtExceptionHandler()
@@ -17,6 +17,10 @@
  */
 package net.flexmojos.oss.compiler.command;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class Result
 {
     private Exception exception;
@@ -25,6 +29,14 @@ public class Result
 
     private Thread thread;
 
+    private String tool;
+
+    private long startTime;
+
+    private long endTime;
+
+    private final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+
     public int getExitCode()
         throws Exception
     {
@@ -58,4 +70,59 @@ public class Result
     {
         this.thread = t;
     }
+
+    /**
+     * @return name of the compiler entry point that produced this result (compileSwf, compileSwc, asdoc...)
+     */
+    public String getTool()
+    {
+        return tool;
+    }
+
+    public void setTool( String tool )
+    {
+        this.tool = tool;
+    }
+
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    public void setStartTime( long startTime )
+    {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime()
+    {
+        return endTime;
+    }
+
+    public void setEndTime( long endTime )
+    {
+        this.endTime = endTime;
+    }
+
+    /**
+     * @return wall clock time spent by the command in milliseconds, only meaningful once the command is done
+     */
+    public long getDuration()
+    {
+        return endTime < startTime ? 0 : endTime - startTime;
+    }
+
+    public synchronized void addPhase( String phase, long millis )
+    {
+        Long previous = phases.get( phase );
+        phases.put( phase, previous == null ? millis : previous + millis );
+    }
+
+    /**
+     * @return milliseconds spent on each phase of the command, in the order they were first recorded
+     */
+    public synchronized Map<String, Long> getPhases()
+    {
+        return Collections.unmodifiableMap( new LinkedHashMap<String, Long>( phases ) );
+    }
 }
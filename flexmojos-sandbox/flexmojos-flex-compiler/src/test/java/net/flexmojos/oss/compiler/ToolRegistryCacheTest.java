@@ -0,0 +1,100 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.compiler;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.flex.tools.FlexToolGroup;
+import org.apache.flex.tools.FlexToolRegistry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ToolRegistryCacheTest
+{
+
+    private static class CountingFlexCompiler
+        extends DefaultFlexCompiler
+    {
+        private final List<FlexToolRegistry> registries = new ArrayList<FlexToolRegistry>();
+
+        @Override
+        protected FlexToolRegistry createToolRegistry()
+        {
+            FlexToolRegistry registry = mock( FlexToolRegistry.class );
+            when( registry.getToolGroup( "Falcon" ) ).thenReturn( mock( FlexToolGroup.class ) );
+            registries.add( registry );
+            return registry;
+        }
+    }
+
+    private FlexToolGroup getToolGroup( DefaultFlexCompiler compiler, ClassLoader sdk )
+        throws Exception
+    {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader( sdk );
+        try
+        {
+            return compiler.getToolGroup( "Falcon" );
+        }
+        finally
+        {
+            thread.setContextClassLoader( previous );
+        }
+    }
+
+    @Test
+    public void oneLookupPerSdk()
+        throws Exception
+    {
+        CountingFlexCompiler compiler = new CountingFlexCompiler();
+        ClassLoader sdk1 = new URLClassLoader( new URL[0] );
+        ClassLoader sdk2 = new URLClassLoader( new URL[0] );
+
+        FlexToolGroup group1 = getToolGroup( compiler, sdk1 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            Assert.assertSame( getToolGroup( compiler, sdk1 ), group1 );
+        }
+        FlexToolGroup group2 = getToolGroup( compiler, sdk2 );
+        Assert.assertSame( getToolGroup( compiler, sdk2 ), group2 );
+
+        Assert.assertNotSame( group1, group2 );
+        Assert.assertEquals( compiler.registries.size(), 2 );
+        for ( FlexToolRegistry registry : compiler.registries )
+        {
+            verify( registry, times( 1 ) ).getToolGroup( "Falcon" );
+        }
+    }
+
+    @Test( expectedExceptions = Exception.class )
+    public void unknownCompiler()
+        throws Exception
+    {
+        new CountingFlexCompiler().getToolGroup( "unknown" );
+    }
+
+}
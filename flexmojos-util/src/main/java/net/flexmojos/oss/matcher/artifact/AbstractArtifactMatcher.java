@@ -34,6 +34,16 @@ abstract class AbstractArtifactMatcher<E>
         this.element = element;
     }
 
+    String getElement()
+    {
+        return element;
+    }
+
+    Matcher<? extends String> getElementMatcher()
+    {
+        return elementMatcher;
+    }
+
     public void describeTo( Description description )
     {
         description.appendText( "a dependency with " + element + " " ).appendDescriptionOf( elementMatcher );
@@ -0,0 +1,234 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.matcher.artifact;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.hamcrest.Matcher;
+
+/**
+ * Answers artifact queries without matching every artifact. The artifacts are indexed, on demand, by the value of
+ * each coordinate; a matcher created by {@link ArtifactMatcher} is evaluated once per distinct value instead of once
+ * per artifact, and only the remaining candidates are checked against the other matchers. Results, including their
+ * order, are the same as filtering the original collection.
+ */
+public class ArtifactIndex
+{
+
+    private final Artifact[] artifacts;
+
+    private final ConcurrentMap<String, Map<String, BitSet>> indexes =
+        new ConcurrentHashMap<String, Map<String, BitSet>>();
+
+    public ArtifactIndex( Collection<Artifact> artifacts )
+    {
+        this.artifacts = artifacts.toArray( new Artifact[artifacts.size()] );
+    }
+
+    /**
+     * @return every artifact matching all <code>matchers</code>, in the original order
+     */
+    public Set<Artifact> filter( Matcher<? extends Artifact>... matchers )
+    {
+        List<Matcher<?>> remaining = new ArrayList<Matcher<?>>();
+        BitSet candidates = candidates( matchers, remaining );
+
+        Set<Artifact> result = new LinkedHashSet<Artifact>();
+        for ( int i = candidates.nextSetBit( 0 ); i >= 0; i = candidates.nextSetBit( i + 1 ) )
+        {
+            if ( matches( remaining, artifacts[i] ) )
+            {
+                result.add( artifacts[i] );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return first artifact matching all <code>matchers</code> or null
+     */
+    public Artifact selectFirst( Matcher<? extends Artifact>... matchers )
+    {
+        List<Matcher<?>> remaining = new ArrayList<Matcher<?>>();
+        BitSet candidates = candidates( matchers, remaining );
+
+        for ( int i = candidates.nextSetBit( 0 ); i >= 0; i = candidates.nextSetBit( i + 1 ) )
+        {
+            if ( matches( remaining, artifacts[i] ) )
+            {
+                return artifacts[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same lookup as <code>MavenUtils.searchFor</code>: a null argument, or a null coordinate on the artifact, matches
+     * anything.
+     */
+    public Artifact searchFor( String groupId, String artifactId, String version, String type, String classifier )
+    {
+        BitSet candidates = all();
+        restrict( candidates, "groupId", groupId );
+        restrict( candidates, "artifactId", artifactId );
+        restrict( candidates, "version", version );
+        restrict( candidates, "type", type );
+        restrict( candidates, "classifier", classifier );
+
+        int first = candidates.nextSetBit( 0 );
+        return first < 0 ? null : artifacts[first];
+    }
+
+    private void restrict( BitSet candidates, String element, String value )
+    {
+        if ( value == null )
+        {
+            return;
+        }
+
+        Map<String, BitSet> index = index( element );
+        BitSet allowed = new BitSet( artifacts.length );
+        BitSet exact = index.get( value );
+        if ( exact != null )
+        {
+            allowed.or( exact );
+        }
+        BitSet undefined = index.get( null );
+        if ( undefined != null )
+        {
+            allowed.or( undefined );
+        }
+        candidates.and( allowed );
+    }
+
+    private BitSet candidates( Matcher<? extends Artifact>[] matchers, List<Matcher<?>> remaining )
+    {
+        BitSet candidates = all();
+        for ( Matcher<? extends Artifact> matcher : matchers )
+        {
+            Map<String, BitSet> index = null;
+            if ( matcher instanceof AbstractArtifactMatcher )
+            {
+                index = index( ( (AbstractArtifactMatcher<?>) matcher ).getElement() );
+            }
+
+            if ( index == null )
+            {
+                remaining.add( matcher );
+                continue;
+            }
+
+            Matcher<? extends String> elementMatcher = ( (AbstractArtifactMatcher<?>) matcher ).getElementMatcher();
+            BitSet allowed = new BitSet( artifacts.length );
+            for ( Entry<String, BitSet> entry : index.entrySet() )
+            {
+                if ( elementMatcher.matches( entry.getKey() ) )
+                {
+                    allowed.or( entry.getValue() );
+                }
+            }
+            candidates.and( allowed );
+        }
+        return candidates;
+    }
+
+    private static boolean matches( List<Matcher<?>> matchers, Artifact artifact )
+    {
+        for ( Matcher<?> matcher : matchers )
+        {
+            if ( !matcher.matches( artifact ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private BitSet all()
+    {
+        BitSet all = new BitSet( artifacts.length );
+        all.set( 0, artifacts.length );
+        return all;
+    }
+
+    private Map<String, BitSet> index( String element )
+    {
+        Map<String, BitSet> index = indexes.get( element );
+        if ( index != null )
+        {
+            return index;
+        }
+
+        index = new HashMap<String, BitSet>();
+        for ( int i = 0; i < artifacts.length; i++ )
+        {
+            String value;
+            if ( "groupId".equals( element ) )
+            {
+                value = artifacts[i].getGroupId();
+            }
+            else if ( "artifactId".equals( element ) )
+            {
+                value = artifacts[i].getArtifactId();
+            }
+            else if ( "version".equals( element ) )
+            {
+                value = artifacts[i].getVersion();
+            }
+            else if ( "type".equals( element ) )
+            {
+                value = artifacts[i].getType();
+            }
+            else if ( "classifier".equals( element ) )
+            {
+                value = artifacts[i].getClassifier();
+            }
+            else if ( "scope".equals( element ) )
+            {
+                value = artifacts[i].getScope();
+            }
+            else
+            {
+                return null;
+            }
+
+            BitSet positions = index.get( value );
+            if ( positions == null )
+            {
+                positions = new BitSet( artifacts.length );
+                index.put( value, positions );
+            }
+            positions.set( i );
+        }
+
+        Map<String, BitSet> previous = indexes.putIfAbsent( element, index );
+        return previous != null ? previous : index;
+    }
+
+}
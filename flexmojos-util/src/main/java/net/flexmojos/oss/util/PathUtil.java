@@ -24,6 +24,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * this class provides functions used to generate a relative path from two absolute paths
@@ -34,11 +36,62 @@ import java.util.List;
 public class PathUtil
 {
 
+    /**
+     * Canonicalization hits the file system once per path element, so the results are kept until
+     * {@link #clearCache()} is called (flexmojos does it when a new build starts) or the cache grows past this size.
+     */
+    private static final int CACHE_SIZE = 8192;
+
+    private static final ConcurrentMap<File, File> CANONICAL_FILES = new ConcurrentHashMap<File, File>();
+
+    private static final ConcurrentMap<File, String> CANONICAL_PATHS = new ConcurrentHashMap<File, String>();
+
     static
     {
         new PathUtil();
     }
 
+    /**
+     * Forget every cached canonical path, needed when symbolic links or directories were changed during the build.
+     */
+    public static void clearCache()
+    {
+        CANONICAL_FILES.clear();
+        CANONICAL_PATHS.clear();
+    }
+
+    private static File canonicalFile( File file )
+        throws IOException
+    {
+        File canonical = CANONICAL_FILES.get( file );
+        if ( canonical == null )
+        {
+            canonical = file.getCanonicalFile();
+            if ( CANONICAL_FILES.size() >= CACHE_SIZE )
+            {
+                CANONICAL_FILES.clear();
+            }
+            CANONICAL_FILES.put( file, canonical );
+        }
+        return canonical;
+    }
+
+    private static String canonicalPath( File file )
+        throws IOException
+    {
+        String canonical = CANONICAL_PATHS.get( file );
+        if ( canonical == null )
+        {
+            canonical = file.getCanonicalPath();
+            if ( CANONICAL_PATHS.size() >= CACHE_SIZE )
+            {
+                CANONICAL_PATHS.clear();
+            }
+            CANONICAL_PATHS.put( file, canonical );
+        }
+        return canonical;
+    }
+
     public static boolean existAll( File... files )
     {
         if ( files == null )
@@ -150,7 +203,7 @@ public class PathUtil
 
         try
         {
-            return file.getCanonicalFile();
+            return canonicalFile( file );
         }
         catch ( IOException e )
         {
@@ -329,47 +382,6 @@ public class PathUtil
         return Arrays.asList( files( paths ) );
     }
 
-    /**
-     * figure out a string representing the relative path of 'f' with respect to 'r'
-     * 
-     * @param r home path
-     * @param f path of file
-     */
-    private static String matchPathLists( List<String> r, List<String> f )
-    {
-        int i;
-        int j;
-        String s;
-        // start at the beginning of the lists
-        // iterate while both lists are equal
-        s = "";
-        i = r.size() - 1;
-        j = f.size() - 1;
-
-        // first eliminate common root
-        while ( ( i >= 0 ) && ( j >= 0 ) && ( r.get( i ).equals( f.get( j ) ) ) )
-        {
-            i--;
-            j--;
-        }
-
-        // for each remaining level in the home path, add a ..
-        for ( ; i >= 0; i-- )
-        {
-            s += ".." + File.separator;
-        }
-
-        // for each level in the file path, add the path
-        for ( ; j >= 1; j-- )
-        {
-            s += f.get( j ) + File.separator;
-        }
-
-        // file name
-        s += f.get( j );
-        return s;
-    }
-
     public static String path( File file )
     {
         if ( file == null )
@@ -379,7 +391,7 @@ public class PathUtil
 
         try
         {
-            return file.getCanonicalPath();
+            return canonicalPath( file );
         }
         catch ( IOException e )
         {
@@ -387,25 +399,6 @@ public class PathUtil
         }
     }
 
-    /**
-     * break a path down into individual elements and add to a list. example : if a path is /a/b/c/d.txt, the breakdown
-     * will be [d.txt,c,b,a]
-     * 
-     * @param f input file
-     * @return a List collection with the individual elements of the path in reverse order
-     */
-    private static List<String> pathList( File f )
-    {
-        List<String> l = new ArrayList<String>();
-        File r = file( f );
-        while ( r != null )
-        {
-            l.add( r.getName() );
-            r = r.getParentFile();
-        }
-        return l;
-    }
-
     public static String[] paths( Collection<File> files )
     {
         if ( files == null )
@@ -474,13 +467,86 @@ public class PathUtil
      * 
      * @param home base path, should be a directory, not a file, or it doesn't make sense
      * @param f file to generate path for
-     * @return path from home to f as a string
+     * @return path from home to f as a string, always using '/' as separator
      */
     public static String relativePath( File home, File f )
     {
-        List<String> homelist = pathList( home );
-        List<String> filelist = pathList( f );
-        return matchPathLists( homelist, filelist ).replace( '\\', '/' );
+        return relativePath( path( home ), path( f ), File.separatorChar );
+    }
+
+    /**
+     * Same as {@link #relativePath(File, File)} over two canonical paths, walking the strings instead of splitting
+     * them. Paths on different roots have nothing in common, <code>file</code> is then returned as is.
+     */
+    static String relativePath( String home, String file, char separator )
+    {
+        home = stripTrailingSeparator( home, separator );
+        file = stripTrailingSeparator( file, separator );
+
+        int length = Math.min( home.length(), file.length() );
+        int common = -1;
+        int i = 0;
+        while ( i < length && home.charAt( i ) == file.charAt( i ) )
+        {
+            if ( home.charAt( i ) == separator )
+            {
+                common = i;
+            }
+            i++;
+        }
+        if ( i == length && ( home.length() == file.length() //
+            || ( i == home.length() && file.charAt( i ) == separator ) //
+            || ( i == file.length() && home.charAt( i ) == separator ) ) )
+        {
+            common = i;
+        }
+
+        if ( common < 0 )
+        {
+            return appendWithSlashes( new StringBuilder( file.length() ), file, 0, separator ).toString();
+        }
+
+        StringBuilder sb = new StringBuilder( ( home.length() - common ) + ( file.length() - common ) );
+        for ( int j = common; j < home.length(); j++ )
+        {
+            if ( home.charAt( j ) == separator )
+            {
+                if ( sb.length() != 0 )
+                {
+                    sb.append( '/' );
+                }
+                sb.append( ".." );
+            }
+        }
+        if ( common < file.length() )
+        {
+            if ( sb.length() != 0 )
+            {
+                sb.append( '/' );
+            }
+            appendWithSlashes( sb, file, common + 1, separator );
+        }
+        return sb.length() == 0 ? "." : sb.toString();
+    }
+
+    private static String stripTrailingSeparator( String path, char separator )
+    {
+        int end = path.length();
+        while ( end > 0 && path.charAt( end - 1 ) == separator )
+        {
+            end--;
+        }
+        return path.substring( 0, end );
+    }
+
+    private static StringBuilder appendWithSlashes( StringBuilder sb, String path, int start, char separator )
+    {
+        for ( int i = start; i < path.length(); i++ )
+        {
+            char c = path.charAt( i );
+            sb.append( c == separator || c == '\\' ? '/' : c );
+        }
+        return sb;
     }
 
     private PathUtil()
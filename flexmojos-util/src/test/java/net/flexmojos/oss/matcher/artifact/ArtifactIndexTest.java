@@ -0,0 +1,157 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.matcher.artifact;
+
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.artifactId;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.classifier;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.groupId;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.scope;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.type;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.hamcrest.Matcher;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class ArtifactIndexTest
+{
+
+    private static final String[] TYPES = { "swc", "rb.swc", "swf", "pom", "zip", null };
+
+    private static final String[] SCOPES = { "compile", "external", "internal", "merged", "rsl", "caching", null };
+
+    private static final String[] CLASSIFIERS = { null, "configs", "en_US" };
+
+    private Set<Artifact> artifacts;
+
+    @BeforeMethod
+    public void createArtifacts()
+    {
+        artifacts = new LinkedHashSet<Artifact>();
+        int i = 0;
+        for ( String type : TYPES )
+        {
+            for ( String scope : SCOPES )
+            {
+                for ( String classifier : CLASSIFIERS )
+                {
+                    Artifact artifact = mock( Artifact.class );
+                    when( artifact.getGroupId() ).thenReturn( i % 3 == 0 ? "com.adobe.flash.framework" : "g" + ( i % 4 ) );
+                    when( artifact.getArtifactId() ).thenReturn( i % 3 == 0 ? "playerglobal" : "a" + i );
+                    when( artifact.getVersion() ).thenReturn( i % 2 == 0 ? "1.0" : null );
+                    when( artifact.getType() ).thenReturn( type );
+                    when( artifact.getScope() ).thenReturn( scope );
+                    when( artifact.getClassifier() ).thenReturn( classifier );
+                    artifacts.add( artifact );
+                    i++;
+                }
+            }
+        }
+    }
+
+    @DataProvider
+    @SuppressWarnings( "unchecked" )
+    public Object[][] queries()
+    {
+        Matcher<? extends Artifact> global =
+            allOf( groupId( "com.adobe.flash.framework" ), artifactId( "playerglobal" ), type( "swc" ) );
+        return new Object[][] {
+            { new Matcher[] { type( "swc" ) } },
+            { new Matcher[] { type( "swc" ), scope( "external" ) } },
+            { new Matcher[] { type( "swc" ), scope( "internal" ), not( global ) } },
+            { new Matcher[] { anyOf( type( "swc" ), type( "zip" ) ), scope( "merged" ), not( global ) } },
+            { new Matcher[] { type( "rb.swc" ), classifier( nullValue( String.class ) ) } },
+            { new Matcher[] { type( anyOf( equalTo( "swc" ), equalTo( "swf" ) ) ), scope( nullValue( String.class ) ) } },
+            { new Matcher[] { classifier( "configs" ), type( "zip" ), groupId( "g1" ) } },
+            { new Matcher[] { global } },
+            { new Matcher[] { scope( "unknown" ) } },
+            { new Matcher[] {} } };
+    }
+
+    @Test( dataProvider = "queries" )
+    @SuppressWarnings( "unchecked" )
+    public void sameAsMatchingEveryArtifact( Matcher<? extends Artifact>[] matchers )
+    {
+        List<Artifact> expected = new ArrayList<Artifact>();
+        for ( Artifact artifact : artifacts )
+        {
+            boolean matches = true;
+            for ( Matcher<? extends Artifact> matcher : matchers )
+            {
+                matches &= matcher.matches( artifact );
+            }
+            if ( matches )
+            {
+                expected.add( artifact );
+            }
+        }
+
+        ArtifactIndex index = new ArtifactIndex( artifacts );
+        assertThat( new ArrayList<Artifact>( index.filter( matchers ) ), equalTo( expected ) );
+        assertThat( index.selectFirst( matchers ), equalTo( expected.isEmpty() ? null : expected.get( 0 ) ) );
+        // indexes are reused by the following queries
+        assertThat( new ArrayList<Artifact>( index.filter( matchers ) ), equalTo( expected ) );
+    }
+
+    @DataProvider
+    public Object[][] searches()
+    {
+        return new Object[][] { { "g1", null, null, "swc", null }, { "g2", "a2", "1.0", null, null },
+            { null, null, null, "zip", "configs" }, { "com.adobe.flash.framework", "playerglobal", null, "swc", null },
+            { "none", null, null, null, null }, { null, null, null, null, null } };
+    }
+
+    @Test( dataProvider = "searches" )
+    public void sameAsSearchFor( String groupId, String artifactId, String version, String type, String classifier )
+    {
+        Artifact expected = null;
+        for ( Artifact artifact : artifacts )
+        {
+            if ( equals( artifact.getGroupId(), groupId ) && equals( artifact.getArtifactId(), artifactId )
+                && equals( artifact.getVersion(), version ) && equals( artifact.getType(), type )
+                && equals( artifact.getClassifier(), classifier ) )
+            {
+                expected = artifact;
+                break;
+            }
+        }
+
+        assertThat( new ArtifactIndex( artifacts ).searchFor( groupId, artifactId, version, type, classifier ),
+                    equalTo( expected ) );
+    }
+
+    private static boolean equals( String str1, String str2 )
+    {
+        return str1 == null || str2 == null || str1.equals( str2 );
+    }
+
+}
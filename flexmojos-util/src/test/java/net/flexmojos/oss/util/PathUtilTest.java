@@ -27,12 +27,14 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
@@ -274,4 +276,101 @@ public class PathUtilTest
                     equalTo( "../../velo2" ) );
     }
 
+    @Test
+    public void testGetRelativePathAncestorAndSelf()
+    {
+        assertThat( PathUtil.relativePath( new File( "/home/velo/content" ), new File( "/home" ) ),
+                    equalTo( "../.." ) );
+        assertThat( PathUtil.relativePath( new File( "/home/velo" ), new File( "/home/velo" ) ), equalTo( "." ) );
+        assertThat( PathUtil.relativePath( new File( "/" ), new File( "/home/velo" ) ), equalTo( "home/velo" ) );
+        assertThat( PathUtil.relativePath( new File( "/home/ab" ), new File( "/home/abc/d" ) ),
+                    equalTo( "../abc/d" ) );
+    }
+
+    @Test
+    public void testGetRelativePathWindowsSeparators()
+    {
+        assertThat( PathUtil.relativePath( "C:\\home\\velo", "C:\\home\\velo\\content\\a.as", '\\' ),
+                    equalTo( "content/a.as" ) );
+        assertThat( PathUtil.relativePath( "C:\\home\\velo\\content", "C:\\home\\velo2\\b.as", '\\' ),
+                    equalTo( "../../velo2/b.as" ) );
+        assertThat( PathUtil.relativePath( "C:\\", "C:\\home", '\\' ), equalTo( "home" ) );
+        assertThat( PathUtil.relativePath( "C:\\home", "D:\\home\\a.as", '\\' ), equalTo( "D:/home/a.as" ) );
+    }
+
+    @Test
+    public void testGetRelativePathThroughSymlink()
+        throws IOException
+    {
+        File dir = tempDirectory( "symlink" );
+        File real = new File( dir, "real/src/main/flex" );
+        real.mkdirs();
+        File link = symlink( new File( dir, "link" ), new File( dir, "real" ) );
+
+        assertThat( PathUtil.relativePath( new File( link, "src" ), new File( real, "com/A.as" ) ),
+                    equalTo( "main/flex/com/A.as" ) );
+        assertThat( PathUtil.path( new File( link, "src/main" ) ), equalTo( new File( real, ".." ).getCanonicalPath() ) );
+    }
+
+    @Test
+    public void testClearCache()
+        throws IOException
+    {
+        File dir = tempDirectory( "cache" );
+        File first = new File( dir, "first" );
+        File second = new File( dir, "second" );
+        first.mkdirs();
+        second.mkdirs();
+        File link = symlink( new File( dir, "current" ), first );
+
+        assertThat( PathUtil.path( link ), equalTo( first.getCanonicalPath() ) );
+        assertThat( PathUtil.file( link ), equalTo( first.getCanonicalFile() ) );
+
+        link.delete();
+        symlink( link, second );
+        assertThat( "cached until cleared", PathUtil.path( link ), equalTo( first.getCanonicalPath() ) );
+
+        PathUtil.clearCache();
+        assertThat( PathUtil.path( link ), equalTo( second.getCanonicalPath() ) );
+        assertThat( PathUtil.file( link ), equalTo( second.getCanonicalFile() ) );
+    }
+
+    private File tempDirectory( String name )
+        throws IOException
+    {
+        File dir = new File( "target/path-util/" + name ).getAbsoluteFile();
+        delete( dir );
+        dir.mkdirs();
+        return dir;
+    }
+
+    private static void delete( File file )
+    {
+        File[] children = file.listFiles();
+        if ( children != null && !Files.isSymbolicLink( file.toPath() ) )
+        {
+            for ( File child : children )
+            {
+                delete( child );
+            }
+        }
+        file.delete();
+    }
+
+    private static File symlink( File link, File target )
+    {
+        try
+        {
+            return Files.createSymbolicLink( link.toPath(), target.toPath() ).toFile();
+        }
+        catch ( IOException e )
+        {
+            throw new SkipException( "Symbolic links not supported: " + e.getMessage() );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            throw new SkipException( "Symbolic links not supported: " + e.getMessage() );
+        }
+    }
+
 }